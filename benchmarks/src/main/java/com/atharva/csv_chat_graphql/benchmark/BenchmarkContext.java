@@ -0,0 +1,98 @@
+package com.nupur.csv_chat_graphql.benchmark;
+
+import com.nupur.csv_chat_graphql.CsvChatGraphqlApplication;
+import com.nupur.csv_chat_graphql.service.CsvImportResult;
+import com.nupur.csv_chat_graphql.service.CsvService;
+import com.nupur.csv_chat_graphql.service.ImportProgressListener;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The application, started once per benchmark trial: no web server (unless
+ * started with {@link #startWeb}), its own in-memory H2 database, mapped
+ * datasets in a temporary directory. Anything else comes from the
+ * application's own application.properties unless overridden.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    static final String DATASET = "bench";
+
+    private final ConfigurableApplicationContext context;
+    private final Path mappedDirectory;
+
+    private BenchmarkContext(ConfigurableApplicationContext context, Path mappedDirectory) {
+        this.context = context;
+        this.mappedDirectory = mappedDirectory;
+    }
+
+    /** Starts the application with extra "key=value" properties. */
+    static BenchmarkContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    /** Same, serving HTTP on a free port (see {@link #port}). */
+    static BenchmarkContext startWeb(String... properties) {
+        List<String> withPort = new ArrayList<>(List.of(properties));
+        withPort.add("server.port=0");
+        return start(WebApplicationType.SERVLET, withPort.toArray(new String[0]));
+    }
+
+    private static BenchmarkContext start(WebApplicationType web, String... properties) {
+        Path mappedDirectory;
+        try {
+            mappedDirectory = Files.createTempDirectory("csv-bench-mapped");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // as command-line arguments, so they win over application.properties
+        List<String> args = new ArrayList<>(List.of(
+                "--logging.level.root=WARN",
+                "--csv.import.mapped-directory=" + mappedDirectory));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CsvChatGraphqlApplication.class)
+                .web(web)
+                .run(args.toArray(new String[0]));
+        return new BenchmarkContext(context, mappedDirectory);
+    }
+
+    int port() {
+        return Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /** Imports (replaces) {@link #DATASET}. */
+    CsvImportResult importCsv(byte[] csv) {
+        try {
+            return bean(CsvService.class).importCsv(DATASET, new ByteArrayInputStream(csv), ImportProgressListener.NONE);
+        } catch (Exception e) {
+            throw new IllegalStateException("Benchmark import failed", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        try {
+            FileSystemUtils.deleteRecursively(mappedDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
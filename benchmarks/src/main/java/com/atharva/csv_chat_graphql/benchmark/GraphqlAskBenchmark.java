@@ -0,0 +1,96 @@
+package com.nupur.csv_chat_graphql.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end GraphQL {@code ask}: document parsing and validation, the
+ * resolvers (question planning, query, batched cell loading) and the JSON
+ * serialization of the response, as for an HTTP request minus the transport.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class GraphqlAskBenchmark {
+
+    private static final String DOCUMENT = """
+            query Ask($question: String!, $first: Int) {
+              ask(dataset: "%s", question: $question, first: $first) {
+                edges { cursor node { id cells { columnName value } } }
+                pageInfo { hasNextPage endCursor }
+              }
+            }
+            """.formatted(BenchmarkContext.DATASET);
+
+    @Param("20000")
+    private int rows;
+
+    @Param("8")
+    private int columns;
+
+    @Param("100")
+    private int cardinality;
+
+    @Param("20")
+    private int first;
+
+    // true = repeated questions are answered from the result cache
+    @Param({"false", "true"})
+    private boolean resultCache;
+
+    private BenchmarkContext context;
+    private ExecutionGraphQlService graphQlService;
+    private JsonMapper jsonMapper;
+    private Map<String, Object> variables;
+    private final AtomicLong requestIds = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start("csv.query.result-cache.enabled=" + resultCache);
+        context.importCsv(new SyntheticCsv(rows, columns, cardinality).bytes());
+
+        graphQlService = context.bean(ExecutionGraphQlService.class);
+        jsonMapper = context.bean(JsonMapper.class);
+        variables = Map.of(
+                "question", "show rows where col1 is v7 and col2 > 2000 order by col2 desc",
+                "first", first);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] ask() {
+        DefaultExecutionGraphQlRequest request = new DefaultExecutionGraphQlRequest(DOCUMENT, "Ask", variables,
+                null, Long.toString(requestIds.incrementAndGet()), null);
+        ExecutionGraphQlResponse response = graphQlService.execute(request).block();
+        if (response == null || !response.getErrors().isEmpty()) {
+            throw new IllegalStateException("ask failed: " + (response == null ? "no response" : response.getErrors()));
+        }
+        return jsonMapper.writeValueAsBytes(response.toMap());
+    }
+}
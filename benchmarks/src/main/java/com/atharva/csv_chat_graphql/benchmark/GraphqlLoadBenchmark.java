@@ -0,0 +1,104 @@
+package com.nupur.csv_chat_graphql.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GraphQL over HTTP under load: 500 concurrent clients (JMH threads) each
+ * sending {@code ask} requests back to back to the running server, with the
+ * resolvers fetching on the request threads (async=false, the Tomcat pool
+ * is what bounds concurrency) or on the fetch executor (async=true, requests
+ * park while the database permits are taken). Sample mode reports the latency
+ * percentiles, p0.99 included. Result cache off so every request queries.
+ *
+ * Each request carries two independent root fields, which async fetches side by side.
+ * Requests that fail (timed out, mostly) are counted and reported at the end of
+ * the trial rather than aborting it, their latency stays in the samples.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(500)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@State(Scope.Benchmark)
+public class GraphqlLoadBenchmark {
+
+    private static final String BODY = """
+            {"query": "{ slow: ask(dataset: \\"%1$s\\", question: \\"show rows where col2 > 2000 order by col3 desc\\", first: 10) { edges { node { id cells { value } } } } \
+            fast: ask(dataset: \\"%1$s\\", question: \\"show rows where col1 is v7\\", first: 10) { edges { node { id } } } }"}
+            """.formatted(BenchmarkContext.DATASET);
+
+    @Param("1000")
+    private int rows;
+
+    @Param("8")
+    private int columns;
+
+    @Param("100")
+    private int cardinality;
+
+    @Param({"false", "true"})
+    private boolean async;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private BenchmarkContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.startWeb("csv.import.layout=eav",
+                "csv.query.result-cache.enabled=false",
+                "csv.query.concurrency.async=" + async);
+        context.importCsv(new SyntheticCsv(rows, columns, cardinality).bytes());
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + context.port() + "/graphql"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(BODY))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        System.out.printf("%n%d of %d requests failed (async=%s)%n", failed.get(), sent.get(), async);
+        context.close();
+    }
+
+    @Benchmark
+    public String ask() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        sent.incrementAndGet();
+        if (response.statusCode() != 200 || response.body().contains("\"errors\"")) {
+            failed.incrementAndGet();
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,63 @@
+package com.nupur.csv_chat_graphql.benchmark;
+
+import com.nupur.csv_chat_graphql.service.CsvImportResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code CsvService.importCsv} of a synthetic CSV, per storage layout. Every
+ * invocation replaces the dataset, so each one is a full import (one shot
+ * per iteration).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class IngestBenchmark {
+
+    @Param("20000")
+    private int rows;
+
+    @Param("8")
+    private int columns;
+
+    @Param("100")
+    private int cardinality;
+
+    @Param({"eav", "compact", "mapped"})
+    private String layout;
+
+    private BenchmarkContext context;
+    private byte[] csv;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start("csv.import.layout=" + layout);
+        csv = new SyntheticCsv(rows, columns, cardinality).bytes();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public CsvImportResult importCsv() {
+        return context.importCsv(csv);
+    }
+}
@@ -0,0 +1,95 @@
+package com.nupur.csv_chat_graphql.benchmark;
+
+import com.nupur.csv_chat_graphql.DataCell;
+import com.nupur.csv_chat_graphql.DataRow;
+import com.nupur.csv_chat_graphql.service.DataRowQueryService;
+import com.nupur.csv_chat_graphql.service.NaturalLanguageQueryService;
+import com.nupur.csv_chat_graphql.service.ParsedQuery;
+import com.nupur.csv_chat_graphql.service.RowPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row lookups over an imported synthetic dataset (EAV layout, the one SQL
+ * can answer), result cache off so every call does the work:
+ * a default page of {@code findPageByColumnValue}, and one parsed question
+ * answered by SQL (QueryDSL, cells loaded in one batch like the GraphQL
+ * loader does) versus the in-memory scan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+
+    private static final Map<String, String> QUESTIONS = Map.of(
+            "equality", "show rows where col1 is v7",
+            "rangeSortedTop", "show top 20 rows where col1 is v7 and col2 > 5000 order by col2 desc");
+
+    @Param("20000")
+    private int rows;
+
+    @Param("8")
+    private int columns;
+
+    @Param("100")
+    private int cardinality;
+
+    @Param({"equality", "rangeSortedTop"})
+    private String question;
+
+    private BenchmarkContext context;
+    private DataRowQueryService queryService;
+    private ParsedQuery parsed;
+    private String value;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start("csv.import.layout=eav", "csv.query.result-cache.enabled=false");
+        SyntheticCsv csv = new SyntheticCsv(rows, columns, cardinality);
+        context.importCsv(csv.bytes());
+
+        queryService = context.bean(DataRowQueryService.class);
+        parsed = context.bean(NaturalLanguageQueryService.class).parse(QUESTIONS.get(question));
+        value = csv.textValue(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public RowPage columnValueQuerydsl() {
+        return queryService.findPageByColumnValue(BenchmarkContext.DATASET, "col1", value, null,
+                queryService.pageSize(null));
+    }
+
+    @Benchmark
+    public Map<Long, List<DataCell>> questionQuerydsl() {
+        List<DataRow> found = queryService.fetchUsingQuerydsl(BenchmarkContext.DATASET, parsed);
+        return queryService.findCellsByRowIds(found.stream().map(DataRow::getId).toList());
+    }
+
+    @Benchmark
+    public List<DataRow> questionInMemory() {
+        return queryService.filterInMemory(BenchmarkContext.DATASET, parsed);
+    }
+}
@@ -0,0 +1,51 @@
+package com.nupur.csv_chat_graphql.benchmark;
+
+import com.nupur.csv_chat_graphql.config.CsvQueryProperties;
+import com.nupur.csv_chat_graphql.service.AggregateQuery;
+import com.nupur.csv_chat_graphql.service.NaturalLanguageQueryService;
+import com.nupur.csv_chat_graphql.service.ParsedQuery;
+import com.nupur.csv_chat_graphql.service.QueryPlanCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of natural-language questions alone (no Spring context, no data,
+ * no plan cache): the cost every cache miss pays before a query runs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class NaturalLanguageParseBenchmark {
+
+    // parsing needs no data access
+    private final NaturalLanguageQueryService service =
+            new NaturalLanguageQueryService(null, new QueryPlanCache(new CsvQueryProperties()), null);
+
+    @Benchmark
+    public ParsedQuery simpleQuestion() {
+        return service.parse("show all rows where city is Paris");
+    }
+
+    @Benchmark
+    public ParsedQuery complexQuestion() {
+        return service.parse("show top 3 rows where department is Engineering and experience greater than 3 "
+                + "and salary between 50000 and 90000 and name is not bob order by salary desc");
+    }
+
+    @Benchmark
+    public AggregateQuery aggregateQuestion() {
+        return service.parseAggregate("max experience by city where salary >= 100 order by experience desc top 3");
+    }
+}
@@ -0,0 +1,66 @@
+package com.nupur.csv_chat_graphql.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Generates benchmark CSVs of a given shape, the same bytes for the same
+ * arguments (fixed seed), so runs are comparable.
+ *
+ * Columns: "id" (1..rows), then alternating text and number columns named
+ * "col1", "col2", ... Text columns (odd) hold {@code cardinality} distinct
+ * values "v0".."v{cardinality-1}", number columns (even) integers 0..9999.
+ * Questions can therefore rely on "col1" being text and "col2" numeric.
+ */
+public final class SyntheticCsv {
+
+    private static final long SEED = 42;
+
+    private final int rows;
+    private final int columns;
+    private final int cardinality;
+
+    /**
+     * @param rows        data rows (without the header)
+     * @param columns     columns besides "id", at least 2
+     * @param cardinality distinct values per text column, at least 1
+     */
+    public SyntheticCsv(int rows, int columns, int cardinality) {
+        if (rows < 0 || columns < 2 || cardinality < 1) {
+            throw new IllegalArgumentException("rows >= 0, columns >= 2 and cardinality >= 1 expected");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.cardinality = cardinality;
+    }
+
+    /** A value that occurs in "col1" (about rows / cardinality times). */
+    public String textValue(int k) {
+        return "v" + Math.floorMod(k, cardinality);
+    }
+
+    public byte[] bytes() {
+        Random random = new Random(SEED);
+        StringBuilder csv = new StringBuilder(rows * columns * 6 + 64);
+
+        csv.append("id");
+        for (int c = 1; c <= columns; c++) {
+            csv.append(",col").append(c);
+        }
+        csv.append('\n');
+
+        for (int r = 1; r <= rows; r++) {
+            csv.append(r);
+            for (int c = 1; c <= columns; c++) {
+                csv.append(',');
+                if (c % 2 == 1) {
+                    csv.append('v').append(random.nextInt(cardinality));
+                } else {
+                    csv.append(random.nextInt(10_000));
+                }
+            }
+            csv.append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
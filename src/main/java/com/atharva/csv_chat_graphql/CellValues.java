@@ -0,0 +1,76 @@
+package com.nupur.csv_chat_graphql;
+
+import java.time.LocalDate;
+
+/**
+ * Exception-free parsing of CSV cell text into typed values. Every check is
+ * a plain character scan, so non-numeric / non-date text costs no exception.
+ */
+public final class CellValues {
+
+    private CellValues() {
+    }
+
+    /**
+     * Numbers of the form [+-]digits[.digits] ("42", "-3.5"); null for anything
+     * else, including exponents, blanks and "NaN".
+     */
+    public static Double parseNumber(String s) {
+        if (s == null) {
+            return null;
+        }
+        int len = s.length();
+        int i = 0;
+        if (i < len && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+            i++;
+        }
+        int intDigits = digits(s, i);
+        if (intDigits == 0) {
+            return null;
+        }
+        i += intDigits;
+        if (i < len) {
+            if (s.charAt(i) != '.') {
+                return null;
+            }
+            int fractionDigits = digits(s, i + 1);
+            if (fractionDigits == 0 || i + 1 + fractionDigits != len) {
+                return null;
+            }
+        }
+        return Double.parseDouble(s); // shape checked above, cannot throw
+    }
+
+    /** True for numbers without a fraction part (see {@link #parseNumber}). */
+    public static boolean isInteger(String s) {
+        return parseNumber(s) != null && s.indexOf('.') < 0;
+    }
+
+    /** ISO dates (yyyy-MM-dd) that exist in the calendar; null otherwise. */
+    public static LocalDate parseDate(String s) {
+        if (s == null || s.length() != 10 || s.charAt(4) != '-' || s.charAt(7) != '-'
+                || digits(s, 0) != 4 || digits(s, 5) != 2 || digits(s, 8) != 2) {
+            return null;
+        }
+        int year = Integer.parseInt(s, 0, 4, 10);
+        int month = Integer.parseInt(s, 5, 7, 10);
+        int day = Integer.parseInt(s, 8, 10, 10);
+        if (month < 1 || month > 12 || day < 1 || day > LocalDate.of(year, month, 1).lengthOfMonth()) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    public static boolean isBoolean(String s) {
+        return "true".equalsIgnoreCase(s) || "false".equalsIgnoreCase(s);
+    }
+
+    // Number of consecutive ASCII digits starting at from
+    private static int digits(String s, int from) {
+        int i = from;
+        while (i < s.length() && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+            i++;
+        }
+        return i - from;
+    }
+}
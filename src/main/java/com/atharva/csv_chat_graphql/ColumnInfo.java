@@ -0,0 +1,99 @@
+package com.nupur.csv_chat_graphql;
+
+import jakarta.persistence.*;
+
+/**
+ * Metadata of one column of the imported CSV (one row per header entry).
+ */
+@Entity
+@Table(name = "column_info")
+public class ColumnInfo {
+
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    // Dataset and generation (import) this column belongs to
+    private String dataset;
+
+    private long generation;
+
+    // 0-based position in the CSV header
+    private int position;
+
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    private ColumnType type;
+
+    // Non-empty cells seen during import
+    private long valueCount;
+
+    // ColumnStatistics gathered during the import, encoded (null for older imports)
+    @Column(length = 32_768)
+    private byte[] statistics;
+
+    // Where the dataset keeps its values (same for all columns of an import)
+    @Enumerated(EnumType.STRING)
+    private StorageLayout layout;
+
+    // JPA needs a protected / default constructor
+    protected ColumnInfo() {
+    }
+
+    public ColumnInfo(int position, String name, ColumnType type, long valueCount) {
+        this.position = position;
+        this.name = name;
+        this.type = type;
+        this.valueCount = valueCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getDataset() {
+        return dataset;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public void setDatasetGeneration(String dataset, long generation) {
+        this.dataset = dataset;
+        this.generation = generation;
+    }
+
+    public StorageLayout getLayout() {
+        return layout == null ? StorageLayout.EAV : layout;
+    }
+
+    public void setLayout(StorageLayout layout) {
+        this.layout = layout;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ColumnType getType() {
+        return type;
+    }
+
+    public long getValueCount() {
+        return valueCount;
+    }
+
+    public byte[] getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(byte[] statistics) {
+        this.statistics = statistics;
+    }
+}
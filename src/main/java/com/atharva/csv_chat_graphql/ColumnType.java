@@ -0,0 +1,16 @@
+package com.nupur.csv_chat_graphql;
+
+/**
+ * Type of a CSV column, inferred at import from all of its non-empty values.
+ */
+public enum ColumnType {
+    INTEGER,
+    DECIMAL,
+    DATE,
+    BOOLEAN,
+    STRING;
+
+    public boolean isNumeric() {
+        return this == INTEGER || this == DECIMAL;
+    }
+}
@@ -2,20 +2,52 @@ package com.nupur.csv_chat_graphql;
 
 import jakarta.persistence.*;
 
+import java.time.LocalDate;
+import java.util.Locale;
+
+// Equality lookups ("column = value", case-insensitive) seek idx_data_cell_lookup
+// via the lowercased key columns instead of scanning data_cell with lower(...) = ?;
+// numeric ranges ("salary > 50000") seek idx_data_cell_number. Both lead with the
+// dataset generation, so an import running next to the queries doesn't widen them.
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_data_cell_lookup", columnList = "generation, column_key, value_key, row_id"),
+        @Index(name = "idx_data_cell_number", columnList = "generation, column_key, number_value, row_id")
+})
 public class DataCell {
 
+    // Pooled sequence (not IDENTITY) so Hibernate can batch the INSERTs during import
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "data_cell_seq")
+    @SequenceGenerator(name = "data_cell_seq", sequenceName = "data_cell_seq", allocationSize = 5000)
     private Long id;
 
+    // Copy of the row's generation, so cell lookups can filter on it without a join
+    private long generation;
+
     private String columnName;
 
     // Physical DB column name is "cell_value" (NOT "value" → avoids H2 keyword)
     @Column(name = "cell_value", length = 2000)
     private String cellValue;
 
-    @ManyToOne
+    // Lowercased copies of columnName / cellValue, kept in sync by the setters
+    @Column(name = "column_key")
+    private String columnKey;
+
+    @Column(name = "value_key", length = 2000)
+    private String valueKey;
+
+    // Typed copies of cellValue (null when it is not a number / ISO date), so
+    // ORDER BY and range predicates compare native types in the database
+    @Column(name = "number_value")
+    private Double numberValue;
+
+    @Column(name = "date_value")
+    private LocalDate dateValue;
+
+    // LAZY: loading cells (e.g. the GraphQL batch loader) must not re-select their rows
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "row_id")
     private DataRow row;
 
@@ -24,15 +56,28 @@ public class DataCell {
     }
 
     public DataCell(String columnName, String value, DataRow row) {
-        this.columnName = columnName;
-        this.cellValue = value;
+        setColumnName(columnName);
+        setCellValue(value);
         this.row = row;
     }
 
+    /** The form stored in column_key / value_key (and used to query them). */
+    public static String normalize(String s) {
+        return s == null ? null : s.toLowerCase(Locale.ROOT);
+    }
+
     public Long getId() {
         return id;
     }
 
+    public long getGeneration() {
+        return generation;
+    }
+
+    public void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
     public String getColumnName() {
         return columnName;
     }
@@ -47,6 +92,7 @@ public class DataCell {
 
     public void setColumnName(String columnName) {
         this.columnName = columnName;
+        this.columnKey = normalize(columnName);
     }
 
     // ---- IMPORTANT PART ----
@@ -60,7 +106,7 @@ public class DataCell {
 
     // If somewhere in the code we did setValue(...)
     public void setValue(String value) {
-        this.cellValue = value;
+        setCellValue(value);
     }
 
     // If somewhere we used getCellValue()
@@ -71,5 +117,21 @@ public class DataCell {
     // If somewhere we used setCellValue(...)
     public void setCellValue(String value) {
         this.cellValue = value;
+        this.valueKey = normalize(value);
+        this.numberValue = CellValues.parseNumber(value);
+        this.dateValue = numberValue == null ? CellValues.parseDate(value) : null;
+    }
+
+    /** The value as stored in value_key (lowercased). */
+    public String getValueKey() {
+        return valueKey;
+    }
+
+    public Double getNumberValue() {
+        return numberValue;
+    }
+
+    public LocalDate getDateValue() {
+        return dateValue;
     }
 }
\ No newline at end of file
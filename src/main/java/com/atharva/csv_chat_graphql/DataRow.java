@@ -4,24 +4,80 @@ import jakarta.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
+// Readers only see their dataset's current generation (see DatasetGenerations);
+// keyset pages walk (generation, id)
 @Entity
+@Table(indexes = @Index(name = "idx_data_row_generation", columnList = "generation, id"))
 public class DataRow {
 
+    // Pooled sequence (not IDENTITY) so Hibernate can batch the INSERTs during import
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "data_row_seq")
+    @SequenceGenerator(name = "data_row_seq", sequenceName = "data_row_seq", allocationSize = 500)
     private Long id;
 
-    // One row has many cells
+    // Named dataset (uploaded CSV) the row belongs to
+    private String dataset;
+
+    // Import that wrote this row; unique across datasets, replaced ones are dropped in the background
+    private long generation;
+
+    // One row has many cells (kept in CSV column order, which is insert order)
     @OneToMany(mappedBy = "row", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id ASC")
     private List<DataCell> cells = new ArrayList<>();
 
+    // Compact layout only: the row's values in one blob (see RowPayload), named
+    // by the dataset's ColumnInfo; such rows have no DataCell rows. Null for EAV.
+    @Column(name = "payload", length = RowPayload.MAX_BYTES)
+    private byte[] payload;
+
     public DataRow() {
     }
 
+    // Detached, read-only row rebuilt outside JPA (e.g. by the columnar engine)
+    public DataRow(Long id) {
+        this.id = id;
+    }
+
     public Long getId() {
         return id;
     }
 
+    public String getDataset() {
+        return dataset;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public void setDatasetGeneration(String dataset, long generation) {
+        this.dataset = dataset;
+        this.generation = generation;
+    }
+
+    public boolean isCompact() {
+        return payload != null;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Moves the cells into the payload before the row is persisted, so only the
+     * row itself is written (StorageLayout.COMPACT).
+     */
+    public void compact() {
+        List<String> values = new ArrayList<>(cells.size());
+        for (DataCell cell : cells) {
+            values.add(cell.getCellValue());
+        }
+        payload = RowPayload.encode(values);
+        cells = new ArrayList<>();
+    }
+
     // GraphQL will call this when you query "cells"
     public List<DataCell> getCells() {
         return cells;
@@ -0,0 +1,79 @@
+package com.nupur.csv_chat_graphql;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Binary form of a compact row ({@link StorageLayout#COMPACT}): the value
+ * count, then every value as its UTF-8 length and bytes, in header order.
+ * Lengths are unsigned varints, so short values cost one byte of overhead.
+ */
+public final class RowPayload {
+
+    /** Largest payload a row may have (the data_row.payload column size). */
+    public static final int MAX_BYTES = 1 << 20;
+
+    private RowPayload() {
+    }
+
+    public static byte[] encode(List<String> values) {
+        byte[][] utf8 = new byte[values.size()][];
+        int size = varintSize(values.size());
+        for (int i = 0; i < utf8.length; i++) {
+            String value = values.get(i);
+            utf8[i] = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+            size += varintSize(utf8[i].length) + utf8[i].length;
+        }
+        if (size > MAX_BYTES) {
+            throw new IllegalArgumentException("Row too wide for the compact layout: " + size + " bytes");
+        }
+
+        byte[] out = new byte[size];
+        int pos = putVarint(out, 0, utf8.length);
+        for (byte[] value : utf8) {
+            pos = putVarint(out, pos, value.length);
+            System.arraycopy(value, 0, out, pos, value.length);
+            pos += value.length;
+        }
+        return out;
+    }
+
+    public static String[] decode(byte[] payload) {
+        int[] pos = {0};
+        String[] values = new String[getVarint(payload, pos)];
+        for (int i = 0; i < values.length; i++) {
+            int length = getVarint(payload, pos);
+            values[i] = new String(payload, pos[0], length, StandardCharsets.UTF_8);
+            pos[0] += length;
+        }
+        return values;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static int putVarint(byte[] out, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static int getVarint(byte[] in, int[] pos) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
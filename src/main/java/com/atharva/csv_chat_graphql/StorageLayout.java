@@ -0,0 +1,20 @@
+package com.nupur.csv_chat_graphql;
+
+/**
+ * How an imported dataset keeps its values (csv.import.layout, chosen per import).
+ */
+public enum StorageLayout {
+    /** One DataCell row per value: indexed, so questions run as SQL. */
+    EAV,
+    /**
+     * All values of a row in one payload on DataRow, named by the dataset's
+     * ColumnInfo; no DataCell rows. Questions are answered in memory.
+     */
+    COMPACT,
+    /**
+     * Nothing in the database: the CSV file itself is kept on disk and read
+     * through a memory mapping, with a persisted index (row offsets, per-column
+     * dictionaries and min / max) built by one scan at import.
+     */
+    MAPPED
+}
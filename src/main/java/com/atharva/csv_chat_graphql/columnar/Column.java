@@ -0,0 +1,51 @@
+package com.nupur.csv_chat_graphql.columnar;
+
+/**
+ * One CSV column stored as a typed vector.
+ *
+ * Row positions are indexes into the vector (0 .. rowCount-1), not DataRow ids.
+ * Filters work on a selection vector: {@code sel[0..count)} holds the candidate
+ * positions, survivors are compacted to the front and the new count returned.
+ */
+public abstract class Column {
+
+    public enum Type { LONG, DOUBLE, STRING }
+
+    private final String name;
+    protected final NullBitmap nulls;
+
+    protected Column(String name, NullBitmap nulls) {
+        this.name = name;
+        this.nulls = nulls;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isNull(int row) {
+        return nulls.isNull(row);
+    }
+
+    public abstract Type getType();
+
+    /** The original CSV text of the cell ("" for empty cells). */
+    public abstract String valueAt(int row);
+
+    /** Keeps rows whose value equals {@code value}, ignoring case (same as the EAV queries). */
+    public abstract int filterEquals(String value, int[] sel, int count);
+
+    /**
+     * Sort group of a non-empty cell, ranked before {@link #compareRows} in both
+     * directions: 0 for numbers, 1 for text (only a text column has any).
+     */
+    public int sortGroup(int row) {
+        return 0;
+    }
+
+    /**
+     * Sort order within a sort group: numeric, then case-insensitive text order.
+     * Empty cells are placed by the caller (last, see {@link ColumnarTable#orderBy}).
+     */
+    public abstract int compareRows(int a, int b);
+}
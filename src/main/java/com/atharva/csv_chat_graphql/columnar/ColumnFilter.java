@@ -0,0 +1,23 @@
+package com.nupur.csv_chat_graphql.columnar;
+
+/**
+ * "column = value" predicate (both compared case-insensitively).
+ */
+public final class ColumnFilter {
+
+    private final String column;
+    private final String value;
+
+    public ColumnFilter(String column, String value) {
+        this.column = column;
+        this.value = value;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
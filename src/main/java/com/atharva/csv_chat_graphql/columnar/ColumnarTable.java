@@ -0,0 +1,134 @@
+package com.nupur.csv_chat_graphql.columnar;
+
+import com.nupur.csv_chat_graphql.DataCell;
+import com.nupur.csv_chat_graphql.DataRow;
+import com.nupur.csv_chat_graphql.service.TopN;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Immutable column-oriented copy of one imported CSV.
+ *
+ * Queries run as tight loops over primitive arrays: filters narrow a selection
+ * vector of row positions column by column, ORDER BY sorts that vector with a
+ * primitive merge sort (TOP N only ranks N of them in a bounded heap), and only
+ * the surviving rows are turned back into
+ * (detached) {@link DataRow}s for GraphQL.
+ */
+public final class ColumnarTable {
+
+    private final long[] rowIds;
+    private final Column[] columns;
+    private final Map<String, Column> columnsByName = new HashMap<>();
+
+    ColumnarTable(long[] rowIds, Column[] columns) {
+        this.rowIds = rowIds;
+        this.columns = columns;
+        for (Column column : columns) {
+            // first occurrence wins for duplicate headers, like the EAV lookups
+            columnsByName.putIfAbsent(column.getName().toLowerCase(Locale.ROOT), column);
+        }
+    }
+
+    public int getRowCount() {
+        return rowIds.length;
+    }
+
+    /** DataRow id of the row at {@code pos}. */
+    public long rowIdAt(int pos) {
+        return rowIds[pos];
+    }
+
+    public List<Column> getColumns() {
+        return Collections.unmodifiableList(Arrays.asList(columns));
+    }
+
+    /** Case-insensitive column lookup; null when the CSV has no such column. */
+    public Column column(String name) {
+        return name == null ? null : columnsByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Positions of all rows matching every filter (AND), in import order.
+     */
+    public int[] filter(List<ColumnFilter> filters) {
+        int count = rowIds.length;
+        int[] sel = new int[count];
+        for (int i = 0; i < count; i++) {
+            sel[i] = i;
+        }
+
+        for (ColumnFilter f : filters) {
+            Column column = column(f.getColumn());
+            if (column == null || f.getValue() == null) {
+                return new int[0];
+            }
+            count = column.filterEquals(f.getValue(), sel, count);
+            if (count == 0) {
+                return new int[0];
+            }
+        }
+        return count == sel.length ? sel : Arrays.copyOf(sel, count);
+    }
+
+    /**
+     * Stable sort of {@code positions} by a column, then keep the first {@code limit}
+     * (negative = no limit). An unknown sort column leaves the order unchanged.
+     */
+    public int[] orderBy(int[] positions, String sortColumn, boolean descending, int limit) {
+        return orderBy(positions, sortColumn, descending, limit, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same; with a limit only the best {@code limit} rows are ranked (bounded
+     * heap, see {@link TopN}), in parallel from {@code parallelThreshold} positions.
+     */
+    public int[] orderBy(int[] positions, String sortColumn, boolean descending, int limit,
+                         int parallelThreshold) {
+        Column column = column(sortColumn);
+        if (column == null) {
+            return limit >= 0 && positions.length > limit ? Arrays.copyOf(positions, limit) : positions;
+        }
+        // Numbers, then text, then empty cells in both directions, like the SQL path's rank
+        int direction = descending ? -1 : 1;
+        IntBinaryOperator cmp = (a, b) -> {
+            boolean na = column.isNull(a);
+            boolean nb = column.isNull(b);
+            if (na || nb) {
+                return Boolean.compare(na, nb);
+            }
+            int group = Integer.compare(column.sortGroup(a), column.sortGroup(b));
+            if (group != 0) {
+                return group;
+            }
+            return direction * column.compareRows(a, b);
+        };
+        return TopN.select(positions, limit, cmp, parallelThreshold);
+    }
+
+    public List<DataRow> toDataRows(int[] positions) {
+        List<DataRow> rows = new ArrayList<>(positions.length);
+        for (int pos : positions) {
+            rows.add(toDataRow(pos));
+        }
+        return rows;
+    }
+
+    /**
+     * Rebuilds the row as a detached DataRow (never attached to JPA).
+     */
+    public DataRow toDataRow(int pos) {
+        DataRow row = new DataRow(rowIds[pos]);
+        for (Column column : columns) {
+            row.addCell(new DataCell(column.getName(), column.valueAt(pos), row));
+        }
+        return row;
+    }
+}
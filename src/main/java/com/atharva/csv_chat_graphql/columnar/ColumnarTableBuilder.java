@@ -0,0 +1,197 @@
+package com.nupur.csv_chat_graphql.columnar;
+
+import com.nupur.csv_chat_graphql.DataCell;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects rows as they are imported and turns them into a {@link ColumnarTable}.
+ *
+ * While building, every column is dictionary-encoded (one int per cell plus each
+ * distinct string once). {@link #build()} then picks the narrowest type per
+ * column: long[] when all values are canonical integers, double[] when they are
+ * all numbers, dictionary-encoded text otherwise.
+ */
+public class ColumnarTableBuilder {
+
+    private final String[] header;
+    private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+    private final List<List<String>> dictionaryValues = new ArrayList<>();
+    private final int[][] codes;
+    private final NullBitmap[] nulls;
+
+    private long[] rowIds = new long[1024];
+    private int rowCount;
+
+    public ColumnarTableBuilder(String[] header) {
+        this.header = header.clone();
+        this.codes = new int[header.length][];
+        this.nulls = new NullBitmap[header.length];
+        for (int c = 0; c < header.length; c++) {
+            dictionaries.add(new HashMap<>());
+            dictionaryValues.add(new ArrayList<>());
+            codes[c] = new int[1024];
+            nulls[c] = new NullBitmap(1024);
+        }
+    }
+
+    /**
+     * Cells must be in header order (which is how the import creates them).
+     */
+    public void addRow(long rowId, List<DataCell> cells) {
+        if (rowCount == rowIds.length) {
+            int capacity = rowIds.length * 2;
+            rowIds = Arrays.copyOf(rowIds, capacity);
+            for (int c = 0; c < header.length; c++) {
+                codes[c] = Arrays.copyOf(codes[c], capacity);
+            }
+        }
+
+        rowIds[rowCount] = rowId;
+        for (int c = 0; c < header.length; c++) {
+            String value = c < cells.size() ? cells.get(c).getValue() : null;
+            if (value == null) {
+                value = "";
+            }
+            if (value.isEmpty()) {
+                nulls[c].set(rowCount);
+            }
+            codes[c][rowCount] = encode(c, value);
+        }
+        rowCount++;
+    }
+
+    private int encode(int column, String value) {
+        Map<String, Integer> dictionary = dictionaries.get(column);
+        Integer code = dictionary.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.put(value, code);
+            dictionaryValues.get(column).add(value);
+        }
+        return code;
+    }
+
+    public ColumnarTable build() {
+        Column[] columns = new Column[header.length];
+        for (int c = 0; c < header.length; c++) {
+            columns[c] = buildColumn(c);
+            // free the build-side structures as we go
+            dictionaries.set(c, Map.of());
+            dictionaryValues.set(c, List.of());
+            codes[c] = null;
+        }
+        return new ColumnarTable(Arrays.copyOf(rowIds, rowCount), columns);
+    }
+
+    private Column buildColumn(int c) {
+        String name = header[c];
+        String[] dictionary = dictionaryValues.get(c).toArray(new String[0]);
+        int[] rowCodes = Arrays.copyOf(codes[c], rowCount);
+
+        boolean anyValue = false;
+        boolean allLong = true;
+        boolean allDouble = true;
+        long[] longDictionary = new long[dictionary.length];
+        double[] doubleDictionary = new double[dictionary.length];
+
+        for (int code = 0; code < dictionary.length && (allLong || allDouble); code++) {
+            String value = dictionary[code];
+            if (value.isEmpty()) {
+                continue;
+            }
+            anyValue = true;
+
+            Long asLong = allLong ? parseCanonicalLong(value) : null;
+            if (asLong != null) {
+                longDictionary[code] = asLong;
+                doubleDictionary[code] = asLong;
+                continue;
+            }
+            allLong = false;
+
+            Double asDouble = parseDouble(value);
+            if (asDouble == null) {
+                allDouble = false;
+            } else {
+                doubleDictionary[code] = asDouble;
+            }
+        }
+
+        if (anyValue && allLong) {
+            long[] values = new long[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                values[row] = longDictionary[rowCodes[row]];
+            }
+            return new LongColumn(name, values, nulls[c]);
+        }
+
+        StringColumn text = new StringColumn(name, dictionary, rowCodes, nulls[c]);
+        if (anyValue && allDouble) {
+            double[] values = new double[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                values[row] = doubleDictionary[rowCodes[row]];
+            }
+            return new DoubleColumn(name, values, text, nulls[c]);
+        }
+        return text;
+    }
+
+    // ----------------- number parsing -----------------
+
+    /**
+     * Parses integers whose text round-trips exactly through Long.toString,
+     * without throwing for ordinary non-numeric text.
+     */
+    static Long parseCanonicalLong(String s) {
+        int len = s.length();
+        if (len == 0 || len > 20) {
+            return null;
+        }
+        int start = s.charAt(0) == '-' ? 1 : 0;
+        if (start == len) {
+            return null;
+        }
+        if (s.charAt(start) == '0' && len - start > 1) {
+            return null; // leading zeros ("007") are not canonical
+        }
+        if (start == 1 && len == 2 && s.charAt(1) == '0') {
+            return null; // "-0"
+        }
+        for (int i = start; i < len; i++) {
+            char ch = s.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return null;
+            }
+        }
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException overflow) {
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String s) {
+        boolean digit = false;
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                digit = true;
+            } else if (ch != '.' && ch != '-' && ch != '+' && ch != 'e' && ch != 'E') {
+                return null;
+            }
+        }
+        if (!digit) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
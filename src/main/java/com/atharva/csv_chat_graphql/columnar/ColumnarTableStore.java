@@ -0,0 +1,52 @@
+package com.nupur.csv_chat_graphql.columnar;
+
+import com.nupur.csv_chat_graphql.config.CsvQueryProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the columnar copy of each dataset's current CSV (when the engine is
+ * enabled via csv.query.columnar.enabled). A new table is swapped in only after
+ * its import committed, so readers never see a half-built table.
+ */
+@Component
+public class ColumnarTableStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ColumnarTableStore.class);
+
+    private final CsvQueryProperties queryProperties;
+
+    private final Map<String, ColumnarTable> tables = new ConcurrentHashMap<>();
+
+    public ColumnarTableStore(CsvQueryProperties queryProperties) {
+        this.queryProperties = queryProperties;
+    }
+
+    public boolean isEnabled() {
+        return queryProperties.getColumnar().isEnabled();
+    }
+
+    /** Builder for an import that is about to start, or null when the engine is off. */
+    public ColumnarTableBuilder newBuilder(String[] header) {
+        return isEnabled() ? new ColumnarTableBuilder(header) : null;
+    }
+
+    public void publish(String dataset, ColumnarTable table) {
+        tables.put(dataset, table);
+        log.info("Columnar table of '{}' published: {} rows x {} columns",
+                dataset, table.getRowCount(), table.getColumns().size());
+    }
+
+    public void clear(String dataset) {
+        tables.remove(dataset);
+    }
+
+    public Optional<ColumnarTable> current(String dataset) {
+        return isEnabled() ? Optional.ofNullable(tables.get(dataset)) : Optional.empty();
+    }
+}
@@ -0,0 +1,47 @@
+package com.nupur.csv_chat_graphql.columnar;
+
+/**
+ * Decimal column: a primitive {@code double[]} for sorting plus the
+ * dictionary-encoded original text, because "1.50" and "1.5" must still
+ * render (and match) exactly as they appeared in the CSV.
+ */
+public final class DoubleColumn extends Column {
+
+    private final double[] values;
+    private final StringColumn text;
+
+    DoubleColumn(String name, double[] values, StringColumn text, NullBitmap nulls) {
+        super(name, nulls);
+        this.values = values;
+        this.text = text;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.DOUBLE;
+    }
+
+    public double getDouble(int row) {
+        return values[row];
+    }
+
+    @Override
+    public String valueAt(int row) {
+        return text.valueAt(row);
+    }
+
+    @Override
+    public int filterEquals(String value, int[] sel, int count) {
+        return text.filterEquals(value, sel, count);
+    }
+
+    @Override
+    public int compareRows(int a, int b) {
+        boolean na = isNull(a);
+        boolean nb = isNull(b);
+        if (na || nb) {
+            return Boolean.compare(!na, !nb);
+        }
+        return Double.compare(values[a], values[b]);
+    }
+}
@@ -0,0 +1,58 @@
+package com.nupur.csv_chat_graphql.columnar;
+
+/**
+ * Integer column stored as a primitive {@code long[]}. Only chosen when every
+ * non-empty cell is a canonical integer ("42", not "042" or "+42"), so the
+ * original text can be rebuilt with {@link Long#toString(long)}.
+ */
+public final class LongColumn extends Column {
+
+    private final long[] values;
+
+    LongColumn(String name, long[] values, NullBitmap nulls) {
+        super(name, nulls);
+        this.values = values;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.LONG;
+    }
+
+    public long getLong(int row) {
+        return values[row];
+    }
+
+    @Override
+    public String valueAt(int row) {
+        return isNull(row) ? "" : Long.toString(values[row]);
+    }
+
+    @Override
+    public int filterEquals(String value, int[] sel, int count) {
+        Long needle = ColumnarTableBuilder.parseCanonicalLong(value);
+        if (needle == null) {
+            return 0; // can't equal any canonical integer text
+        }
+        long v = needle;
+
+        int out = 0;
+        for (int i = 0; i < count; i++) {
+            int row = sel[i];
+            if (values[row] == v && !isNull(row)) {
+                sel[out++] = row;
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public int compareRows(int a, int b) {
+        boolean na = isNull(a);
+        boolean nb = isNull(b);
+        if (na || nb) {
+            return Boolean.compare(!na, !nb);
+        }
+        return Long.compare(values[a], values[b]);
+    }
+}
@@ -0,0 +1,28 @@
+package com.nupur.csv_chat_graphql.columnar;
+
+/**
+ * One bit per row; a set bit means the CSV cell was empty.
+ */
+public final class NullBitmap {
+
+    private long[] words;
+
+    public NullBitmap(int capacity) {
+        this.words = new long[Math.max(1, (capacity + 63) >>> 6)];
+    }
+
+    public void set(int row) {
+        int word = row >>> 6;
+        if (word >= words.length) {
+            long[] grown = new long[Math.max(word + 1, words.length * 2)];
+            System.arraycopy(words, 0, grown, 0, words.length);
+            words = grown;
+        }
+        words[word] |= 1L << row;
+    }
+
+    public boolean isNull(int row) {
+        int word = row >>> 6;
+        return word < words.length && (words[word] & (1L << row)) != 0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.nupur.csv_chat_graphql.columnar;
+
+import com.nupur.csv_chat_graphql.CellValues;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Dictionary-encoded text column: every distinct value is stored once and rows
+ * hold an int code. Equality filters resolve the value against the (small)
+ * dictionary once and then scan the code array; sorting compares precomputed
+ * dictionary ranks instead of strings. Values that parse as numbers ("007",
+ * "9.5") rank numerically ahead of the text ones, like the SQL route.
+ */
+public final class StringColumn extends Column {
+
+    private final String[] dictionary;
+    private final String[] lowerDictionary;
+    private final int[] group;
+    private final int[] rank;
+    private final int[] codes;
+
+    StringColumn(String name, String[] dictionary, int[] codes, NullBitmap nulls) {
+        super(name, nulls);
+        this.dictionary = dictionary;
+        this.codes = codes;
+
+        this.lowerDictionary = new String[dictionary.length];
+        for (int i = 0; i < dictionary.length; i++) {
+            lowerDictionary[i] = dictionary[i].toLowerCase(Locale.ROOT);
+        }
+
+        this.group = new int[dictionary.length];
+        double[] numbers = new double[dictionary.length];
+        for (int i = 0; i < dictionary.length; i++) {
+            Double number = CellValues.parseNumber(dictionary[i]);
+            group[i] = number == null ? 1 : 0;
+            numbers[i] = number == null ? 0 : number;
+        }
+
+        Integer[] order = new Integer[dictionary.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> group[i])
+                .thenComparingDouble(i -> numbers[i])
+                .thenComparing(i -> lowerDictionary[i]));
+        this.rank = new int[dictionary.length];
+        for (int r = 0; r < order.length; r++) {
+            rank[order[r]] = r;
+        }
+    }
+
+    @Override
+    public Type getType() {
+        return Type.STRING;
+    }
+
+    public int getDistinctCount() {
+        return dictionary.length;
+    }
+
+    @Override
+    public String valueAt(int row) {
+        return dictionary[codes[row]];
+    }
+
+    @Override
+    public int filterEquals(String value, int[] sel, int count) {
+        String needle = value.toLowerCase(Locale.ROOT);
+        boolean[] matching = new boolean[dictionary.length];
+        boolean any = false;
+        for (int code = 0; code < lowerDictionary.length; code++) {
+            if (lowerDictionary[code].equals(needle)) {
+                matching[code] = true;
+                any = true;
+            }
+        }
+        if (!any) {
+            return 0;
+        }
+
+        int out = 0;
+        for (int i = 0; i < count; i++) {
+            int row = sel[i];
+            if (matching[codes[row]]) {
+                sel[out++] = row;
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public int sortGroup(int row) {
+        return group[codes[row]];
+    }
+
+    @Override
+    public int compareRows(int a, int b) {
+        return Integer.compare(rank[codes[a]], rank[codes[b]]);
+    }
+}
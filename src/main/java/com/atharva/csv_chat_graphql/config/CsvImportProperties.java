@@ -0,0 +1,101 @@
+package com.nupur.csv_chat_graphql.config;
+
+import com.nupur.csv_chat_graphql.StorageLayout;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tuning knobs for CSV ingest (prefix "csv.import" in application.properties).
+ */
+@Component
+@ConfigurationProperties(prefix = "csv.import")
+public class CsvImportProperties {
+
+    // Records per pipeline batch; the EntityManager is flushed + cleared after each batch
+    private int chunkSize = 5000;
+
+    // Converter threads building DataRow/DataCell entities in parallel
+    private int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    // Batches buffered between stages before the faster stage blocks (back-pressure)
+    private int queueCapacity = 4;
+
+    // Threads running background import jobs (imports into the same dataset still take turns)
+    private int jobThreads = 2;
+
+    // Finished jobs kept around for status polling before the oldest are dropped
+    private int jobRetention = 100;
+
+    // How long a replaced dataset generation stays readable before it is deleted
+    private long oldGenerationGraceMillis = 5000;
+
+    // Storage of newly imported datasets: one DataCell per value, or one payload per row
+    private StorageLayout layout = StorageLayout.EAV;
+
+    // Where csv.import.layout=mapped keeps the uploaded files and their indexes
+    private String mappedDirectory = "data/mapped";
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getJobThreads() {
+        return jobThreads;
+    }
+
+    public void setJobThreads(int jobThreads) {
+        this.jobThreads = jobThreads;
+    }
+
+    public int getJobRetention() {
+        return jobRetention;
+    }
+
+    public void setJobRetention(int jobRetention) {
+        this.jobRetention = jobRetention;
+    }
+
+    public long getOldGenerationGraceMillis() {
+        return oldGenerationGraceMillis;
+    }
+
+    public void setOldGenerationGraceMillis(long oldGenerationGraceMillis) {
+        this.oldGenerationGraceMillis = oldGenerationGraceMillis;
+    }
+
+    public StorageLayout getLayout() {
+        return layout;
+    }
+
+    public void setLayout(StorageLayout layout) {
+        this.layout = layout;
+    }
+
+    public String getMappedDirectory() {
+        return mappedDirectory;
+    }
+
+    public void setMappedDirectory(String mappedDirectory) {
+        this.mappedDirectory = mappedDirectory;
+    }
+}
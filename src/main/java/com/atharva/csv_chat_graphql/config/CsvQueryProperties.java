@@ -0,0 +1,249 @@
+package com.nupur.csv_chat_graphql.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Query-side knobs (prefix "csv.query" in application.properties).
+ */
+@Component
+@ConfigurationProperties(prefix = "csv.query")
+public class CsvQueryProperties {
+
+    // Compile questions to SQL (QueryDSL); false = evaluate them in Java, page by page
+    private boolean pushdown = true;
+
+    // Connection page size when a query gives no "first", and the largest one accepted
+    private int defaultPageSize = 100;
+    private int maxPageSize = 1000;
+
+    // Parsed questions kept in the plan cache (0 = no caching)
+    private long planCacheSize = 1000;
+
+    // Prepared questions (askSmart ids) kept with their plans
+    private long preparedQueries = 10_000;
+
+    // Parsed and validated GraphQL documents kept for persisted queries (by SHA-256 hash)
+    private long persistedQueries = 1000;
+
+    // Rows from which in-memory work (ranking a TOP N, scanning a dataset) is split across the fork-join pool
+    private int parallelThreshold = 100_000;
+
+    // Cost of reading one row by scanning, in matching rows collected by SQL; 0 = never scan instead of SQL
+    private double scanRowCost = 5;
+
+    private final Columnar columnar = new Columnar();
+    private final ResultCache resultCache = new ResultCache();
+    private final Limits limits = new Limits();
+    private final Concurrency concurrency = new Concurrency();
+
+    public boolean isPushdown() {
+        return pushdown;
+    }
+
+    public void setPushdown(boolean pushdown) {
+        this.pushdown = pushdown;
+    }
+
+    public int getDefaultPageSize() {
+        return defaultPageSize;
+    }
+
+    public void setDefaultPageSize(int defaultPageSize) {
+        this.defaultPageSize = defaultPageSize;
+    }
+
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    public void setMaxPageSize(int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    public long getPlanCacheSize() {
+        return planCacheSize;
+    }
+
+    public void setPlanCacheSize(long planCacheSize) {
+        this.planCacheSize = planCacheSize;
+    }
+
+    public long getPreparedQueries() {
+        return preparedQueries;
+    }
+
+    public void setPreparedQueries(long preparedQueries) {
+        this.preparedQueries = preparedQueries;
+    }
+
+    public long getPersistedQueries() {
+        return persistedQueries;
+    }
+
+    public void setPersistedQueries(long persistedQueries) {
+        this.persistedQueries = persistedQueries;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public double getScanRowCost() {
+        return scanRowCost;
+    }
+
+    public void setScanRowCost(double scanRowCost) {
+        this.scanRowCost = scanRowCost;
+    }
+
+    public Columnar getColumnar() {
+        return columnar;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    public Limits getLimits() {
+        return limits;
+    }
+
+    public Concurrency getConcurrency() {
+        return concurrency;
+    }
+
+    public static class Columnar {
+
+        // Materialize each import into typed column vectors and answer filters/top-N from them
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class ResultCache {
+
+        // Cache query results until the next import replaces the dataset
+        private boolean enabled = true;
+
+        // Upper bound on the (estimated) heap taken by cached results
+        private long maxBytes = 64L * 1024 * 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    public static class Limits {
+
+        // Budget of one GraphQL request: field values it may resolve (rows × fields),
+        // estimated from the dataset sizes before it runs
+        private long maxCost = 200_000;
+
+        // A request over budget gets smaller pages (PAGINATE) or is refused (REJECT)
+        private OverBudget overBudget = OverBudget.PAGINATE;
+
+        // Rows all connections of one request may return together
+        private int maxRows = 5000;
+
+        // Time one request may spend fetching; its SQL statements time out with it
+        private Duration timeout = Duration.ofSeconds(30);
+
+        public long getMaxCost() {
+            return maxCost;
+        }
+
+        public void setMaxCost(long maxCost) {
+            this.maxCost = maxCost;
+        }
+
+        public OverBudget getOverBudget() {
+            return overBudget;
+        }
+
+        public void setOverBudget(OverBudget overBudget) {
+            this.overBudget = overBudget;
+        }
+
+        public int getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(int maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Concurrency {
+
+        // GraphQL resolvers fetch on the fetch executor (futures) instead of the request thread
+        private boolean async;
+
+        // Fetch executor threads; unused when spring.threads.virtual.enabled runs them on virtual threads
+        private int threads = 64;
+
+        // Fetches allowed on the database at once (about the connection pool size)
+        private int maxFetches = 10;
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getMaxFetches() {
+            return maxFetches;
+        }
+
+        public void setMaxFetches(int maxFetches) {
+            this.maxFetches = maxFetches;
+        }
+    }
+
+    public enum OverBudget {
+        PAGINATE,
+        REJECT
+    }
+}
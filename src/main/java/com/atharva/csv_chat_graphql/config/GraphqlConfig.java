@@ -0,0 +1,18 @@
+package com.nupur.csv_chat_graphql.config;
+
+import com.nupur.csv_chat_graphql.graphql.PersistedQueries;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import org.springframework.boot.graphql.autoconfigure.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class GraphqlConfig {
+
+    // Automatic persisted queries: documents by hash, parsed and validated once
+    @Bean
+    public GraphQlSourceBuilderCustomizer persistedQueryCustomizer(PersistedQueries persistedQueries) {
+        return builder -> builder.configureGraphQl(graphQl ->
+                graphQl.preparsedDocumentProvider(new ApolloPersistedQuerySupport(persistedQueries)));
+    }
+}
@@ -0,0 +1,17 @@
+package com.nupur.csv_chat_graphql.config;
+
+import com.nupur.csv_chat_graphql.service.SqlCapture;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+    // Lets the EXPLAIN debug query see the SQL Hibernate generates
+    @Bean
+    public HibernatePropertiesCustomizer sqlCaptureCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlCapture());
+    }
+}
@@ -23,6 +23,7 @@ public class SecurityConfig {
                                 "/",              // index.html
                                 "/index.html",
                                 "/api/upload-csv",
+                                "/api/import-jobs/**",
                                 "/graphql",
                                 "/css/**",
                                 "/js/**",
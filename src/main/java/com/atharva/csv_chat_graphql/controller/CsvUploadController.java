@@ -1,6 +1,9 @@
 package com.nupur.csv_chat_graphql.controller;
 
-import com.nupur.csv_chat_graphql.service.CsvService;
+import com.nupur.csv_chat_graphql.service.CsvImportResult;
+import com.nupur.csv_chat_graphql.service.ImportJob;
+import com.nupur.csv_chat_graphql.service.ImportJobService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -9,19 +12,31 @@ import org.springframework.web.multipart.MultipartFile;
 @RequestMapping("/api")
 public class CsvUploadController {
 
-    private final CsvService csvService;
+    private final ImportJobService importJobService;
 
-    public CsvUploadController(CsvService csvService) {
-        this.csvService = csvService;
+    public CsvUploadController(ImportJobService importJobService) {
+        this.importJobService = importJobService;
     }
 
+    /**
+     * Blocking upload (the original behaviour) unless async=true, in which case
+     * the import is queued and the job is returned right away (202 Accepted).
+     * Poll it via GET /api/import-jobs/{id} or the importJob GraphQL query.
+     * The CSV replaces only the named dataset ("default" when not given).
+     */
     @PostMapping("/upload-csv")
-    public ResponseEntity<String> uploadCsv(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> uploadCsv(@RequestParam("file") MultipartFile file,
+                                       @RequestParam(value = "dataset", required = false) String dataset,
+                                       @RequestParam(value = "async", defaultValue = "false") boolean async) {
         try {
-            csvService.importCsv(file);
-            return ResponseEntity.ok("CSV uploaded successfully.");
+            if (async) {
+                ImportJob job = importJobService.submit(dataset, file);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+            }
+            CsvImportResult result = importJobService.submitAndWait(dataset, file);
+            return ResponseEntity.ok("CSV uploaded successfully. " + result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
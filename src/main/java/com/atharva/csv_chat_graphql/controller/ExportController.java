@@ -0,0 +1,52 @@
+package com.nupur.csv_chat_graphql.controller;
+
+import com.nupur.csv_chat_graphql.service.CsvExportService;
+import com.nupur.csv_chat_graphql.service.DatasetGenerations;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api")
+public class ExportController {
+
+    private final CsvExportService csvExportService;
+
+    public ExportController(CsvExportService csvExportService) {
+        this.csvExportService = csvExportService;
+    }
+
+    /**
+     * Downloads every row answering the question (the whole dataset when no
+     * question is given) as CSV or newline-delimited JSON, written while the
+     * rows are read; unlike ask/askPage there is no row limit or paging.
+     * Example: GET /api/export?question=show rows where city is Pune&format=ndjson
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "question", defaultValue = "") String question,
+                                                        @RequestParam(value = "format", required = false) String format,
+                                                        @RequestParam(value = "dataset", required = false) String dataset) {
+        CsvExportService.Format exportFormat;
+        String name;
+        try {
+            exportFormat = CsvExportService.Format.parse(format);
+            name = DatasetGenerations.checkName(dataset);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        StreamingResponseBody body = out -> csvExportService.export(name, question, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(name + "." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
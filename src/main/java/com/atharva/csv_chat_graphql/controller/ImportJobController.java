@@ -0,0 +1,48 @@
+package com.nupur.csv_chat_graphql.controller;
+
+import com.nupur.csv_chat_graphql.service.ImportJob;
+import com.nupur.csv_chat_graphql.service.ImportJobService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/import-jobs")
+public class ImportJobController {
+
+    private final ImportJobService importJobService;
+
+    public ImportJobController(ImportJobService importJobService) {
+        this.importJobService = importJobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> submit(@RequestParam("file") MultipartFile file,
+                                    @RequestParam(value = "dataset", required = false) String dataset) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.submit(dataset, file));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public List<ImportJob> list() {
+        return importJobService.getJobs();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJob> get(@PathVariable String id) {
+        ImportJob job = importJobService.getJob(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ImportJob> cancel(@PathVariable String id) {
+        ImportJob job = importJobService.cancel(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+}
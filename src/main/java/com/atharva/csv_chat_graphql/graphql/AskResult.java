@@ -1,24 +1,32 @@
 package com.nupur.csv_chat_graphql.graphql;
 
-import com.nupur.csv_chat_graphql.DataRow;
-
-import java.util.List;
-
 public class AskResult {
 
+    private final String preparedQueryId;
     private final String optimizedQuery;
-    private final List<DataRow> rows;
+    private final String persistedQueryHash;
+    private final DataRowConnection rows;
 
-    public AskResult(String optimizedQuery, List<DataRow> rows) {
+    public AskResult(String preparedQueryId, String optimizedQuery, String persistedQueryHash, DataRowConnection rows) {
+        this.preparedQueryId = preparedQueryId;
         this.optimizedQuery = optimizedQuery;
+        this.persistedQueryHash = persistedQueryHash;
         this.rows = rows;
     }
 
+    public String getPreparedQueryId() {
+        return preparedQueryId;
+    }
+
     public String getOptimizedQuery() {
         return optimizedQuery;
     }
 
-    public List<DataRow> getRows() {
+    public String getPersistedQueryHash() {
+        return persistedQueryHash;
+    }
+
+    public DataRowConnection getRows() {
         return rows;
     }
-}
\ No newline at end of file
+}
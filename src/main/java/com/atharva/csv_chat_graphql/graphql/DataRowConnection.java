@@ -0,0 +1,38 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import com.nupur.csv_chat_graphql.service.RowPage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relay-style connection over DataRows (rows, rowsByColumnValue, ask, askSmart).
+ */
+public class DataRowConnection {
+
+    private final List<DataRowEdge> edges;
+    private final PageInfo pageInfo;
+
+    public DataRowConnection(List<DataRowEdge> edges, PageInfo pageInfo) {
+        this.edges = edges;
+        this.pageInfo = pageInfo;
+    }
+
+    public static DataRowConnection of(RowPage page) {
+        List<DataRowEdge> edges = new ArrayList<>(page.getRows().size());
+        for (int i = 0; i < page.getRows().size(); i++) {
+            edges.add(new DataRowEdge(page.getCursors().get(i).encode(), page.getRows().get(i)));
+        }
+        String start = edges.isEmpty() ? null : edges.get(0).getCursor();
+        String end = edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor();
+        return new DataRowConnection(edges, new PageInfo(page.hasNextPage(), page.hasPreviousPage(), start, end));
+    }
+
+    public List<DataRowEdge> getEdges() {
+        return edges;
+    }
+
+    public PageInfo getPageInfo() {
+        return pageInfo;
+    }
+}
@@ -0,0 +1,22 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import com.nupur.csv_chat_graphql.DataRow;
+
+public class DataRowEdge {
+
+    private final String cursor;
+    private final DataRow node;
+
+    public DataRowEdge(String cursor, DataRow node) {
+        this.cursor = cursor;
+        this.node = node;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public DataRow getNode() {
+        return node;
+    }
+}
@@ -1,25 +1,96 @@
 package com.nupur.csv_chat_graphql.graphql;
 
+import com.nupur.csv_chat_graphql.ColumnInfo;
+import com.nupur.csv_chat_graphql.DataCell;
 import com.nupur.csv_chat_graphql.DataRow;
-import com.nupur.csv_chat_graphql.repository.DataRowRepository;
+import com.nupur.csv_chat_graphql.service.ColumnStatistics;
+import com.nupur.csv_chat_graphql.service.DataRowQueryService;
+import com.nupur.csv_chat_graphql.service.DatasetGenerations;
+import com.nupur.csv_chat_graphql.service.ParsedQuery;
+import com.nupur.csv_chat_graphql.service.RowCursor;
+import graphql.GraphQLContext;
+import org.hibernate.Hibernate;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class DataRowGraphqlController {
 
-    private final DataRowRepository dataRowRepository;
+    private final DataRowQueryService dataRowQueryService;
+    private final QueryGuard queryGuard;
 
-    public DataRowGraphqlController(DataRowRepository dataRowRepository) {
-        this.dataRowRepository = dataRowRepository;
+    public DataRowGraphqlController(DataRowQueryService dataRowQueryService, QueryGuard queryGuard) {
+        this.dataRowQueryService = dataRowQueryService;
+        this.queryGuard = queryGuard;
     }
 
+    // One keyset page of all rows of a dataset in import order
     @QueryMapping
-    public List<DataRow> rows() {
-        List<DataRow> allRows = dataRowRepository.findAll();
-        // GraphQL field is non-null → never return null
-        return allRows != null ? allRows : List.of();
+    public CompletableFuture<DataRowConnection> rows(@Argument String dataset, @Argument Integer first,
+                                                     @Argument String after, GraphQLContext context) {
+        ParsedQuery all = new ParsedQuery(List.of(), null, false, null);
+        String name = DatasetGenerations.checkName(dataset);
+        RowCursor cursor = RowCursor.decode(after);
+        return queryGuard.page(context, first, size -> dataRowQueryService.findPage(name, all, cursor, size))
+                .thenApply(DataRowConnection::of);
     }
-}
\ No newline at end of file
+
+    @QueryMapping
+    public CompletableFuture<List<ColumnInfo>> columns(@Argument String dataset, GraphQLContext context) {
+        String name = DatasetGenerations.checkName(dataset);
+        return queryGuard.call(context, () -> dataRowQueryService.findColumns(name));
+    }
+
+    @QueryMapping
+    public CompletableFuture<ColumnStatistics> columnStats(@Argument String dataset, @Argument String column,
+                                                          GraphQLContext context) {
+        String name = DatasetGenerations.checkName(dataset);
+        return queryGuard.call(context, () -> dataRowQueryService.columnStatistics(name, column));
+    }
+
+    @QueryMapping
+    public CompletableFuture<List<String>> datasets(GraphQLContext context) {
+        return queryGuard.call(context, dataRowQueryService::datasetNames);
+    }
+
+    /**
+     * DataRow.cells for ALL rows of a response at once, so N rows cost one
+     * extra statement instead of N lazy loads. Rows whose cells are already
+     * in memory (fetch-joined or columnar) are answered without touching the DB,
+     * compact rows are decoded from their payload.
+     */
+    @BatchMapping(typeName = "DataRow", field = "cells")
+    public Map<DataRow, List<DataCell>> cells(List<DataRow> rows, GraphQLContext context) {
+        List<Long> missing = new ArrayList<>();
+        for (DataRow row : rows) {
+            if (!row.isCompact() && !Hibernate.isInitialized(row.getCells())) {
+                missing.add(row.getId());
+            }
+        }
+        Map<Long, List<DataCell>> loaded = missing.isEmpty()
+                ? Map.of()
+                : queryGuard.fetchNow(context, () -> dataRowQueryService.findCellsByRowIds(missing));
+
+        Map<DataRow, List<DataCell>> result = new LinkedHashMap<>();
+        for (DataRow row : rows) {
+            List<DataCell> cells;
+            if (row.isCompact()) {
+                cells = dataRowQueryService.compactCells(row);
+            } else if (Hibernate.isInitialized(row.getCells())) {
+                cells = row.getCells();
+            } else {
+                cells = loaded.getOrDefault(row.getId(), List.of());
+            }
+            result.put(row, cells);
+        }
+        return result;
+    }
+}
@@ -1,30 +1,47 @@
 package com.nupur.csv_chat_graphql.graphql;
 
-import com.nupur.csv_chat_graphql.DataRow;
 import com.nupur.csv_chat_graphql.service.DataRowQueryService;
+import com.nupur.csv_chat_graphql.service.DatasetGenerations;
+import com.nupur.csv_chat_graphql.service.RowCursor;
+import com.nupur.csv_chat_graphql.service.RowPage;
+import graphql.GraphQLContext;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class DataRowQueryResolver {
 
     private final DataRowQueryService dataRowQueryService;
+    private final QueryGuard queryGuard;
 
-    public DataRowQueryResolver(DataRowQueryService dataRowQueryService) {
+    public DataRowQueryResolver(DataRowQueryService dataRowQueryService, QueryGuard queryGuard) {
         this.dataRowQueryService = dataRowQueryService;
+        this.queryGuard = queryGuard;
     }
 
     @QueryMapping
-    public List<DataRow> rowsByColumnValue(@Argument String columnName,
-                                           @Argument String value) {
-
-        // 🔹 NOW using QueryDSL-based method
-        List<DataRow> result =
-                dataRowQueryService.findRowsByColumnValueUsingQuerydsl(columnName, value);
-
-        return result != null ? result : List.of();
+    public CompletableFuture<DataRowConnection> rowsByColumnValue(@Argument String dataset,
+                                               @Argument String columnName,
+                                               @Argument String value,
+                                               @Argument Integer first,
+                                               @Argument String after,
+                                               GraphQLContext context) {
+        String name = DatasetGenerations.checkName(dataset);
+        RowCursor cursor = RowCursor.decode(after);
+
+        String col = columnName == null ? "" : columnName.trim();
+        String val = value == null ? "" : value.trim();
+        if (col.isEmpty() || val.isEmpty()) {
+            return CompletableFuture.completedFuture(DataRowConnection.of(new RowPage(List.of(), List.of(), false, false)));
+        }
+
+        // 🔹 QueryDSL EXISTS filter, one keyset page at a time (cached until the next import)
+        return queryGuard.page(context, first,
+                        size -> dataRowQueryService.findPageByColumnValue(name, col, val, cursor, size))
+                .thenApply(DataRowConnection::of);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A semaphore whose waiting fetches get their permit oldest request first
+ * (not first come, first served): a request's later fetches (the cells of
+ * the rows it has already read) go ahead of the first fetches of requests
+ * that arrived after it, so under load requests finish one after another
+ * instead of all of them slowing down until they time out together.
+ */
+final class FetchPermits {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+    private int available;
+    private long arrivals; // tie-break between fetches of the same request
+
+    FetchPermits(int permits) {
+        this.available = permits;
+    }
+
+    private final class Waiter implements Comparable<Waiter> {
+        final long requestStarted;
+        final long arrival = arrivals++;
+        final Condition granted = lock.newCondition();
+        boolean hasPermit;
+
+        Waiter(long requestStarted) {
+            this.requestStarted = requestStarted;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            int byRequest = Long.compare(requestStarted - other.requestStarted, 0);
+            return byRequest != 0 ? byRequest : Long.compare(arrival, other.arrival);
+        }
+    }
+
+    /**
+     * Takes a permit for a fetch of the request started at {@code requestStarted}
+     * (System.nanoTime()), waiting at most {@code timeoutNanos} (negative = no limit).
+     *
+     * @return false when the wait timed out
+     */
+    boolean acquire(long requestStarted, long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            if (available > 0 && waiters.isEmpty()) {
+                available--;
+                return true;
+            }
+            Waiter waiter = new Waiter(requestStarted);
+            waiters.add(waiter);
+            try {
+                long left = timeoutNanos;
+                while (!waiter.hasPermit) {
+                    if (timeoutNanos < 0) {
+                        waiter.granted.await();
+                    } else if (left <= 0) {
+                        waiters.remove(waiter);
+                        return false;
+                    } else {
+                        left = waiter.granted.awaitNanos(left);
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                if (waiter.hasPermit) {
+                    release(); // handed over just now: pass it on
+                } else {
+                    waiters.remove(waiter);
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release() {
+        lock.lock();
+        try {
+            Waiter next = waiters.poll();
+            if (next == null) {
+                available++;
+            } else {
+                next.hasPermit = true; // handed over, no barging in between
+                next.granted.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
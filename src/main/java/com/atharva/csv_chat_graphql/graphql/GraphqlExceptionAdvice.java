@@ -0,0 +1,36 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import graphql.GraphQLError;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.data.method.annotation.GraphQlExceptionHandler;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+
+@ControllerAdvice
+public class GraphqlExceptionAdvice {
+
+    // Bad arguments (e.g. an invalid "after" cursor) → BAD_REQUEST with the message, not INTERNAL_ERROR
+    @GraphQlExceptionHandler
+    public GraphQLError badArgument(IllegalArgumentException ex, DataFetchingEnvironment env) {
+        return GraphQLError.newError()
+                .errorType(ErrorType.BAD_REQUEST)
+                .message(ex.getMessage())
+                .path(env.getExecutionStepInfo().getPath())
+                .location(env.getField().getSourceLocation())
+                .build();
+    }
+
+    // Row cap or timeout of the request (QueryBudget), SQL statements cancelled at the deadline
+    @GraphQlExceptionHandler({QueryLimitException.class, TransactionTimedOutException.class,
+            QueryTimeoutException.class, jakarta.persistence.QueryTimeoutException.class})
+    public GraphQLError limitExceeded(RuntimeException ex, DataFetchingEnvironment env) {
+        return GraphQLError.newError()
+                .errorType(graphql.ErrorType.ExecutionAborted)
+                .message(ex instanceof QueryLimitException ? ex.getMessage() : "Request timed out")
+                .path(env.getExecutionStepInfo().getPath())
+                .location(env.getField().getSourceLocation())
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import com.nupur.csv_chat_graphql.service.ImportJob;
+import com.nupur.csv_chat_graphql.service.ImportJobService;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.MutationMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+@Controller
+public class ImportJobGraphqlController {
+
+    private static final Duration PROGRESS_INTERVAL = Duration.ofMillis(500);
+
+    private final ImportJobService importJobService;
+
+    public ImportJobGraphqlController(ImportJobService importJobService) {
+        this.importJobService = importJobService;
+    }
+
+    @QueryMapping
+    public ImportJob importJob(@Argument String id) {
+        return importJobService.getJob(id);
+    }
+
+    @MutationMapping
+    public ImportJob cancelImportJob(@Argument String id) {
+        return importJobService.cancel(id);
+    }
+
+    // Pushes a progress snapshot every 500 ms; completes once the job is finished
+    @SubscriptionMapping("importJob")
+    public Flux<ImportJob> importJobProgress(@Argument String id) {
+        ImportJob job = importJobService.getJob(id);
+        if (job == null) {
+            return Flux.empty();
+        }
+        return Flux.interval(Duration.ZERO, PROGRESS_INTERVAL)
+                .map(tick -> job)
+                .takeUntil(j -> j.getStatus().isFinished());
+    }
+}
@@ -1,51 +1,132 @@
 package com.nupur.csv_chat_graphql.graphql;
 
-import com.nupur.csv_chat_graphql.DataRow;
+import com.nupur.csv_chat_graphql.service.AggregateResult;
+import com.nupur.csv_chat_graphql.service.DatasetGenerations;
 import com.nupur.csv_chat_graphql.service.NaturalLanguageQueryService;
+import com.nupur.csv_chat_graphql.service.PlanCacheStats;
+import com.nupur.csv_chat_graphql.service.QueryExplainService;
+import com.nupur.csv_chat_graphql.service.QueryPlan;
+import com.nupur.csv_chat_graphql.service.QueryPlanCache;
+import com.nupur.csv_chat_graphql.service.QueryResultCache;
+import com.nupur.csv_chat_graphql.service.ResultCacheStats;
+import com.nupur.csv_chat_graphql.service.RowCursor;
+import graphql.GraphQLContext;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class NaturalLanguageQueryResolver {
 
     private final NaturalLanguageQueryService naturalLanguageQueryService;
+    private final QueryExplainService queryExplainService;
+    private final QueryPlanCache queryPlanCache;
+    private final QueryResultCache queryResultCache;
+    private final QueryGuard queryGuard;
+    private final PersistedQueries persistedQueries;
 
-    public NaturalLanguageQueryResolver(NaturalLanguageQueryService naturalLanguageQueryService) {
+    public NaturalLanguageQueryResolver(NaturalLanguageQueryService naturalLanguageQueryService,
+                                        QueryExplainService queryExplainService,
+                                        QueryPlanCache queryPlanCache,
+                                        QueryResultCache queryResultCache,
+                                        QueryGuard queryGuard,
+                                        PersistedQueries persistedQueries) {
         this.naturalLanguageQueryService = naturalLanguageQueryService;
+        this.queryExplainService = queryExplainService;
+        this.queryPlanCache = queryPlanCache;
+        this.queryResultCache = queryResultCache;
+        this.queryGuard = queryGuard;
+        this.persistedQueries = persistedQueries;
     }
 
-    // Existing ask()
+    // "average salary by department where city is paris" → one row per group
     @QueryMapping
-    public List<DataRow> ask(@Argument String question) {
-        return naturalLanguageQueryService.ask(question);
+    public CompletableFuture<AggregateResult> aggregate(@Argument String dataset, @Argument String question, GraphQLContext context) {
+        String name = DatasetGenerations.checkName(dataset);
+        return queryGuard.call(context, () -> naturalLanguageQueryService.aggregate(name, question));
     }
 
-    // New askSmart() — returns AskResult with optimizedQuery + rows
     @QueryMapping
-    public AskResult askSmart(@Argument String question) {
+    public PlanCacheStats planCacheStats() {
+        return queryPlanCache.stats();
+    }
 
-        // Run the normal NL query
-        List<DataRow> rows = naturalLanguageQueryService.ask(question);
+    @QueryMapping
+    public ResultCacheStats resultCacheStats() {
+        return queryResultCache.stats();
+    }
 
-        // Escape quotes
-        String escaped = question.replace("\"", "\\\"");
+    // Debug: the SQL behind a question and the database's plan for it
+    @QueryMapping
+    public CompletableFuture<List<QueryPlan>> explain(@Argument String dataset, @Argument String question, GraphQLContext context) {
+        String name = DatasetGenerations.checkName(dataset);
+        return queryGuard.call(context, () -> queryExplainService.explain(name, question));
+    }
 
-        // Build the GraphQL optimized query string
-        String optimizedQuery = """
+    // Existing ask(), now paged (first/after)
+    @QueryMapping
+    public CompletableFuture<DataRowConnection> ask(@Argument String dataset,
+                                                    @Argument String question,
+                                                    @Argument Integer first,
+                                                    @Argument String after,
+                                                    GraphQLContext context) {
+        String name = DatasetGenerations.checkName(dataset);
+        RowCursor cursor = RowCursor.decode(after);
+        return queryGuard.page(context, first, size -> naturalLanguageQueryService.askPage(name, question, cursor, size))
+                .thenApply(DataRowConnection::of);
+    }
+
+    // askSmart(): ask() + the question prepared, and the document that replays it by id
+    @QueryMapping
+    public CompletableFuture<AskResult> askSmart(@Argument String dataset,
+                              @Argument String question,
+                              @Argument Integer first,
+                              @Argument String after,
+                              GraphQLContext context) {
+
+        String name = DatasetGenerations.checkName(dataset);
+        return queryGuard.call(context, () -> naturalLanguageQueryService.prepare(name, question))
+                .thenCompose(prepared -> {
+                    String optimizedQuery = optimizedQuery(prepared.getId());
+                    String hash = persistedQueries.register(optimizedQuery);
+                    return prepared(prepared.getId(), first, after, context)
+                            .thenApply(rows -> new AskResult(prepared.getId(), optimizedQuery, hash, rows));
+                });
+    }
+
+    // A question prepared by askSmart, run from its stored plan
+    @QueryMapping
+    public CompletableFuture<DataRowConnection> prepared(@Argument String id,
+                                                         @Argument Integer first,
+                                                         @Argument String after,
+                                                         GraphQLContext context) {
+        RowCursor cursor = RowCursor.decode(after);
+        return queryGuard.page(context, first, size -> naturalLanguageQueryService.preparedPage(id, cursor, size))
+                .thenApply(DataRowConnection::of);
+    }
+
+    private static String optimizedQuery(String preparedQueryId) {
+        return """
                 query {
-                  ask(question: "%s") {
-                    id
-                    cells {
-                      columnName
-                      value
+                  prepared(id: "%s") {
+                    edges {
+                      node {
+                        id
+                        cells {
+                          columnName
+                          value
+                        }
+                      }
+                    }
+                    pageInfo {
+                      hasNextPage
+                      endCursor
                     }
                   }
                 }
-                """.formatted(escaped);
-
-        return new AskResult(optimizedQuery, rows);
+                """.formatted(preparedQueryId);
     }
-}
\ No newline at end of file
+}
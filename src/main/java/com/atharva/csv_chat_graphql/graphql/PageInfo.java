@@ -0,0 +1,35 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+/**
+ * Relay PageInfo of a {@link DataRowConnection}.
+ */
+public class PageInfo {
+
+    private final boolean hasNextPage;
+    private final boolean hasPreviousPage;
+    private final String startCursor;
+    private final String endCursor;
+
+    public PageInfo(boolean hasNextPage, boolean hasPreviousPage, String startCursor, String endCursor) {
+        this.hasNextPage = hasNextPage;
+        this.hasPreviousPage = hasPreviousPage;
+        this.startCursor = startCursor;
+        this.endCursor = endCursor;
+    }
+
+    public boolean isHasNextPage() {
+        return hasNextPage;
+    }
+
+    public boolean isHasPreviousPage() {
+        return hasPreviousPage;
+    }
+
+    public String getStartCursor() {
+        return startCursor;
+    }
+
+    public String getEndCursor() {
+        return endCursor;
+    }
+}
@@ -0,0 +1,87 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nupur.csv_chat_graphql.config.CsvQueryProperties;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Automatic persisted queries (Apollo protocol, served by graphql-java's
+ * ApolloPersistedQuerySupport): a client sends a document once together with
+ * its SHA-256 hash in extensions.persistedQuery, and from then on just the
+ * hash. The document is kept parsed and validated, so these requests skip
+ * both. Bounded (csv.query.persisted-queries, W-TinyLFU eviction); a hash
+ * that isn't known answers PersistedQueryNotFound and the client sends the
+ * document again.
+ *
+ * Documents the server hands out itself (askSmart's optimizedQuery) are
+ * registered up front, so their very first request can be sent by hash.
+ */
+@Component
+public class PersistedQueries implements PersistedQueryCache {
+
+    private final Cache<Object, PreparsedDocumentEntry> documents;
+    private final Cache<String, String> knownQueries;
+
+    public PersistedQueries(CsvQueryProperties queryProperties) {
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(queryProperties.getPersistedQueries())
+                .build();
+        this.knownQueries = Caffeine.newBuilder()
+                .maximumSize(queryProperties.getPersistedQueries())
+                .build();
+    }
+
+    /** Makes {@code query} known by its hash (parsed on its first request); returns the hash. */
+    public String register(String query) {
+        String hash = hash(query);
+        knownQueries.put(hash, query);
+        return hash;
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(Object persistedQueryId,
+                                                                                    ExecutionInput executionInput,
+                                                                                    PersistedQueryCacheMiss onCacheMiss)
+            throws PersistedQueryNotFound {
+        String sent = executionInput.getQuery();
+        boolean hashOnly = sent == null || sent.isEmpty() || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(sent);
+        if (!hashOnly && !hash(sent).equals(persistedQueryId)) {
+            // not the document of that hash: graphql-java reports the mismatch, nothing is cached
+            return CompletableFuture.completedFuture(onCacheMiss.apply(sent));
+        }
+        return CompletableFuture.completedFuture(documents.get(persistedQueryId, id -> {
+            String query = sent;
+            if (hashOnly) {
+                query = knownQueries.getIfPresent(id.toString());
+                if (query == null) {
+                    throw new PersistedQueryNotFound(id);
+                }
+            }
+            // parsed and validated once per hash
+            return onCacheMiss.apply(query);
+        }));
+    }
+
+    // Lower-case hex SHA-256 of the document, as APQ clients compute it
+    static String hash(String query) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
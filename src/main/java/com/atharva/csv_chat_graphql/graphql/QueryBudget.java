@@ -0,0 +1,167 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import com.nupur.csv_chat_graphql.service.SqlCapture;
+import graphql.GraphQLContext;
+import graphql.execution.instrumentation.InstrumentationState;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Limits and cost bookkeeping of one GraphQL request, created by
+ * {@link QueryCostInstrumentation} and shared with the resolvers through the
+ * GraphQL context: the rows its connections may still return, its deadline,
+ * the estimated vs actual cost (field values resolved) and the SQL statements
+ * it sent, whichever threads its fetches ran on.
+ */
+public class QueryBudget implements InstrumentationState {
+
+    // Resolvers called outside a GraphQL request (no instrumentation) aren't limited
+    private static final QueryBudget NONE = new QueryBudget(Long.MAX_VALUE, Long.MAX_VALUE, null);
+
+    private final long maxCost;
+    private final long started = System.nanoTime();
+    private final long deadline; // System.nanoTime(), Long.MAX_VALUE = none
+    private final AtomicLong rowsLeft;
+    private final AtomicLong rowsReturned = new AtomicLong();
+    private final AtomicLong actualCost = new AtomicLong();
+    private final AtomicLong sqlStatements = new AtomicLong();
+
+    private volatile long rowLimit;
+    private volatile QueryCostEstimate estimate;
+    private volatile boolean paginated;
+
+    private QueryBudget(long maxCost, long rowLimit, Duration timeout) {
+        this.maxCost = maxCost;
+        this.rowLimit = rowLimit;
+        this.rowsLeft = new AtomicLong(rowLimit);
+        this.deadline = timeout == null ? Long.MAX_VALUE : started + timeout.toNanos();
+    }
+
+    static QueryBudget start(long maxCost, long rowLimit, Duration timeout) {
+        return new QueryBudget(maxCost, rowLimit, timeout);
+    }
+
+    /** The budget of the request being executed (no limits when there is none). */
+    public static QueryBudget of(GraphQLContext context) {
+        QueryBudget budget = context == null ? null : context.get(QueryBudget.class);
+        return budget == null ? NONE : budget;
+    }
+
+    void attachTo(GraphQLContext context) {
+        context.put(QueryBudget.class, this);
+    }
+
+    // --------------------------------------------------------------------
+    // 🔹 Estimate (before execution)
+    // --------------------------------------------------------------------
+
+    void estimated(QueryCostEstimate estimate) {
+        this.estimate = estimate;
+    }
+
+    /** Over budget: the request's pages shrink so that all of them return at most {@code rows} rows. */
+    void paginate(long rows) {
+        long cut = rowLimit - Math.min(rows, rowLimit);
+        rowLimit -= cut;
+        rowsLeft.addAndGet(-cut);
+        paginated = true;
+    }
+
+    // --------------------------------------------------------------------
+    // 🔹 Enforcement (resolvers)
+    // --------------------------------------------------------------------
+
+    /**
+     * Takes up to {@code pageSize} rows of the request's allowance for one
+     * connection page; the page comes back shorter (hasNextPage, endCursor to
+     * go on) when the allowance is nearly spent, and fails when it is gone.
+     */
+    public int reserveRows(int pageSize) {
+        if (pageSize == 0) {
+            return 0;
+        }
+        while (true) {
+            long left = rowsLeft.get();
+            if (left <= 0) {
+                throw new QueryLimitException("Row limit of " + rowLimit
+                        + " rows per request reached; request further pages separately");
+            }
+            int taken = (int) Math.min(pageSize, left);
+            if (rowsLeft.compareAndSet(left, left - taken)) {
+                return taken;
+            }
+        }
+    }
+
+    /** Records the rows a page returned and gives back what it reserved but didn't use. */
+    public void rowsUsed(int reserved, int used) {
+        rowsLeft.addAndGet(reserved - used);
+        rowsReturned.addAndGet(used);
+    }
+
+    public void checkDeadline() {
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+            throw new QueryLimitException("Request timed out");
+        }
+    }
+
+    /** When the request started (System.nanoTime()); older requests fetch first. */
+    long started() {
+        return started;
+    }
+
+    /** Nanoseconds left before the deadline (0 once past it), -1 when there is none. */
+    long remainingNanos() {
+        return deadline == Long.MAX_VALUE ? -1 : Math.max(0, deadline - System.nanoTime());
+    }
+
+    /** Whole seconds left before the deadline (at least 1), -1 when there is none. */
+    public int remainingSeconds() {
+        if (deadline == Long.MAX_VALUE) {
+            return -1;
+        }
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(deadline - System.nanoTime() + 999_999_999L);
+        return (int) Math.max(1, Math.min(seconds, Integer.MAX_VALUE));
+    }
+
+    void fieldResolved() {
+        actualCost.incrementAndGet();
+    }
+
+    /** Runs {@code work} on the current thread, adding the SQL statements it sends to the request's. */
+    <T> T countSql(Supplier<T> work) {
+        long before = SqlCapture.sentByCurrentThread();
+        try {
+            return work.get();
+        } finally {
+            if (this != NONE) {
+                sqlStatements.addAndGet(SqlCapture.sentByCurrentThread() - before);
+            }
+        }
+    }
+
+    long sqlStatements() {
+        return sqlStatements.get();
+    }
+
+    // --------------------------------------------------------------------
+    // 🔹 Report ("cost" response extension)
+    // --------------------------------------------------------------------
+
+    Map<String, Object> toExtension() {
+        Map<String, Object> cost = new LinkedHashMap<>();
+        cost.put("estimated", estimate == null ? null : estimate.getCost());
+        cost.put("actual", actualCost.get());
+        cost.put("budget", maxCost);
+        cost.put("estimatedRows", estimate == null ? null : estimate.getRows());
+        cost.put("rowsReturned", rowsReturned.get());
+        cost.put("rowLimit", rowLimit);
+        cost.put("paginated", paginated);
+        return cost;
+    }
+}
@@ -0,0 +1,163 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import com.nupur.csv_chat_graphql.ColumnInfo;
+import com.nupur.csv_chat_graphql.service.ColumnStatistics;
+import com.nupur.csv_chat_graphql.service.DataRowQueryService;
+import com.nupur.csv_chat_graphql.service.DatasetGenerations;
+import com.nupur.csv_chat_graphql.service.NaturalLanguageQueryService;
+import graphql.normalized.ExecutableNormalizedField;
+import graphql.normalized.ExecutableNormalizedOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates what a GraphQL query costs before it runs, in field values
+ * resolved: every field counts 1, a list field multiplies its selection by
+ * the items it is expected to return. Connection pages return
+ * min(first, rows of the dataset) rows, a row has one cell per column, so
+ * {@code ask(first: 1000) { edges { node { cells { value } } } }} over an
+ * 8-column dataset costs about 1000 × (2 + 8).
+ *
+ * Row counts are the largest non-empty count of a column, taken from the
+ * dataset's column metadata (no scan); an upper bound for what a filtered
+ * question returns. A GROUP BY returns as many groups as its column has
+ * distinct values (from the column statistics).
+ */
+@Component
+public class QueryCostAnalyzer {
+
+    // Groups an aggregate is assumed to return when its GROUP BY column has no statistics
+    private static final long GROUPS_ESTIMATE = 100;
+    // Statements of an explain (the question's id query)
+    private static final long EXPLAIN_STATEMENTS = 1;
+
+    private final DataRowQueryService dataRowQueryService;
+    private final NaturalLanguageQueryService naturalLanguageQueryService;
+
+    public QueryCostAnalyzer(DataRowQueryService dataRowQueryService,
+                             NaturalLanguageQueryService naturalLanguageQueryService) {
+        this.dataRowQueryService = dataRowQueryService;
+        this.naturalLanguageQueryService = naturalLanguageQueryService;
+    }
+
+    public QueryCostEstimate estimate(ExecutableNormalizedOperation operation) {
+        Estimate estimate = new Estimate();
+        long cost = 0;
+        for (ExecutableNormalizedField field : operation.getTopLevelFields()) {
+            cost += estimate.cost(field, field);
+        }
+        return new QueryCostEstimate(cost, estimate.rows);
+    }
+
+    // Rows (upper bound) and columns of a dataset's current import
+    private static final class Shape {
+        static final Shape UNKNOWN = new Shape(0, 0);
+
+        final long rows;
+        final long columns;
+
+        Shape(long rows, long columns) {
+            this.rows = rows;
+            this.columns = columns;
+        }
+    }
+
+    private final class Estimate {
+        private final Map<String, Shape> shapes = new HashMap<>();
+        private long rows;
+
+        // 1 for the field itself + per expected item the cost of its selection
+        long cost(ExecutableNormalizedField field, ExecutableNormalizedField root) {
+            long selection = 0;
+            for (ExecutableNormalizedField child : field.getChildren()) {
+                selection += cost(child, root);
+            }
+            return field.getChildren().isEmpty() ? 1 : 1 + items(field, root) * selection;
+        }
+
+        // How many objects a field is expected to return (1 unless it is a list)
+        long items(ExecutableNormalizedField field, ExecutableNormalizedField root) {
+            String coordinates = field.getSingleObjectTypeName() + "." + field.getName();
+            switch (coordinates) {
+                case "DataRowConnection.edges": {
+                    long pageRows = Math.min(pageSize(root), shape(root).rows);
+                    rows += pageRows;
+                    return pageRows;
+                }
+                case "DataRow.cells":
+                case "Query.columns":
+                    return shape(root).columns;
+                case "AggregateResult.rows":
+                    return groups(root);
+                case "ColumnStats.topValues":
+                    return ColumnStatistics.TOP_VALUES_SHOWN;
+                case "ColumnStats.histogram":
+                    return ColumnStatistics.HISTOGRAM_BUCKETS;
+                case "Query.datasets":
+                    return dataRowQueryService.datasetNames().size();
+                case "Query.explain":
+                    return EXPLAIN_STATEMENTS;
+                default:
+                    return 1;
+            }
+        }
+
+        // The dataset of a top-level field (every data query names at most one, prepared(id) has its own)
+        Shape shape(ExecutableNormalizedField root) {
+            String name = dataset(root);
+            return name == null ? Shape.UNKNOWN : shapes.computeIfAbsent(name, this::load);
+        }
+
+        // null when the arguments don't name a dataset; the resolver reports it
+        String dataset(ExecutableNormalizedField root) {
+            Object dataset = root.getResolvedArguments().get("dataset");
+            try {
+                return "prepared".equals(root.getName())
+                        ? naturalLanguageQueryService.prepared(String.valueOf(root.getResolvedArguments().get("id"))).getDataset()
+                        : DatasetGenerations.checkName(dataset == null ? null : dataset.toString());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        Shape load(String dataset) {
+            List<ColumnInfo> columns = dataRowQueryService.findColumns(dataset);
+            long rows = 0;
+            for (ColumnInfo column : columns) {
+                rows = Math.max(rows, column.getValueCount());
+            }
+            return new Shape(rows, columns.size());
+        }
+
+        int pageSize(ExecutableNormalizedField root) {
+            Object first = root.getResolvedArguments().get("first");
+            try {
+                return dataRowQueryService.pageSize(first instanceof Integer ? (Integer) first : null);
+            } catch (IllegalArgumentException e) {
+                return 0; // negative "first", refused by the resolver
+            }
+        }
+
+        // Rows of an aggregate: one per distinct value of its GROUP BY column, else just one
+        long groups(ExecutableNormalizedField root) {
+            Object question = root.getResolvedArguments().get("question");
+            String groupBy;
+            try {
+                groupBy = question == null ? null
+                        : naturalLanguageQueryService.parseAggregate(question.toString()).getGroupBy();
+            } catch (IllegalArgumentException e) {
+                return 1; // not an aggregate question, the resolver reports it
+            }
+            if (groupBy == null) {
+                return 1;
+            }
+            String dataset = dataset(root);
+            ColumnStatistics statistics = dataset == null ? null : dataRowQueryService.columnStatistics(dataset, groupBy);
+            long groups = statistics == null ? GROUPS_ESTIMATE : statistics.getDistinctCount() + 1; // + the empty group
+            return Math.min(groups, shape(root).rows);
+        }
+    }
+}
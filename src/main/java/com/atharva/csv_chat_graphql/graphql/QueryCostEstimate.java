@@ -0,0 +1,29 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+/**
+ * What a GraphQL request is expected to cost before it runs: field values it
+ * resolves, and rows its connections return (see {@link QueryCostAnalyzer}).
+ */
+public final class QueryCostEstimate {
+
+    private final long cost;
+    private final long rows;
+
+    public QueryCostEstimate(long cost, long rows) {
+        this.cost = cost;
+        this.rows = rows;
+    }
+
+    public long getCost() {
+        return cost;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        return "cost " + cost + " (" + rows + " rows)";
+    }
+}
@@ -0,0 +1,82 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import com.nupur.csv_chat_graphql.config.CsvQueryProperties;
+import graphql.ExecutionResult;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldParameters;
+import graphql.language.OperationDefinition;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cost analysis of every GraphQL query before it runs (see
+ * {@link QueryCostAnalyzer}): over csv.query.limits.max-cost it is refused,
+ * or (over-budget=paginate) its row allowance is cut so the pages it gets fit
+ * the budget. Each request also gets the row cap and timeout the resolvers
+ * enforce through {@link QueryGuard}, and its response reports the estimated
+ * vs actual cost in the "cost" extension.
+ */
+@Component
+public class QueryCostInstrumentation implements Instrumentation {
+
+    private final QueryCostAnalyzer analyzer;
+    private final CsvQueryProperties.Limits limits;
+
+    public QueryCostInstrumentation(QueryCostAnalyzer analyzer, CsvQueryProperties queryProperties) {
+        this.analyzer = analyzer;
+        this.limits = queryProperties.getLimits();
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return QueryBudget.start(limits.getMaxCost(), limits.getMaxRows(), limits.getTimeout());
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        QueryBudget budget = (QueryBudget) state;
+        ExecutionContext execution = parameters.getExecutionContext();
+        budget.attachTo(execution.getGraphQLContext());
+        if (execution.getOperationDefinition().getOperation() != OperationDefinition.Operation.QUERY) {
+            return SimpleInstrumentationContext.noOp();
+        }
+
+        QueryCostEstimate estimate = budget.countSql(() -> analyzer.estimate(execution.getNormalizedQueryTree().get()));
+        budget.estimated(estimate);
+        if (estimate.getCost() > limits.getMaxCost()) {
+            if (limits.getOverBudget() == CsvQueryProperties.OverBudget.REJECT || estimate.getRows() == 0) {
+                throw new AbortExecutionException("Query too expensive: estimated " + estimate
+                        + ", budget " + limits.getMaxCost() + "; ask for fewer rows (first) or fields");
+            }
+            // rows scaled down so that rows × (cost per row) fits the budget
+            budget.paginate(Math.max(1, (long) (estimate.getRows() * ((double) limits.getMaxCost() / estimate.getCost()))));
+        }
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldExecution(InstrumentationFieldParameters parameters,
+                                                              InstrumentationState state) {
+        ((QueryBudget) state).fieldResolved();
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                        InstrumentationExecutionParameters parameters,
+                                                                        InstrumentationState state) {
+        QueryBudget budget = (QueryBudget) state;
+        return CompletableFuture.completedFuture(
+                executionResult.transform(result -> result.addExtension("cost", budget.toExtension())));
+    }
+}
@@ -0,0 +1,175 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import com.nupur.csv_chat_graphql.config.CsvQueryProperties;
+import com.nupur.csv_chat_graphql.service.DataRowQueryService;
+import com.nupur.csv_chat_graphql.service.RowPage;
+import graphql.GraphQLContext;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Runs the resolvers' data access within their request's {@link QueryBudget}:
+ * connection pages take their rows from the request's allowance, and every
+ * fetch runs in a read-only transaction that times out with the request, so
+ * Hibernate gives each SQL statement the time that is left.
+ *
+ * With csv.query.concurrency.async the fetches run on the fetch executor and
+ * the resolvers return futures: slow questions don't hold request threads and
+ * the root fields of one request are fetched side by side. On Java 21+ with
+ * spring.threads.virtual.enabled each fetch gets a virtual thread, otherwise
+ * the executor is a fixed pool. Only csv.query.concurrency.max-fetches of them
+ * reach the database at once; the others wait for a permit within their
+ * request's timeout rather than queueing on the connection pool, oldest
+ * request first (see {@link FetchPermits}).
+ */
+@Component
+public class QueryGuard {
+
+    private final DataRowQueryService dataRowQueryService;
+    private final PlatformTransactionManager transactionManager;
+    private final Executor executor; // null = fetch on the calling thread
+    private final FetchPermits fetchPermits;
+
+    public QueryGuard(DataRowQueryService dataRowQueryService,
+                      PlatformTransactionManager transactionManager,
+                      CsvQueryProperties queryProperties,
+                      Environment environment) {
+        this.dataRowQueryService = dataRowQueryService;
+        this.transactionManager = transactionManager;
+
+        CsvQueryProperties.Concurrency concurrency = queryProperties.getConcurrency();
+        this.fetchPermits = new FetchPermits(Math.max(1, concurrency.getMaxFetches()));
+        if (!concurrency.isAsync()) {
+            this.executor = null;
+        } else if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor("graphql-fetch-");
+            virtual.setVirtualThreads(true);
+            this.executor = virtual;
+        } else {
+            // queued fetches are taken oldest request first, like the permits
+            int threads = Math.max(1, concurrency.getThreads());
+            AtomicInteger counter = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new PriorityBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "graphql-fetch-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /** One connection page of up to {@code first} rows (fewer when the request's allowance runs low). */
+    public CompletableFuture<RowPage> page(GraphQLContext context, Integer first, IntFunction<RowPage> fetch) {
+        QueryBudget budget = QueryBudget.of(context);
+        return submit(budget, () -> {
+            int size = budget.reserveRows(dataRowQueryService.pageSize(first));
+            int used = 0;
+            try {
+                RowPage page = fetchNow(context, () -> fetch.apply(size));
+                used = page.getRows().size();
+                return page;
+            } finally {
+                budget.rowsUsed(size, used);
+            }
+        });
+    }
+
+    public <T> CompletableFuture<T> call(GraphQLContext context, Supplier<T> fetch) {
+        return submit(QueryBudget.of(context), () -> fetchNow(context, fetch));
+    }
+
+    /** Same as {@link #call} on the calling thread (batch loaders, already off the request thread). */
+    public <T> T fetchNow(GraphQLContext context, Supplier<T> fetch) {
+        QueryBudget budget = QueryBudget.of(context);
+        budget.checkDeadline();
+        acquirePermit(budget);
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.setTimeout(budget.remainingSeconds());
+            return budget.countSql(() -> transaction.execute(status -> fetch.get()));
+        } finally {
+            fetchPermits.release();
+        }
+    }
+
+    private void acquirePermit(QueryBudget budget) {
+        try {
+            if (!fetchPermits.acquire(budget.started(), budget.remainingNanos())) {
+                throw new QueryLimitException("Request timed out waiting for the database");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryLimitException("Request interrupted waiting for the database");
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(QueryBudget budget, Supplier<T> work) {
+        if (executor == null) {
+            try {
+                return CompletableFuture.completedFuture(work.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(new Fetch(budget.started(), () -> {
+            try {
+                future.complete(work.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }));
+        return future;
+    }
+
+    // A queued fetch, ordered by the start of its request (then by submission)
+    private static final class Fetch implements Runnable, Comparable<Fetch> {
+        private static final AtomicLong SUBMISSIONS = new AtomicLong();
+
+        private final long requestStarted;
+        private final long submission = SUBMISSIONS.getAndIncrement();
+        private final Runnable work;
+
+        Fetch(long requestStarted, Runnable work) {
+            this.requestStarted = requestStarted;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            work.run();
+        }
+
+        @Override
+        public int compareTo(Fetch other) {
+            int byRequest = Long.compare(requestStarted - other.requestStarted, 0);
+            return byRequest != 0 ? byRequest : Long.compare(submission, other.submission);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtual) {
+            virtual.close();
+        }
+    }
+}
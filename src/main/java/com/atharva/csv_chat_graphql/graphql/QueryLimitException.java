@@ -0,0 +1,11 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+/**
+ * A GraphQL request ran out of its row allowance or time (see {@link QueryBudget}).
+ */
+public class QueryLimitException extends RuntimeException {
+
+    public QueryLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import com.nupur.csv_chat_graphql.service.CsvMetrics;
+import graphql.ExecutionResult;
+import graphql.GraphQLContext;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records how many SQL statements each GraphQL request sent (see
+ * {@link CsvMetrics#sqlStatements}), to spot N+1 patterns per query shape.
+ * Resolvers may fetch on other threads, so the statements are counted per
+ * fetch into the request's {@link QueryBudget} (see {@link QueryGuard}).
+ */
+@Component
+public class SqlStatementInstrumentation implements Instrumentation {
+
+    private final CsvMetrics metrics;
+
+    public SqlStatementInstrumentation(CsvMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                  InstrumentationState state) {
+        GraphQLContext context = parameters.getGraphQLContext();
+        return SimpleInstrumentationContext.whenCompleted((result, error) ->
+                metrics.sqlStatements(QueryBudget.of(context).sqlStatements()));
+    }
+}
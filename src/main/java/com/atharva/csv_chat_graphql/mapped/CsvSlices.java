@@ -0,0 +1,226 @@
+package com.nupur.csv_chat_graphql.mapped;
+
+import com.nupur.csv_chat_graphql.CellValues;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CSV parsing directly on mapped bytes: ',' separates fields, '"' quotes them
+ * and "" inside quotes is a literal quote (RFC 4180). A field is only a byte
+ * range of the file; text is decoded when a caller really needs a String.
+ */
+final class CsvSlices {
+
+    static final int EQUAL = 1;
+    static final int DIFFERENT = 0;
+    static final int UNKNOWN = -1;
+
+    private static final byte QUOTE = '"';
+    private static final byte COMMA = ',';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    // Exact powers of ten for the fast number path
+    private static final double[] POW10 = new double[16];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private CsvSlices() {
+    }
+
+    /** Start of the record after the one starting at {@code start} (past its line feed), or the file end. */
+    static long nextRecord(MappedFile file, long start) {
+        boolean quoted = false;
+        long size = file.size();
+        for (long pos = start; pos < size; pos++) {
+            byte b = file.get(pos);
+            if (b == QUOTE) {
+                quoted = !quoted;
+            } else if (b == LF && !quoted) {
+                return pos + 1;
+            }
+        }
+        return size;
+    }
+
+    /** End of a record's content, without its line feed (or CR LF). */
+    static long contentEnd(MappedFile file, long start, long next) {
+        long end = next;
+        if (end > start && file.get(end - 1) == LF) {
+            end--;
+        }
+        if (end > start && file.get(end - 1) == CR) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Splits the record content [start, end) into at most as many fields as
+     * {@code fields} holds (extra ones are ignored) and returns how many were found.
+     */
+    static int split(MappedFile file, long start, long end, Fields fields) {
+        int count = 0;
+        long pos = start;
+        while (count < fields.from.length) {
+            long from;
+            long to;
+            boolean escaped = false;
+            if (pos < end && file.get(pos) == QUOTE) {
+                from = ++pos;
+                while (pos < end) {
+                    if (file.get(pos) == QUOTE) {
+                        if (pos + 1 < end && file.get(pos + 1) == QUOTE) {
+                            escaped = true;
+                            pos += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                to = pos;
+                while (pos < end && file.get(pos) != COMMA) {
+                    pos++; // closing quote (and anything up to the separator)
+                }
+            } else {
+                from = pos;
+                while (pos < end && file.get(pos) != COMMA) {
+                    pos++;
+                }
+                to = pos;
+            }
+            fields.from[count] = from;
+            fields.to[count] = to;
+            fields.escaped[count] = escaped;
+            count++;
+            if (pos >= end) {
+                break;
+            }
+            pos++; // the comma
+        }
+        return count;
+    }
+
+    /** Upper bound of the number of fields in [start, end) (counts quoted commas too). */
+    static int maxFields(MappedFile file, long start, long end) {
+        int fields = 1;
+        for (long pos = start; pos < end; pos++) {
+            if (file.get(pos) == COMMA) {
+                fields++;
+            }
+        }
+        return fields;
+    }
+
+    /** Text of field {@code i}; "" for a field the record does not have. */
+    static String text(MappedFile file, Fields fields, int i, int count) {
+        if (i >= count) {
+            return "";
+        }
+        String text = new String(file.bytes(fields.from[i], fields.to[i]), StandardCharsets.UTF_8);
+        return fields.escaped[i] ? text.replace("\"\"", "\"") : text;
+    }
+
+    /**
+     * Compares field {@code i} with a lowercase ASCII needle, ignoring ASCII case,
+     * without decoding it. {@link #UNKNOWN} when the field is escaped or has
+     * non-ASCII bytes (the caller decodes it then).
+     */
+    static int equalsLowerAscii(MappedFile file, Fields fields, int i, int count, byte[] needle) {
+        if (i >= count) {
+            return needle.length == 0 ? EQUAL : DIFFERENT;
+        }
+        if (fields.escaped[i]) {
+            return UNKNOWN;
+        }
+        long from = fields.from[i];
+        long to = fields.to[i];
+        boolean same = to - from == needle.length;
+        for (long pos = from; pos < to; pos++) {
+            byte b = file.get(pos);
+            if (b < 0) {
+                return UNKNOWN;
+            }
+            if (same) {
+                int lower = b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+                same = lower == needle[(int) (pos - from)];
+            }
+        }
+        return same ? EQUAL : DIFFERENT;
+    }
+
+    /**
+     * Field {@code i} as a number, with exactly the rules of
+     * {@link CellValues#parseNumber} ([+-]digits[.digits]); NaN when it is not one.
+     * Up to 15 digits are converted without decoding the field.
+     */
+    static double number(MappedFile file, Fields fields, int i, int count) {
+        if (i >= count || fields.escaped[i]) {
+            return Double.NaN;
+        }
+        long from = fields.from[i];
+        long to = fields.to[i];
+        if (to - from > 17) {
+            return slowNumber(file, fields, i, count);
+        }
+        long pos = from;
+        boolean negative = false;
+        if (pos < to && (file.get(pos) == '+' || file.get(pos) == '-')) {
+            negative = file.get(pos) == '-';
+            pos++;
+        }
+        long mantissa = 0;
+        int intDigits = 0;
+        int fractionDigits = 0;
+        boolean dot = false;
+        for (; pos < to; pos++) {
+            byte b = file.get(pos);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                if (dot) {
+                    fractionDigits++;
+                } else {
+                    intDigits++;
+                }
+            } else if (b == '.' && !dot && intDigits > 0) {
+                dot = true;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (intDigits == 0 || (dot && fractionDigits == 0)) {
+            return Double.NaN;
+        }
+        if (intDigits + fractionDigits > 15) {
+            return slowNumber(file, fields, i, count);
+        }
+        // both operands exact, so the quotient is rounded like Double.parseDouble
+        double value = mantissa / POW10[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private static double slowNumber(MappedFile file, Fields fields, int i, int count) {
+        Double number = CellValues.parseNumber(text(file, fields, i, count));
+        return number == null ? Double.NaN : number;
+    }
+
+    /** Reusable field ranges of one record (not thread-safe). */
+    static final class Fields {
+
+        final long[] from;
+        final long[] to;
+        final boolean[] escaped;
+
+        Fields(int capacity) {
+            this.from = new long[capacity];
+            this.to = new long[capacity];
+            this.escaped = new boolean[capacity];
+        }
+    }
+}
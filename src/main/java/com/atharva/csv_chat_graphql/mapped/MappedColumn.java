@@ -0,0 +1,103 @@
+package com.nupur.csv_chat_graphql.mapped;
+
+import com.nupur.csv_chat_graphql.ColumnType;
+
+import java.util.Set;
+
+/**
+ * Index entry of one column of a mapped CSV: its inferred type, the distinct
+ * (lowercased) values while there are few of them, and the numeric min / max
+ * of the whole column and of every block of {@link MappedCsvIndex#ZONE_ROWS}
+ * rows (zone map). Filters use them to skip blocks, or whole queries, without
+ * reading the file. The column's encoded ColumnStatistics ride along for the
+ * query planner.
+ */
+public final class MappedColumn {
+
+    private final int position;
+    private final String name;
+    private final ColumnType type;
+    private final long valueCount;
+    private final double min;
+    private final double max;
+    // null when the column has more than MappedCsvIndex.MAX_DICTIONARY distinct values
+    private final Set<String> dictionary;
+    // NaN where a block has no numeric value
+    private final double[] zoneMin;
+    private final double[] zoneMax;
+    private final byte[] statistics;
+
+    MappedColumn(int position, String name, ColumnType type, long valueCount, double min, double max,
+                 Set<String> dictionary, double[] zoneMin, double[] zoneMax, byte[] statistics) {
+        this.position = position;
+        this.name = name;
+        this.type = type;
+        this.valueCount = valueCount;
+        this.min = min;
+        this.max = max;
+        this.dictionary = dictionary;
+        this.zoneMin = zoneMin;
+        this.zoneMax = zoneMax;
+        this.statistics = statistics;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ColumnType getType() {
+        return type;
+    }
+
+    public long getValueCount() {
+        return valueCount;
+    }
+
+    /** Smallest numeric value, NaN when the column has none. */
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /** Distinct values (lowercased), or null for a high-cardinality column. */
+    public Set<String> getDictionary() {
+        return dictionary;
+    }
+
+    /** ColumnStatistics in their encoded form. */
+    public byte[] getStatistics() {
+        return statistics;
+    }
+
+    /** False only when no row can hold {@code lowerValue} (known from the dictionary). */
+    boolean mayContain(String lowerValue) {
+        return dictionary == null || dictionary.contains(lowerValue);
+    }
+
+    /**
+     * False when no number in block {@code zone} lies in [low, high]; a NaN
+     * bound is open.
+     */
+    boolean zoneMayHold(int zone, double low, double high) {
+        double zmin = zoneMin[zone];
+        if (Double.isNaN(zmin)) {
+            return false; // no numbers at all
+        }
+        return (Double.isNaN(low) || zoneMax[zone] >= low) && (Double.isNaN(high) || zmin <= high);
+    }
+
+    double[] zoneMin() {
+        return zoneMin;
+    }
+
+    double[] zoneMax() {
+        return zoneMax;
+    }
+}
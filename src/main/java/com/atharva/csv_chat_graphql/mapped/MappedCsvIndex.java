@@ -0,0 +1,282 @@
+package com.nupur.csv_chat_graphql.mapped;
+
+import com.nupur.csv_chat_graphql.CellValues;
+import com.nupur.csv_chat_graphql.ColumnInfo;
+import com.nupur.csv_chat_graphql.ColumnType;
+import com.nupur.csv_chat_graphql.DataCell;
+import com.nupur.csv_chat_graphql.service.ColumnTypeInference;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Builds and loads the on-disk index of a mapped CSV, next to the file itself:
+ *
+ *   &lt;name&gt;.rows  start offset of every record (big-endian longs, plus the file size)
+ *   &lt;name&gt;.idx   row count, then per column: type, value count, min / max,
+ *                 dictionary of distinct values (if small), the zone map and
+ *                 the column's statistics
+ *
+ * Building is the one full scan of the file. The index remembers the size and
+ * modification time of the CSV it describes, so a restart reuses it and only a
+ * changed (or missing) index makes the file be scanned again.
+ */
+final class MappedCsvIndex {
+
+    /** Rows per zone-map block. */
+    static final int ZONE_ROWS = 4096;
+
+    /** Distinct values kept per column before its dictionary is dropped. */
+    static final int MAX_DICTIONARY = 1024;
+
+    private static final int MAGIC = 0x4d435632; // "MCV2"
+    private static final int PROGRESS_ROWS = 10_000;
+
+    private MappedCsvIndex() {
+    }
+
+    static Path rowsFile(Path csv) {
+        return sibling(csv, ".rows");
+    }
+
+    static Path indexFile(Path csv) {
+        return sibling(csv, ".idx");
+    }
+
+    /**
+     * Scans the CSV once, writes its .rows and .idx files and returns the table
+     * over it; {@code progress} gets the number of rows read so far.
+     */
+    static MappedCsvTable build(Path csv, LongConsumer progress) throws IOException {
+        MappedFile file = MappedFile.map(csv);
+        long size = file.size();
+        if (size == 0) {
+            throw new IllegalArgumentException("CSV file has no header row.");
+        }
+
+        long first = CsvSlices.nextRecord(file, 0);
+        long headerEnd = CsvSlices.contentEnd(file, 0, first);
+        CsvSlices.Fields headerFields = new CsvSlices.Fields(CsvSlices.maxFields(file, 0, headerEnd));
+        int width = CsvSlices.split(file, 0, headerEnd, headerFields);
+        String[] header = new String[width];
+        for (int c = 0; c < width; c++) {
+            header[c] = CsvSlices.text(file, headerFields, c, width);
+        }
+
+        ColumnTypeInference types = new ColumnTypeInference(header);
+        List<Set<String>> dictionaries = new ArrayList<>(width);
+        double[] min = new double[width];
+        double[] max = new double[width];
+        double[][] zoneMin = new double[width][16];
+        double[][] zoneMax = new double[width][16];
+        for (int c = 0; c < width; c++) {
+            dictionaries.add(new HashSet<>());
+            min[c] = Double.NaN;
+            max[c] = Double.NaN;
+        }
+
+        CsvSlices.Fields fields = new CsvSlices.Fields(width);
+        long rowCount = 0;
+        try (DataOutputStream rows = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(rowsFile(csv)), 1 << 16))) {
+            for (long start = first; start < size; ) {
+                long next = CsvSlices.nextRecord(file, start);
+                int count = CsvSlices.split(file, start, CsvSlices.contentEnd(file, start, next), fields);
+                rows.writeLong(start);
+
+                int zone = (int) (rowCount / ZONE_ROWS);
+                if (rowCount % ZONE_ROWS == 0) {
+                    for (int c = 0; c < width; c++) {
+                        if (zone == zoneMin[c].length) {
+                            zoneMin[c] = Arrays.copyOf(zoneMin[c], zone * 2);
+                            zoneMax[c] = Arrays.copyOf(zoneMax[c], zone * 2);
+                        }
+                        zoneMin[c][zone] = Double.NaN;
+                        zoneMax[c][zone] = Double.NaN;
+                    }
+                }
+
+                for (int c = 0; c < width; c++) {
+                    String value = CsvSlices.text(file, fields, c, count);
+                    String key = DataCell.normalize(value);
+                    Double number = CellValues.parseNumber(value);
+                    types.observe(c, value, key, number);
+
+                    Set<String> dictionary = dictionaries.get(c);
+                    if (dictionary != null && dictionary.add(key) && dictionary.size() > MAX_DICTIONARY) {
+                        dictionaries.set(c, null);
+                    }
+
+                    if (number != null) {
+                        double n = number;
+                        min[c] = Double.isNaN(min[c]) ? n : Math.min(min[c], n);
+                        max[c] = Double.isNaN(max[c]) ? n : Math.max(max[c], n);
+                        zoneMin[c][zone] = Double.isNaN(zoneMin[c][zone]) ? n : Math.min(zoneMin[c][zone], n);
+                        zoneMax[c][zone] = Double.isNaN(zoneMax[c][zone]) ? n : Math.max(zoneMax[c][zone], n);
+                    }
+                }
+
+                if (++rowCount % PROGRESS_ROWS == 0) {
+                    progress.accept(rowCount);
+                }
+                start = next;
+            }
+            rows.writeLong(size);
+        }
+        if (rowCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("CSV file has more than " + Integer.MAX_VALUE + " rows");
+        }
+
+        int zones = (int) ((rowCount + ZONE_ROWS - 1) / ZONE_ROWS);
+        List<ColumnInfo> inferred = types.result();
+        List<MappedColumn> columns = new ArrayList<>(width);
+        for (int c = 0; c < width; c++) {
+            ColumnInfo info = inferred.get(c);
+            columns.add(new MappedColumn(c, header[c], info.getType(), info.getValueCount(), min[c], max[c],
+                    dictionaries.get(c), Arrays.copyOf(zoneMin[c], zones), Arrays.copyOf(zoneMax[c], zones),
+                    info.getStatistics()));
+        }
+        write(csv, (int) rowCount, columns);
+        progress.accept(rowCount);
+
+        return new MappedCsvTable(file, MappedFile.map(rowsFile(csv)), (int) rowCount, columns);
+    }
+
+    /**
+     * The table over an already indexed CSV, or null when its index is missing,
+     * unreadable or was built for a different version of the file.
+     */
+    static MappedCsvTable load(Path csv) {
+        Path indexFile = indexFile(csv);
+        Path rowsFile = rowsFile(csv);
+        if (!Files.isRegularFile(indexFile) || !Files.isRegularFile(rowsFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(indexFile), 1 << 16))) {
+            if (in.readInt() != MAGIC
+                    || in.readLong() != Files.size(csv)
+                    || in.readLong() != Files.getLastModifiedTime(csv).toMillis()) {
+                return null;
+            }
+            int rowCount = in.readInt();
+            if (in.readInt() != ZONE_ROWS || Files.size(rowsFile) != (rowCount + 1L) * Long.BYTES) {
+                return null;
+            }
+
+            int width = in.readInt();
+            List<MappedColumn> columns = new ArrayList<>(width);
+            for (int c = 0; c < width; c++) {
+                String name = readString(in);
+                ColumnType type = ColumnType.valueOf(readString(in));
+                long valueCount = in.readLong();
+                double min = in.readDouble();
+                double max = in.readDouble();
+
+                int distinct = in.readInt();
+                Set<String> dictionary = null;
+                if (distinct >= 0) {
+                    dictionary = new HashSet<>(distinct * 2);
+                    for (int i = 0; i < distinct; i++) {
+                        dictionary.add(readString(in));
+                    }
+                }
+
+                int zones = in.readInt();
+                double[] zoneMin = new double[zones];
+                double[] zoneMax = new double[zones];
+                for (int z = 0; z < zones; z++) {
+                    zoneMin[z] = in.readDouble();
+                    zoneMax[z] = in.readDouble();
+                }
+
+                int statisticsLength = in.readInt();
+                byte[] statistics = statisticsLength < 0 ? null : in.readNBytes(statisticsLength);
+                if (statistics == null || statistics.length != statisticsLength) {
+                    throw new IOException("Corrupt index");
+                }
+                columns.add(new MappedColumn(c, name, type, valueCount, min, max, dictionary, zoneMin, zoneMax,
+                        statistics));
+            }
+            return new MappedCsvTable(MappedFile.map(csv), MappedFile.map(rowsFile), rowCount, columns);
+        } catch (IOException | IllegalArgumentException e) {
+            return null; // truncated or garbled: build it again
+        }
+    }
+
+    private static void write(Path csv, int rowCount, List<MappedColumn> columns) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(indexFile(csv)), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeLong(Files.size(csv));
+            out.writeLong(Files.getLastModifiedTime(csv).toMillis());
+            out.writeInt(rowCount);
+            out.writeInt(ZONE_ROWS);
+
+            out.writeInt(columns.size());
+            for (MappedColumn column : columns) {
+                writeString(out, column.getName());
+                writeString(out, column.getType().name());
+                out.writeLong(column.getValueCount());
+                out.writeDouble(column.getMin());
+                out.writeDouble(column.getMax());
+
+                Set<String> dictionary = column.getDictionary();
+                out.writeInt(dictionary == null ? -1 : dictionary.size());
+                if (dictionary != null) {
+                    for (String value : dictionary) {
+                        writeString(out, value);
+                    }
+                }
+
+                double[] zoneMin = column.zoneMin();
+                double[] zoneMax = column.zoneMax();
+                out.writeInt(zoneMin.length);
+                for (int z = 0; z < zoneMin.length; z++) {
+                    out.writeDouble(zoneMin[z]);
+                    out.writeDouble(zoneMax[z]);
+                }
+
+                out.writeInt(column.getStatistics().length);
+                out.write(column.getStatistics());
+            }
+        }
+    }
+
+    // Length-prefixed UTF-8 (writeUTF stops at 64 KB)
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt index");
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new IOException("Corrupt index");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Path sibling(Path csv, String extension) {
+        String name = csv.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return csv.resolveSibling((dot < 0 ? name : name.substring(0, dot)) + extension);
+    }
+}
@@ -0,0 +1,171 @@
+package com.nupur.csv_chat_graphql.mapped;
+
+import com.nupur.csv_chat_graphql.config.CsvImportProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Datasets imported with csv.import.layout=mapped: the uploaded CSV is kept as
+ * a file under csv.import.mapped-directory and queried in place through its
+ * {@link MappedCsvTable}, nothing goes into the database.
+ *
+ * Every upload is saved as a new version ({@code <dataset>.<version>.csv} plus
+ * its .rows / .idx files) and swapped in with one map write once its index is
+ * built, so readers keep the old table until then. On startup the newest
+ * version of each dataset is opened again, reusing its index when it is still
+ * valid; older versions are deleted.
+ */
+@Component
+public class MappedCsvStore {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedCsvStore.class);
+
+    private static final String CSV = ".csv";
+
+    private final Path directory;
+    private final AtomicLong versions = new AtomicLong();
+    private final Map<String, Entry> tables = new ConcurrentHashMap<>();
+
+    public MappedCsvStore(CsvImportProperties importProperties) throws IOException {
+        this.directory = Path.of(importProperties.getMappedDirectory());
+        if (!Files.isDirectory(directory)) {
+            return; // created by the first mapped import
+        }
+
+        // newest version of every dataset on disk
+        Map<String, Path> newest = new HashMap<>();
+        Map<String, Long> newestVersion = new HashMap<>();
+        List<Path> older = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + CSV)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String stem = name.substring(0, name.length() - CSV.length());
+                int dot = stem.lastIndexOf('.'); // dataset names may contain dots themselves
+                long version;
+                try {
+                    version = dot <= 0 ? -1 : Long.parseLong(stem.substring(dot + 1));
+                } catch (NumberFormatException e) {
+                    version = -1;
+                }
+                if (version < 0) {
+                    continue; // not ours
+                }
+                String dataset = stem.substring(0, dot);
+                versions.accumulateAndGet(version, Math::max);
+                Long current = newestVersion.get(dataset);
+                if (current == null || version > current) {
+                    if (current != null) {
+                        older.add(newest.get(dataset));
+                    }
+                    newest.put(dataset, file);
+                    newestVersion.put(dataset, version);
+                } else {
+                    older.add(file);
+                }
+            }
+        }
+        older.forEach(MappedCsvStore::deleteQuietly);
+
+        for (Map.Entry<String, Path> e : newest.entrySet()) {
+            Path csv = e.getValue();
+            MappedCsvTable table = MappedCsvIndex.load(csv);
+            if (table == null) {
+                log.info("Index of mapped dataset '{}' is missing or stale, scanning {}", e.getKey(), csv);
+                try {
+                    table = MappedCsvIndex.build(csv, rows -> { });
+                } catch (IOException | RuntimeException ex) {
+                    log.warn("Mapped dataset '{}' could not be opened, skipping {}: {}",
+                            e.getKey(), csv, ex.getMessage());
+                    continue;
+                }
+            }
+            tables.put(e.getKey(), new Entry(csv, table));
+            log.info("Mapped dataset '{}' opened: {} rows x {} columns",
+                    e.getKey(), table.getRowCount(), table.getColumns().size());
+        }
+    }
+
+    /** The dataset's table when it is a mapped dataset. */
+    public Optional<MappedCsvTable> current(String dataset) {
+        Entry entry = tables.get(dataset);
+        return entry == null ? Optional.empty() : Optional.of(entry.table);
+    }
+
+    /** Names of the mapped datasets. */
+    public List<String> names() {
+        return List.copyOf(tables.keySet());
+    }
+
+    /**
+     * Saves the CSV as the dataset's new version, indexes it (one pass, with
+     * {@code progress} called as rows are read) and makes it the current one.
+     * Callers serialize imports of a dataset.
+     */
+    public MappedCsvTable importFile(String dataset, InputStream input, LongConsumer progress) throws IOException {
+        Files.createDirectories(directory);
+        Path csv = directory.resolve(dataset + "." + versions.incrementAndGet() + CSV);
+        MappedCsvTable table;
+        try {
+            Files.copy(input, csv, StandardCopyOption.REPLACE_EXISTING);
+            table = MappedCsvIndex.build(csv, progress);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(csv);
+            throw e;
+        }
+
+        Entry previous = tables.put(dataset, new Entry(csv, table));
+        log.info("Mapped dataset '{}' published: {} rows x {} columns from {}",
+                dataset, table.getRowCount(), table.getColumns().size(), csv);
+        if (previous != null) {
+            // open mappings stay readable after the files are deleted
+            deleteQuietly(previous.csv);
+        }
+        return table;
+    }
+
+    /** Forgets a mapped dataset (it has been imported into the database instead). */
+    public void remove(String dataset) {
+        Entry previous = tables.remove(dataset);
+        if (previous != null) {
+            deleteQuietly(previous.csv);
+        }
+    }
+
+    // The CSV and its index files
+    private static void deleteQuietly(Path csv) {
+        for (Path file : List.of(csv, MappedCsvIndex.rowsFile(csv), MappedCsvIndex.indexFile(csv))) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final Path csv;
+        private final MappedCsvTable table;
+
+        private Entry(Path csv, MappedCsvTable table) {
+            this.csv = csv;
+            this.table = table;
+        }
+    }
+}
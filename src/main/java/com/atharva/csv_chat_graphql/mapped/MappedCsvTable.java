@@ -0,0 +1,410 @@
+package com.nupur.csv_chat_graphql.mapped;
+
+import com.nupur.csv_chat_graphql.CellValues;
+import com.nupur.csv_chat_graphql.ColumnInfo;
+import com.nupur.csv_chat_graphql.DataCell;
+import com.nupur.csv_chat_graphql.DataRow;
+import com.nupur.csv_chat_graphql.StorageLayout;
+import com.nupur.csv_chat_graphql.service.ColumnStatistics;
+import com.nupur.csv_chat_graphql.service.DatasetStatistics;
+import com.nupur.csv_chat_graphql.service.QueryCondition;
+import com.nupur.csv_chat_graphql.service.TopN;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Read-only table over a mapped CSV file and its index.
+ *
+ * Rows are never copied onto the heap as a whole: a filter walks the record
+ * offsets, slices each record into field ranges in place and compares the
+ * bytes it needs (ASCII case-insensitive equality, numbers parsed from the
+ * bytes). The dictionary and zone map of a column skip the query or whole
+ * blocks of rows that cannot match. Only rows that are returned are decoded
+ * into (detached) {@link DataRow}s, with the row's 1-based position as id.
+ *
+ * Safe for concurrent readers; nothing in it changes after construction.
+ */
+public final class MappedCsvTable {
+
+    private final MappedFile csv;
+    private final MappedFile rows;
+    private final int rowCount;
+    private final List<MappedColumn> columns;
+    private final Map<String, MappedColumn> columnsByName = new HashMap<>();
+    private final DatasetStatistics statistics;
+
+    MappedCsvTable(MappedFile csv, MappedFile rows, int rowCount, List<MappedColumn> columns) {
+        this.csv = csv;
+        this.rows = rows;
+        this.rowCount = rowCount;
+        this.columns = List.copyOf(columns);
+        for (MappedColumn column : columns) {
+            // first occurrence wins for duplicate headers, like the EAV lookups
+            columnsByName.putIfAbsent(column.getName().toLowerCase(Locale.ROOT), column);
+        }
+        List<ColumnStatistics> decoded = new ArrayList<>(columns.size());
+        for (MappedColumn column : columns) {
+            ColumnStatistics stats = ColumnStatistics.decode(column.getName(), column.getType(), column.getStatistics());
+            if (stats != null) {
+                decoded.add(stats);
+            }
+        }
+        this.statistics = DatasetStatistics.of(decoded);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /** Column statistics from the index, for the query planner. */
+    public DatasetStatistics statistics() {
+        return statistics;
+    }
+
+    public List<MappedColumn> getColumns() {
+        return columns;
+    }
+
+    /** Case-insensitive column lookup; null when the CSV has no such column. */
+    public MappedColumn column(String name) {
+        return name == null ? null : columnsByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /** DataRow id of the row at {@code pos}. */
+    public long rowIdAt(int pos) {
+        return pos + 1L;
+    }
+
+    /**
+     * Positions from {@code fromPos} on of rows matching every condition (AND),
+     * in file order, stopping after {@code maxMatches} (negative = all).
+     */
+    public int[] filter(List<QueryCondition> conditions, int fromPos, int maxMatches) {
+        return filter(conditions, fromPos, maxMatches, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same; a scan for all matches over at least {@code parallelThreshold} rows
+     * is split into ranges of whole zones on the fork-join pool, and the
+     * ranges' matches are concatenated in file order.
+     */
+    public int[] filter(List<QueryCondition> conditions, int fromPos, int maxMatches, int parallelThreshold) {
+        List<Matcher> matchers = new ArrayList<>(conditions.size());
+        for (QueryCondition condition : conditions) {
+            MappedColumn column = column(condition.getColumn());
+            if (column == null || condition.getValue() == null) {
+                return new int[0];
+            }
+            Matcher matcher = new Matcher(column, condition);
+            if (!matcher.possible()) {
+                return new int[0];
+            }
+            matchers.add(matcher);
+        }
+
+        int from = Math.max(0, fromPos);
+        if (maxMatches < 0 && parallelThreshold > 0 && rowCount - from >= parallelThreshold) {
+            // leaves of at least one zone, so no zone is checked twice
+            int leaf = Math.max(MappedCsvIndex.ZONE_ROWS, parallelThreshold / 2);
+            return new FilterPart(matchers, from, rowCount, leaf).invoke();
+        }
+        return scan(matchers, from, rowCount, maxMatches < 0 ? Integer.MAX_VALUE : maxMatches);
+    }
+
+    // Matching positions in [from, to), at most `limit`
+    private int[] scan(List<Matcher> matchers, int from, int to, int limit) {
+        int[] matches = new int[Math.min(limit, Math.max(0, to - from))];
+        int found = 0;
+        CsvSlices.Fields fields = new CsvSlices.Fields(columns.size());
+
+        int pos = from;
+        while (pos < to && found < limit) {
+            int zone = pos / MappedCsvIndex.ZONE_ROWS;
+            if (!zoneMayMatch(matchers, zone)) {
+                pos = (zone + 1) * MappedCsvIndex.ZONE_ROWS; // skip the whole block
+                continue;
+            }
+            int zoneEnd = Math.min(to, (zone + 1) * MappedCsvIndex.ZONE_ROWS);
+            for (; pos < zoneEnd && found < limit; pos++) {
+                int count = matchers.isEmpty() ? 0 : split(pos, fields);
+                if (matchesAll(matchers, fields, count)) {
+                    matches[found++] = pos;
+                }
+            }
+        }
+        return found == matches.length ? matches : Arrays.copyOf(matches, found);
+    }
+
+    /**
+     * {@code positions} ordered like the SQL route: numbers first (numerically),
+     * then text (case-insensitive), then empty values, ties in file order;
+     * numbers and text run the other way round when descending. Keeps the
+     * first {@code limit} (negative = all).
+     */
+    public int[] orderBy(int[] positions, String sortColumn, boolean descending, int limit) {
+        return orderBy(positions, sortColumn, descending, limit, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same; with a limit only the best {@code limit} rows are ranked (bounded
+     * heap, see {@link TopN}), in parallel from {@code parallelThreshold} positions.
+     */
+    public int[] orderBy(int[] positions, String sortColumn, boolean descending, int limit,
+                         int parallelThreshold) {
+        MappedColumn column = column(sortColumn);
+        if (column == null) {
+            return limit >= 0 && positions.length > limit ? Arrays.copyOf(positions, limit) : positions;
+        }
+
+        // keys decoded once per row, indexed like positions
+        int n = positions.length;
+        byte[] rank = new byte[n];
+        double[] number = new double[n];
+        String[] text = new String[n];
+        CsvSlices.Fields fields = new CsvSlices.Fields(columns.size());
+        for (int i = 0; i < n; i++) {
+            String value = CsvSlices.text(csv, fields, column.getPosition(), split(positions[i], fields));
+            Double parsed = CellValues.parseNumber(value);
+            rank[i] = (byte) (parsed != null ? 0 : value.isEmpty() ? 2 : 1);
+            number[i] = parsed == null ? 0 : parsed;
+            text[i] = value.toLowerCase(Locale.ROOT);
+        }
+
+        int direction = descending ? -1 : 1;
+        IntBinaryOperator cmp = (a, b) -> {
+            if (rank[a] != rank[b]) {
+                return Integer.compare(rank[a], rank[b]);
+            }
+            int c = Double.compare(number[a], number[b]);
+            return direction * (c != 0 ? c : text[a].compareTo(text[b]));
+        };
+        int[] indexes = new int[n];
+        for (int i = 0; i < n; i++) {
+            indexes[i] = i;
+        }
+        int[] best = TopN.select(indexes, limit, cmp, parallelThreshold);
+        int[] sorted = new int[best.length];
+        for (int i = 0; i < best.length; i++) {
+            sorted[i] = positions[best[i]];
+        }
+        return sorted;
+    }
+
+    /** Text of one value ("" when the row is shorter than the header). */
+    public String valueAt(int pos, MappedColumn column) {
+        CsvSlices.Fields fields = new CsvSlices.Fields(columns.size());
+        return CsvSlices.text(csv, fields, column.getPosition(), split(pos, fields));
+    }
+
+    /**
+     * Decodes the row as a detached DataRow (never attached to JPA), cells in
+     * header order.
+     */
+    public DataRow toDataRow(int pos) {
+        return toDataRow(pos, new CsvSlices.Fields(columns.size()));
+    }
+
+    public List<DataRow> toDataRows(int[] positions) {
+        CsvSlices.Fields fields = new CsvSlices.Fields(columns.size());
+        List<DataRow> result = new ArrayList<>(positions.length);
+        for (int pos : positions) {
+            result.add(toDataRow(pos, fields));
+        }
+        return result;
+    }
+
+    /** Rows [from, to) in file order. */
+    public List<DataRow> toDataRows(int from, int to) {
+        CsvSlices.Fields fields = new CsvSlices.Fields(columns.size());
+        List<DataRow> result = new ArrayList<>(Math.max(0, to - from));
+        for (int pos = from; pos < to; pos++) {
+            result.add(toDataRow(pos, fields));
+        }
+        return result;
+    }
+
+    /** Column metadata in the shape of an imported dataset's (not persisted). */
+    public List<ColumnInfo> columnInfo(String dataset) {
+        List<ColumnInfo> infos = new ArrayList<>(columns.size());
+        for (MappedColumn column : columns) {
+            ColumnInfo info = new ColumnInfo(column.getPosition(), column.getName(), column.getType(),
+                    column.getValueCount());
+            info.setDatasetGeneration(dataset, 0);
+            info.setLayout(StorageLayout.MAPPED);
+            info.setStatistics(column.getStatistics());
+            infos.add(info);
+        }
+        return Collections.unmodifiableList(infos);
+    }
+
+    private DataRow toDataRow(int pos, CsvSlices.Fields fields) {
+        int count = split(pos, fields);
+        DataRow row = new DataRow(rowIdAt(pos));
+        for (MappedColumn column : columns) {
+            row.addCell(new DataCell(column.getName(), CsvSlices.text(csv, fields, column.getPosition(), count), row));
+        }
+        return row;
+    }
+
+    // Field ranges of the record at pos; returns the number of fields
+    private int split(int pos, CsvSlices.Fields fields) {
+        long start = rows.getLong((long) pos * Long.BYTES);
+        long next = rows.getLong((long) (pos + 1) * Long.BYTES);
+        return CsvSlices.split(csv, start, CsvSlices.contentEnd(csv, start, next), fields);
+    }
+
+    private static boolean zoneMayMatch(List<Matcher> matchers, int zone) {
+        for (Matcher matcher : matchers) {
+            if (!matcher.zoneMayMatch(zone)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesAll(List<Matcher> matchers, CsvSlices.Fields fields, int count) {
+        for (Matcher matcher : matchers) {
+            if (!matcher.matches(fields, count)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // One range of rows: split at zone boundaries down to `leaf` rows, parts joined in order
+    private final class FilterPart extends RecursiveTask<int[]> {
+
+        private final List<Matcher> matchers;
+        private final int from;
+        private final int to;
+        private final int leaf;
+
+        private FilterPart(List<Matcher> matchers, int from, int to, int leaf) {
+            this.matchers = matchers;
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected int[] compute() {
+            int mid = (from + to) >>> 1;
+            mid -= mid % MappedCsvIndex.ZONE_ROWS;
+            if (to - from <= leaf || mid <= from) {
+                return scan(matchers, from, to, Integer.MAX_VALUE);
+            }
+            FilterPart left = new FilterPart(matchers, from, mid, leaf);
+            left.fork();
+            int[] right = new FilterPart(matchers, mid, to, leaf).compute();
+            int[] head = left.join();
+            int[] joined = Arrays.copyOf(head, head.length + right.length);
+            System.arraycopy(right, 0, joined, head.length, right.length);
+            return joined;
+        }
+    }
+
+    /**
+     * One condition prepared for a scan. Equality compares raw bytes, numeric
+     * ranges parse the field bytes; anything else (dates, text ranges, non-ASCII
+     * values) decodes the field and asks {@link QueryCondition#matches}, so the
+     * answers are exactly those of the other routes.
+     */
+    private final class Matcher {
+
+        private final MappedColumn column;
+        private final QueryCondition condition;
+        // lowercase ASCII value for EQ / NE, null otherwise
+        private final byte[] needle;
+        // numeric bounds (NaN = open) of a range, or of an EQ on a number
+        private final double low;
+        private final double high;
+        private final boolean numericRange;
+
+        private Matcher(MappedColumn column, QueryCondition condition) {
+            this.column = column;
+            this.condition = condition;
+
+            QueryCondition.Operator op = condition.getOperator();
+            String value = DataCell.normalize(condition.getValue());
+            Double bound = CellValues.parseNumber(value);
+            Double bound2 = CellValues.parseNumber(condition.getValue2());
+
+            if (op == QueryCondition.Operator.EQ || op == QueryCondition.Operator.NE) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                this.needle = bytes.length == value.length() ? bytes : null; // ASCII only
+                boolean numericEq = op == QueryCondition.Operator.EQ && bound != null;
+                this.low = numericEq ? bound : Double.NaN;
+                this.high = low;
+                this.numericRange = false;
+                return;
+            }
+            this.needle = null;
+            this.numericRange = bound != null && (op != QueryCondition.Operator.BETWEEN || bound2 != null);
+            double b = bound == null ? Double.NaN : bound;
+            switch (op) {
+                case GT, GTE -> {
+                    this.low = b;
+                    this.high = Double.NaN;
+                }
+                case LT, LTE -> {
+                    this.low = Double.NaN;
+                    this.high = b;
+                }
+                default -> { // BETWEEN
+                    this.low = b;
+                    this.high = bound2 == null ? Double.NaN : bound2;
+                }
+            }
+        }
+
+        // False when the index proves that no row matches
+        boolean possible() {
+            if (condition.getOperator() == QueryCondition.Operator.EQ) {
+                return column.mayContain(DataCell.normalize(condition.getValue()));
+            }
+            if (numericRange) {
+                return !Double.isNaN(column.getMin())
+                        && (Double.isNaN(low) || column.getMax() >= low)
+                        && (Double.isNaN(high) || column.getMin() <= high);
+            }
+            return true;
+        }
+
+        boolean zoneMayMatch(int zone) {
+            boolean numericEq = condition.getOperator() == QueryCondition.Operator.EQ && !Double.isNaN(low);
+            return !(numericRange || numericEq) || column.zoneMayHold(zone, low, high);
+        }
+
+        boolean matches(CsvSlices.Fields fields, int count) {
+            int i = column.getPosition();
+            if (needle != null) {
+                int cmp = CsvSlices.equalsLowerAscii(csv, fields, i, count, needle);
+                if (cmp != CsvSlices.UNKNOWN) {
+                    return (cmp == CsvSlices.EQUAL) == (condition.getOperator() == QueryCondition.Operator.EQ);
+                }
+            } else if (numericRange) {
+                double x = CsvSlices.number(csv, fields, i, count);
+                if (Double.isNaN(x)) {
+                    return false;
+                }
+                return switch (condition.getOperator()) {
+                    case GT -> x > low;
+                    case GTE -> x >= low;
+                    case LT -> x < high;
+                    case LTE -> x <= high;
+                    default -> x >= low && x <= high;
+                };
+            }
+            return condition.matches(new DataCell(column.getName(), CsvSlices.text(csv, fields, i, count), null));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.nupur.csv_chat_graphql.mapped;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a whole file through {@link MappedByteBuffer}s. Files are
+ * mapped in 1 GiB segments, so positions are longs and files beyond 2 GB work;
+ * the pages are the OS page cache, nothing is copied onto the heap.
+ */
+final class MappedFile {
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    private MappedFile(MappedByteBuffer[] segments, long size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /** Maps the file; the mapping stays valid after the channel is closed. */
+    static MappedFile map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long offset = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT_SIZE, size - offset));
+            }
+            return new MappedFile(segments, size);
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    byte get(long pos) {
+        return segments[(int) (pos >>> SEGMENT_BITS)].get((int) (pos & SEGMENT_MASK));
+    }
+
+    /** Big-endian long at an 8-byte aligned position (never split across segments). */
+    long getLong(long pos) {
+        return segments[(int) (pos >>> SEGMENT_BITS)].getLong((int) (pos & SEGMENT_MASK));
+    }
+
+    /** Copy of the bytes [from, to). */
+    byte[] bytes(long from, long to) {
+        byte[] out = new byte[(int) (to - from)];
+        int done = 0;
+        while (done < out.length) {
+            long pos = from + done;
+            MappedByteBuffer segment = segments[(int) (pos >>> SEGMENT_BITS)];
+            int offset = (int) (pos & SEGMENT_MASK);
+            int length = Math.min(out.length - done, segment.limit() - offset);
+            segment.get(offset, out, done, length);
+            done += length;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,30 @@
+package com.nupur.csv_chat_graphql.repository;
+
+import com.nupur.csv_chat_graphql.ColumnInfo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ColumnInfoRepository extends JpaRepository<ColumnInfo, Long> {
+
+    List<ColumnInfo> findAllByGenerationOrderByPositionAsc(long generation);
+
+    // (dataset, newest committed generation) per dataset
+    @Query("select c.dataset, max(c.generation) from ColumnInfo c group by c.dataset")
+    List<Object[]> findNewestGenerations();
+
+    @Query("select max(c.generation) from ColumnInfo c")
+    Long findMaxGeneration();
+
+    @Modifying
+    @Query("delete from ColumnInfo c where c.generation = :generation")
+    int deleteByGeneration(@Param("generation") long generation);
+
+    @Modifying
+    @Query("delete from ColumnInfo c where c.generation <= :upTo and c.generation not in :keep")
+    int deleteStaleGenerations(@Param("upTo") long upTo, @Param("keep") Collection<Long> keep);
+}
@@ -3,9 +3,24 @@ package com.nupur.csv_chat_graphql.repository;
 import com.nupur.csv_chat_graphql.DataCell;
 import com.nupur.csv_chat_graphql.DataRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface DataCellRepository extends JpaRepository<DataCell, Long> {
 
     List<DataCell> findByRow(DataRow row);
-}
\ No newline at end of file
+
+    // Bulk DELETEs (no entities loaded)
+    @Modifying
+    @Query("delete from DataCell c where c.generation = :generation")
+    int deleteByGeneration(@Param("generation") long generation);
+
+    // Generations up to upTo that are not in keep
+    @Modifying
+    @Query("delete from DataCell c where c.generation <= :upTo and c.generation not in :keep")
+    int deleteStaleGenerations(@Param("upTo") long upTo, @Param("keep") Collection<Long> keep);
+}
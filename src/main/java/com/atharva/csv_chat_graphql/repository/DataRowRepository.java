@@ -11,9 +11,25 @@ package com.nupur.csv_chat_graphql.repository;
 
 import com.nupur.csv_chat_graphql.DataRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 
 public interface DataRowRepository
         extends JpaRepository<DataRow, Long>,
         QuerydslPredicateExecutor<DataRow> {
-}
\ No newline at end of file
+
+    long countByGeneration(long generation);
+
+    // Cells go first (FK), see DataCellRepository
+    @Modifying
+    @Query("delete from DataRow r where r.generation = :generation")
+    int deleteByGeneration(@Param("generation") long generation);
+
+    @Modifying
+    @Query("delete from DataRow r where r.generation <= :upTo and r.generation not in :keep")
+    int deleteStaleGenerations(@Param("upTo") long upTo, @Param("keep") Collection<Long> keep);
+}
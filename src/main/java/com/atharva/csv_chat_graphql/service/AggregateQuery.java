@@ -0,0 +1,58 @@
+package com.nupur.csv_chat_graphql.service;
+
+/**
+ * Structured form of an aggregate question such as
+ * "average salary by department where city is paris order by salary desc top 3":
+ * function + column, optional GROUP BY column, and the row filter / ORDER BY /
+ * TOP N of the underlying {@link ParsedQuery}.
+ */
+public final class AggregateQuery {
+
+    public enum Function { COUNT, SUM, AVG, MIN, MAX }
+
+    private final Function function;
+    private final String column;
+    private final String groupBy;
+    private final ParsedQuery filter;
+
+    public AggregateQuery(Function function, String column, String groupBy, ParsedQuery filter) {
+        this.function = function;
+        this.column = column;
+        this.groupBy = groupBy;
+        this.filter = filter;
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    /** Aggregated column; null for COUNT (which counts rows). */
+    public String getColumn() {
+        return column;
+    }
+
+    /** GROUP BY column, or null for one overall result. */
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    public boolean isGrouped() {
+        return groupBy != null;
+    }
+
+    /** WHERE conditions, ORDER BY and TOP N (applied to the groups). */
+    public ParsedQuery getFilter() {
+        return filter;
+    }
+
+    /** ORDER BY names the group column → sort groups by label, otherwise by aggregate value. */
+    public boolean sortsByGroup() {
+        return isGrouped() && groupBy.equals(filter.getSortColumn());
+    }
+
+    @Override
+    public String toString() {
+        return function + "(" + (column == null ? "*" : column) + ")"
+                + (isGrouped() ? " group by " + groupBy : "") + " " + filter;
+    }
+}
@@ -0,0 +1,30 @@
+package com.nupur.csv_chat_graphql.service;
+
+import java.util.List;
+
+public final class AggregateResult {
+
+    private final AggregateQuery query;
+    private final List<AggregateRow> rows;
+
+    public AggregateResult(AggregateQuery query, List<AggregateRow> rows) {
+        this.query = query;
+        this.rows = List.copyOf(rows);
+    }
+
+    public AggregateQuery.Function getFunction() {
+        return query.getFunction();
+    }
+
+    public String getColumn() {
+        return query.getColumn();
+    }
+
+    public String getGroupBy() {
+        return query.getGroupBy();
+    }
+
+    public List<AggregateRow> getRows() {
+        return rows;
+    }
+}
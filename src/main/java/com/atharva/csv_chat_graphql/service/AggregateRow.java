@@ -0,0 +1,31 @@
+package com.nupur.csv_chat_graphql.service;
+
+/**
+ * One group of an aggregate answer: the group's value (null when not grouped,
+ * or for rows without the group column), the aggregate and the row count.
+ */
+public final class AggregateRow {
+
+    private final String group;
+    private final Double value;
+    private final long count;
+
+    public AggregateRow(String group, Double value, long count) {
+        this.group = group;
+        this.value = value;
+        this.count = count;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    /** Null when no row of the group has a numeric value in the column. */
+    public Double getValue() {
+        return value;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,51 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nupur.csv_chat_graphql.ColumnInfo;
+import com.nupur.csv_chat_graphql.StorageLayout;
+import com.nupur.csv_chat_graphql.repository.ColumnInfoRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ColumnDictionary} per dataset generation. A committed generation
+ * never changes, so entries are loaded once and only evicted by size.
+ */
+@Component
+public class ColumnDictionaries {
+
+    private static final int MAX_GENERATIONS = 256;
+
+    private final ColumnInfoRepository columnInfoRepository;
+    private final DatasetGenerations generations;
+
+    private final Cache<Long, ColumnDictionary> dictionaries = Caffeine.newBuilder()
+            .maximumSize(MAX_GENERATIONS)
+            .build();
+
+    public ColumnDictionaries(ColumnInfoRepository columnInfoRepository, DatasetGenerations generations) {
+        this.columnInfoRepository = columnInfoRepository;
+        this.generations = generations;
+    }
+
+    /** Dictionary of the dataset's current generation (empty EAV one when nothing is loaded). */
+    public ColumnDictionary current(String dataset) {
+        return forGeneration(generations.current(dataset));
+    }
+
+    public ColumnDictionary forGeneration(long generation) {
+        return generation == 0 ? ColumnDictionary.EMPTY : dictionaries.get(generation, this::load);
+    }
+
+    private ColumnDictionary load(long generation) {
+        List<ColumnInfo> columns = columnInfoRepository.findAllByGenerationOrderByPositionAsc(generation);
+        List<String> names = new ArrayList<>(columns.size());
+        for (ColumnInfo column : columns) {
+            names.add(column.getName());
+        }
+        return new ColumnDictionary(names, columns.isEmpty() ? StorageLayout.EAV : columns.get(0).getLayout());
+    }
+}
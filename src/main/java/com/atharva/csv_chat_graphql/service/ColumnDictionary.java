@@ -0,0 +1,67 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.DataCell;
+import com.nupur.csv_chat_graphql.DataRow;
+import com.nupur.csv_chat_graphql.RowPayload;
+import com.nupur.csv_chat_graphql.StorageLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Header of one dataset generation (from its ColumnInfo) and how its values
+ * are stored. Turns compact rows back into cells: payload position i is the
+ * i-th column.
+ */
+public final class ColumnDictionary {
+
+    static final ColumnDictionary EMPTY = new ColumnDictionary(List.of(), StorageLayout.EAV);
+
+    private final List<String> names;
+    private final StorageLayout layout;
+
+    ColumnDictionary(List<String> names, StorageLayout layout) {
+        this.names = List.copyOf(names);
+        this.layout = layout;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    public boolean isCompact() {
+        return layout == StorageLayout.COMPACT;
+    }
+
+    /** Cells decoded from a compact row's payload (not attached to JPA). */
+    public List<DataCell> cells(DataRow row) {
+        return decode(row.getPayload(), row);
+    }
+
+    /** Detached copy of a compact row with its cells in memory; other rows unchanged. */
+    public DataRow expand(DataRow row) {
+        if (!row.isCompact()) {
+            return row;
+        }
+        DataRow copy = new DataRow(row.getId());
+        decode(row.getPayload(), copy).forEach(copy::addCell);
+        return copy;
+    }
+
+    public List<DataRow> expand(List<DataRow> rows) {
+        List<DataRow> expanded = new ArrayList<>(rows.size());
+        for (DataRow row : rows) {
+            expanded.add(expand(row));
+        }
+        return expanded;
+    }
+
+    private List<DataCell> decode(byte[] payload, DataRow owner) {
+        String[] values = RowPayload.decode(payload);
+        List<DataCell> cells = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length && i < names.size(); i++) {
+            cells.add(new DataCell(names.get(i), values[i], owner));
+        }
+        return cells;
+    }
+}
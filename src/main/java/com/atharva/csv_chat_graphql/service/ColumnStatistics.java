@@ -0,0 +1,332 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.CellValues;
+import com.nupur.csv_chat_graphql.ColumnType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Statistics of one column, gathered while its import went past every value
+ * (see {@link ColumnStatisticsCollector}): row and null counts, the number of
+ * distinct values (exact up to 1024 of them, HyperLogLog beyond), min / max,
+ * the most common values with their counts and, for numbers and dates, an
+ * equi-depth histogram. Stored with the column (column_info.statistics, or
+ * the .idx file of a mapped CSV) and used to estimate how many rows a
+ * condition keeps ({@link #selectivity}).
+ */
+public final class ColumnStatistics {
+
+    /** Most common values listed by the columnStats query (estimates use all that are kept). */
+    public static final int TOP_VALUES_SHOWN = 10;
+    /** Buckets of a histogram, at most. */
+    public static final int HISTOGRAM_BUCKETS = 16;
+    private static final byte FORMAT = 1;
+
+    private final String column;
+    private final ColumnType type;
+    private final long rows;
+    private final long nullCount;
+    private final long distinctCount;
+    private final String min;
+    private final String max;
+    // lowercased values, most frequent first; every distinct value when `complete`
+    private final List<ValueCount> mostCommon;
+    private final boolean complete;
+    // equi-depth histogram of the numbers (dates as epoch days): bucket i spans bounds[i]..bounds[i + 1]
+    private final double[] bounds;
+    private final long[] bucketCounts;
+
+    private final Map<String, Long> countsByValue;
+
+    ColumnStatistics(String column, ColumnType type, long rows, long nullCount, long distinctCount,
+                     String min, String max, List<ValueCount> mostCommon, boolean complete,
+                     double[] bounds, long[] bucketCounts) {
+        this.column = column;
+        this.type = type;
+        this.rows = rows;
+        this.nullCount = nullCount;
+        this.distinctCount = distinctCount;
+        this.min = min;
+        this.max = max;
+        this.mostCommon = List.copyOf(mostCommon);
+        this.complete = complete;
+        this.bounds = bounds;
+        this.bucketCounts = bucketCounts;
+        this.countsByValue = mostCommon.stream()
+                .collect(Collectors.toMap(ValueCount::getValue, ValueCount::getCount, Long::sum));
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public ColumnType getType() {
+        return type;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /** Rows without a value in this column (empty or missing cells). */
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    public long getDistinctCount() {
+        return distinctCount;
+    }
+
+    /** Smallest value (by number or date for those types, else as lowercased text); null without values. */
+    public String getMin() {
+        return min;
+    }
+
+    public String getMax() {
+        return max;
+    }
+
+    /** The most frequent values (lowercased) with their (estimated) counts. */
+    public List<ValueCount> getTopValues() {
+        return mostCommon.subList(0, Math.min(TOP_VALUES_SHOWN, mostCommon.size()));
+    }
+
+    public List<HistogramBucket> getHistogram() {
+        List<HistogramBucket> buckets = new ArrayList<>(bucketCounts.length);
+        for (int i = 0; i < bucketCounts.length; i++) {
+            buckets.add(new HistogramBucket(format(bounds[i]), format(bounds[i + 1]), bucketCounts[i]));
+        }
+        return buckets;
+    }
+
+    // --------------------------------------------------------------------
+    // 🔹 Estimates
+    // --------------------------------------------------------------------
+
+    /**
+     * Estimated fraction of all rows that {@code condition} (on this column)
+     * keeps; NaN when these statistics can't tell, e.g. a range over text or a
+     * bound of another type than the column's.
+     */
+    public double selectivity(QueryCondition condition) {
+        if (rows == 0) {
+            return 0;
+        }
+        long values = rows - nullCount;
+        double matching = switch (condition.getOperator()) {
+            case EQ -> equalCount(condition.getValue());
+            case NE -> values - equalCount(condition.getValue());
+            case LT, LTE -> countBelow(condition.getValue());
+            case GT, GTE -> values - countBelow(condition.getValue());
+            case BETWEEN -> countBelow(condition.getValue2()) - countBelow(condition.getValue());
+        };
+        return Double.isNaN(matching) ? Double.NaN : Math.max(0, Math.min(values, matching)) / rows;
+    }
+
+    // Rows holding `value` (lowercased): counted when it is a common value, otherwise the
+    // rows left over by the common values spread evenly across the remaining distinct ones
+    private double equalCount(String value) {
+        Long count = countsByValue.get(value);
+        if (count != null) {
+            return count;
+        }
+        if (complete) {
+            return 0;
+        }
+        long listed = 0;
+        for (ValueCount common : mostCommon) {
+            listed += common.getCount();
+        }
+        long others = Math.max(1, distinctCount - mostCommon.size());
+        return Math.max(0, rows - nullCount - listed) / (double) others;
+    }
+
+    // Values at or below `bound` by the histogram (linear within a bucket), NaN when it doesn't apply
+    private double countBelow(String bound) {
+        double x = toAxis(bound);
+        if (Double.isNaN(x) || bucketCounts.length == 0) {
+            return Double.NaN;
+        }
+        double below = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            double low = bounds[i];
+            double high = bounds[i + 1];
+            if (x >= high) {
+                below += bucketCounts[i];
+            } else if (x > low) {
+                below += bucketCounts[i] * (x - low) / (high - low);
+            }
+        }
+        return below;
+    }
+
+    // A value on the histogram's axis: the number, or the date's epoch day
+    private double toAxis(String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+        if (type == ColumnType.INTEGER || type == ColumnType.DECIMAL) {
+            Double number = CellValues.parseNumber(value);
+            return number == null ? Double.NaN : number;
+        }
+        if (type == ColumnType.DATE) {
+            LocalDate date = CellValues.parseDate(value);
+            return date == null ? Double.NaN : date.toEpochDay();
+        }
+        return Double.NaN;
+    }
+
+    // A histogram bound as the column shows it
+    private String format(double x) {
+        if (type == ColumnType.DATE) {
+            return LocalDate.ofEpochDay((long) x).toString();
+        }
+        return formatNumber(x);
+    }
+
+    static String formatNumber(double x) {
+        return x == Math.rint(x) && Math.abs(x) < 1e15 ? Long.toString((long) x) : Double.toString(x);
+    }
+
+    // --------------------------------------------------------------------
+    // 🔹 Storage: a small versioned binary form
+    // --------------------------------------------------------------------
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeLong(rows);
+            out.writeLong(nullCount);
+            out.writeLong(distinctCount);
+            writeNullable(out, min);
+            writeNullable(out, max);
+            out.writeBoolean(complete);
+            out.writeInt(mostCommon.size());
+            for (ValueCount common : mostCommon) {
+                out.writeUTF(common.getValue());
+                out.writeLong(common.getCount());
+            }
+            out.writeInt(bucketCounts.length);
+            for (double bound : bounds) {
+                out.writeDouble(bound);
+            }
+            for (long count : bucketCounts) {
+                out.writeLong(count);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Statistics of {@code column} from their {@link #encode() encoded} form;
+     * null when there are none (data imported before they were gathered) or
+     * they can't be read.
+     */
+    public static ColumnStatistics decode(String column, ColumnType type, byte[] encoded) {
+        if (encoded == null || encoded.length == 0 || encoded[0] != FORMAT) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded, 1, encoded.length - 1))) {
+            long rows = in.readLong();
+            long nullCount = in.readLong();
+            long distinctCount = in.readLong();
+            String min = readNullable(in);
+            String max = readNullable(in);
+            boolean complete = in.readBoolean();
+            int common = in.readInt();
+            List<ValueCount> mostCommon = new ArrayList<>(common);
+            for (int i = 0; i < common; i++) {
+                mostCommon.add(new ValueCount(in.readUTF(), in.readLong()));
+            }
+            int buckets = in.readInt();
+            double[] bounds = new double[buckets == 0 ? 0 : buckets + 1];
+            for (int i = 0; i < bounds.length; i++) {
+                bounds[i] = in.readDouble();
+            }
+            long[] bucketCounts = new long[buckets];
+            for (int i = 0; i < buckets; i++) {
+                bucketCounts[i] = in.readLong();
+            }
+            return new ColumnStatistics(column, type, rows, nullCount, distinctCount, min, max, mostCommon,
+                    complete, bounds, bucketCounts);
+        } catch (IOException | RuntimeException e) {
+            return null; // garbled: treated as unknown
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @Override
+    public String toString() {
+        return column + " (" + type + "): rows=" + rows + ", nulls=" + nullCount + ", distinct=" + distinctCount
+                + ", min=" + min + ", max=" + max + ", top=" + getTopValues().stream().map(ValueCount::getValue).toList();
+    }
+
+    /** A value and how many rows hold it. */
+    public static final class ValueCount {
+
+        private final String value;
+        private final long count;
+
+        public ValueCount(String value, long count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /** Rows whose value lies between two bounds (numbers, or ISO dates for a date column). */
+    public static final class HistogramBucket {
+
+        private final String lower;
+        private final String upper;
+        private final long count;
+
+        public HistogramBucket(String lower, String upper, long count) {
+            this.lower = lower;
+            this.upper = upper;
+            this.count = count;
+        }
+
+        public String getLower() {
+            return lower;
+        }
+
+        public String getUpper() {
+            return upper;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
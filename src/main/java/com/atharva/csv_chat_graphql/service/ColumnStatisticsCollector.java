@@ -0,0 +1,191 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.ColumnType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Gathers the {@link ColumnStatistics} of one column in a single pass, in
+ * bounded memory: exact value counts while the column has at most
+ * {@link #EXACT_VALUES} distinct values, a HyperLogLog for the distinct count
+ * beyond that, and a uniform sample of the values (reservoir sampling) for the
+ * histogram and for the most common values of high-cardinality columns. Not
+ * thread-safe; fed through {@link ColumnTypeInference}.
+ */
+final class ColumnStatisticsCollector {
+
+    /** Distinct values counted exactly before the column counts as high-cardinality. */
+    static final int EXACT_VALUES = 1024;
+    static final int SAMPLE_SIZE = 1024;
+    /** Most common values kept with the statistics. */
+    static final int MOST_COMMON = 64;
+    // Longer values are left out of the most common ones, min / max are cut
+    static final int MAX_VALUE_LENGTH = 128;
+
+    private final HyperLogLog distinct = new HyperLogLog();
+    // null once the column has more than EXACT_VALUES distinct values
+    private Map<String, long[]> counts = new HashMap<>();
+    private final String[] sample = new String[SAMPLE_SIZE];
+    private final SplittableRandom random;
+    private double weight = 1;
+    private long nextSampled; // index of the next value that replaces a sampled one
+    private long values;
+
+    private double minNumber = Double.NaN;
+    private double maxNumber = Double.NaN;
+    private LocalDate minDate;
+    private LocalDate maxDate;
+    private String minText;
+    private String maxText;
+
+    ColumnStatisticsCollector(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    // Algorithm L: jumps straight to the next value that enters the full sample,
+    // so random numbers are drawn O(k log(n/k)) times instead of once per value
+    private void skip() {
+        weight *= Math.exp(Math.log(random.nextDouble()) / SAMPLE_SIZE);
+        nextSampled = Math.max(values, SAMPLE_SIZE - 1)
+                + (long) Math.floor(Math.log(random.nextDouble()) / Math.log1p(-weight)) + 1;
+    }
+
+    /** One non-empty value, lowercased, with its number or date when it parses as one. */
+    void add(String key, Double number, LocalDate date) {
+        distinct.add(key);
+        if (counts != null) {
+            long[] count = counts.get(key);
+            if (count != null) {
+                count[0]++;
+            } else if (counts.size() < EXACT_VALUES) {
+                counts.put(key, new long[] {1});
+            } else {
+                counts = null; // high cardinality: estimated from the sample from here on
+            }
+        }
+
+        // reservoir sampling: every value seen so far is in the sample with the same probability
+        if (values < SAMPLE_SIZE) {
+            sample[(int) values] = key;
+            if (values == SAMPLE_SIZE - 1) {
+                skip();
+            }
+        } else if (values == nextSampled) {
+            sample[random.nextInt(SAMPLE_SIZE)] = key;
+            skip();
+        }
+        values++;
+
+        if (number != null) {
+            double n = number;
+            minNumber = Double.isNaN(minNumber) ? n : Math.min(minNumber, n);
+            maxNumber = Double.isNaN(maxNumber) ? n : Math.max(maxNumber, n);
+        } else if (date != null) {
+            minDate = minDate == null || date.isBefore(minDate) ? date : minDate;
+            maxDate = maxDate == null || date.isAfter(maxDate) ? date : maxDate;
+        }
+        if (minText == null || key.compareTo(minText) < 0) {
+            minText = key;
+        }
+        if (maxText == null || key.compareTo(maxText) > 0) {
+            maxText = key;
+        }
+    }
+
+    /** The statistics of a column of {@code type} over {@code rows} rows (with or without a value). */
+    ColumnStatistics build(String column, ColumnType type, long rows) {
+        long nullCount = Math.max(0, rows - values);
+        int sampled = (int) Math.min(values, SAMPLE_SIZE);
+
+        List<ColumnStatistics.ValueCount> mostCommon;
+        long distinctCount;
+        if (counts != null) {
+            distinctCount = counts.size();
+            mostCommon = mostCommon(counts, 1, 1);
+        } else {
+            distinctCount = Math.min(values, Math.max(distinct.estimate(), EXACT_VALUES + 1L));
+            // from the sample; a value seen there once says nothing about its frequency
+            Map<String, long[]> sampleCounts = new HashMap<>();
+            for (int i = 0; i < sampled; i++) {
+                sampleCounts.computeIfAbsent(sample[i], k -> new long[1])[0]++;
+            }
+            mostCommon = mostCommon(sampleCounts, 2, (double) values / sampled);
+        }
+        boolean complete = counts != null && mostCommon.size() == counts.size(); // every value listed
+
+        String min;
+        String max;
+        double[] axis = null; // the sample on the histogram's axis
+        if ((type == ColumnType.INTEGER || type == ColumnType.DECIMAL) && !Double.isNaN(minNumber)) {
+            min = ColumnStatistics.formatNumber(minNumber);
+            max = ColumnStatistics.formatNumber(maxNumber);
+            axis = new double[sampled];
+            for (int i = 0; i < sampled; i++) {
+                axis[i] = Double.parseDouble(sample[i]);
+            }
+        } else if (type == ColumnType.DATE && minDate != null) {
+            min = minDate.toString();
+            max = maxDate.toString();
+            axis = new double[sampled];
+            for (int i = 0; i < sampled; i++) {
+                axis[i] = LocalDate.parse(sample[i]).toEpochDay();
+            }
+        } else {
+            min = cut(minText);
+            max = cut(maxText);
+        }
+
+        double[] bounds = new double[0];
+        long[] bucketCounts = new long[0];
+        if (axis != null && sampled > 0) {
+            // equi-depth: every bucket holds the same share of the sample; the outer bounds are the real min / max
+            Arrays.sort(axis);
+            int buckets = Math.min(ColumnStatistics.HISTOGRAM_BUCKETS, sampled);
+            bounds = new double[buckets + 1];
+            bucketCounts = new long[buckets];
+            long counted = 0;
+            for (int b = 0; b < buckets; b++) {
+                int from = (int) ((long) b * sampled / buckets);
+                int to = (int) ((long) (b + 1) * sampled / buckets);
+                bounds[b] = axis[from];
+                long upTo = Math.round((double) values * to / sampled);
+                bucketCounts[b] = upTo - counted;
+                counted = upTo;
+            }
+            bounds[0] = type == ColumnType.DATE ? minDate.toEpochDay() : minNumber;
+            bounds[buckets] = type == ColumnType.DATE ? maxDate.toEpochDay() : maxNumber;
+        }
+
+        return new ColumnStatistics(column, type, rows, nullCount, distinctCount, min, max, mostCommon, complete,
+                bounds, bucketCounts);
+    }
+
+    // The MOST_COMMON values counted at least `minCount` times, most frequent first, counts scaled
+    private static List<ColumnStatistics.ValueCount> mostCommon(Map<String, long[]> counts, long minCount,
+                                                               double scale) {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            if (entry.getValue()[0] >= minCount && entry.getKey().length() <= MAX_VALUE_LENGTH) {
+                entries.add(entry);
+            }
+        }
+        entries.sort(Comparator.<Map.Entry<String, long[]>>comparingLong(e -> -e.getValue()[0])
+                .thenComparing(Map.Entry::getKey));
+        List<ColumnStatistics.ValueCount> mostCommon = new ArrayList<>(Math.min(MOST_COMMON, entries.size()));
+        for (Map.Entry<String, long[]> entry : entries.subList(0, Math.min(MOST_COMMON, entries.size()))) {
+            mostCommon.add(new ColumnStatistics.ValueCount(entry.getKey(), Math.round(entry.getValue()[0] * scale)));
+        }
+        return mostCommon;
+    }
+
+    private static String cut(String value) {
+        return value == null || value.length() <= MAX_VALUE_LENGTH ? value : value.substring(0, MAX_VALUE_LENGTH);
+    }
+}
@@ -0,0 +1,47 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nupur.csv_chat_graphql.mapped.MappedCsvStore;
+import com.nupur.csv_chat_graphql.mapped.MappedCsvTable;
+import com.nupur.csv_chat_graphql.repository.ColumnInfoRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * {@link DatasetStatistics} per dataset generation, decoded from the columns'
+ * stored statistics once; a committed generation never changes, so entries are
+ * only evicted by size. A mapped CSV carries its own (from its index).
+ */
+@Component
+public class ColumnStatisticsStore {
+
+    private static final int MAX_GENERATIONS = 256;
+
+    private final ColumnInfoRepository columnInfoRepository;
+    private final DatasetGenerations generations;
+    private final MappedCsvStore mappedCsvStore;
+
+    private final Cache<Long, DatasetStatistics> statistics = Caffeine.newBuilder()
+            .maximumSize(MAX_GENERATIONS)
+            .build();
+
+    public ColumnStatisticsStore(ColumnInfoRepository columnInfoRepository, DatasetGenerations generations,
+                                 MappedCsvStore mappedCsvStore) {
+        this.columnInfoRepository = columnInfoRepository;
+        this.generations = generations;
+        this.mappedCsvStore = mappedCsvStore;
+    }
+
+    /** Statistics of the dataset as queries currently see it (EMPTY when nothing is loaded). */
+    public DatasetStatistics current(String dataset) {
+        Optional<MappedCsvTable> mapped = mappedCsvStore.current(dataset);
+        if (mapped.isPresent()) {
+            return mapped.get().statistics();
+        }
+        long generation = generations.current(dataset);
+        return generation == 0 ? DatasetStatistics.EMPTY : statistics.get(generation, g ->
+                DatasetStatistics.decode(columnInfoRepository.findAllByGenerationOrderByPositionAsc(g)));
+    }
+}
@@ -0,0 +1,134 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.CellValues;
+import com.nupur.csv_chat_graphql.ColumnInfo;
+import com.nupur.csv_chat_graphql.ColumnType;
+import com.nupur.csv_chat_graphql.DataCell;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Infers one {@link ColumnType} per CSV column while an import writes its rows.
+ * A column gets the narrowest type that all of its non-empty values fit:
+ * INTEGER ⊂ DECIMAL, DATE, BOOLEAN, otherwise STRING. The same pass gathers
+ * each column's {@link ColumnStatistics}, attached to its ColumnInfo. Not
+ * thread-safe; fed by the single writer thread (or the mapped index build).
+ */
+public class ColumnTypeInference {
+
+    private static final int INTEGER = 1;
+    private static final int DECIMAL = 1 << 1;
+    private static final int DATE = 1 << 2;
+    private static final int BOOLEAN = 1 << 3;
+    private static final int STRING = 1 << 4;
+
+    private final String[] header;
+    private final int[] kindsSeen;
+    private final long[] valueCounts;
+    // values (empty or not) seen per column; the most of them is the row count
+    private final long[] seen;
+    private final ColumnStatisticsCollector[] statistics;
+
+    public ColumnTypeInference(String[] header) {
+        this.header = header;
+        this.kindsSeen = new int[header.length];
+        this.valueCounts = new long[header.length];
+        this.seen = new long[header.length];
+        this.statistics = new ColumnStatisticsCollector[header.length];
+        for (int c = 0; c < header.length; c++) {
+            statistics[c] = new ColumnStatisticsCollector(c); // seeded: the same file gives the same statistics
+        }
+    }
+
+    /** Cells in header order, as built by the ingest pipeline. */
+    void observe(List<DataCell> cells) {
+        int n = Math.min(cells.size(), header.length);
+        for (int c = 0; c < n; c++) {
+            DataCell cell = cells.get(c);
+            seen[c]++;
+            int kind = kindOf(cell);
+            if (kind != 0) {
+                kindsSeen[c] |= kind;
+                valueCounts[c]++;
+                statistics[c].add(cell.getValueKey(), cell.getNumberValue(), cell.getDateValue());
+            }
+        }
+    }
+
+    /** One raw value of column {@code column}, for callers that have no DataCell. */
+    public void observe(int column, String value) {
+        observe(column, value, DataCell.normalize(value), CellValues.parseNumber(value));
+    }
+
+    /** Same, for callers that already lowercased the value and parsed it as a number. */
+    public void observe(int column, String value, String key, Double number) {
+        seen[column]++;
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        LocalDate date = number == null ? CellValues.parseDate(value) : null;
+        kindsSeen[column] |= kindOf(value, number, date);
+        valueCounts[column]++;
+        statistics[column].add(key, number, date);
+    }
+
+    /** Columns in header order, each with its type and encoded statistics. */
+    public List<ColumnInfo> result() {
+        long rows = 0;
+        for (long count : seen) {
+            rows = Math.max(rows, count);
+        }
+        List<ColumnInfo> columns = new ArrayList<>(header.length);
+        for (int c = 0; c < header.length; c++) {
+            ColumnType type = typeOf(kindsSeen[c]);
+            ColumnInfo column = new ColumnInfo(c, header[c], type, valueCounts[c]);
+            column.setStatistics(statistics[c].build(header[c], type, rows).encode());
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    // Uses the typed values DataCell already parsed; 0 for empty cells
+    private static int kindOf(DataCell cell) {
+        String value = cell.getCellValue();
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        if (cell.getNumberValue() != null) {
+            return value.indexOf('.') < 0 ? INTEGER : DECIMAL;
+        }
+        if (cell.getDateValue() != null) {
+            return DATE;
+        }
+        return CellValues.isBoolean(value) ? BOOLEAN : STRING;
+    }
+
+    // Same classification from a non-empty text and what it parsed to
+    private static int kindOf(String value, Double number, LocalDate date) {
+        if (number != null) {
+            return value.indexOf('.') < 0 ? INTEGER : DECIMAL;
+        }
+        if (date != null) {
+            return DATE;
+        }
+        return CellValues.isBoolean(value) ? BOOLEAN : STRING;
+    }
+
+    private static ColumnType typeOf(int kinds) {
+        if (kinds == INTEGER) {
+            return ColumnType.INTEGER;
+        }
+        if (kinds == DECIMAL || kinds == (INTEGER | DECIMAL)) {
+            return ColumnType.DECIMAL;
+        }
+        if (kinds == DATE) {
+            return ColumnType.DATE;
+        }
+        if (kinds == BOOLEAN) {
+            return ColumnType.BOOLEAN;
+        }
+        return ColumnType.STRING; // mixed kinds, or no values at all
+    }
+}
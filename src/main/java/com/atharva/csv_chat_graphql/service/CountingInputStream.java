@@ -0,0 +1,62 @@
+package com.nupur.csv_chat_graphql.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Counts the bytes read (or skipped) through it, for the import's bytes/sec
+ * metric and a job's "bytes read" progress; each chunk is also handed to
+ * {@code onRead}.
+ */
+final class CountingInputStream extends FilterInputStream {
+
+    private final LongConsumer onRead;
+    private long count;
+
+    CountingInputStream(InputStream in) {
+        this(in, bytes -> { });
+    }
+
+    CountingInputStream(InputStream in, LongConsumer onRead) {
+        super(in);
+        this.onRead = onRead;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            counted(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            counted(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        if (skipped > 0) {
+            counted(skipped);
+        }
+        return skipped;
+    }
+
+    private void counted(long bytes) {
+        count += bytes;
+        onRead.accept(bytes);
+    }
+}
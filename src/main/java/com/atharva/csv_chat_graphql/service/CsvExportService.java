@@ -0,0 +1,141 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.ColumnInfo;
+import com.nupur.csv_chat_graphql.DataCell;
+import com.nupur.csv_chat_graphql.DataRow;
+import com.opencsv.CSVWriter;
+import com.opencsv.ICSVWriter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JsonEncoding;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.ObjectWriteContext;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.core.json.JsonFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the whole answer to a question straight to an output stream, row by
+ * row as {@link DataRowQueryService#streamRows} hands them over, so exports of
+ * any size never hold the result in memory (the query result cache is not
+ * involved either).
+ */
+@Service
+public class CsvExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /** "csv" (default when absent) or "ndjson", any case. */
+        public static Format parse(String format) {
+            if (format == null || format.isBlank()) {
+                return CSV;
+            }
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown export format: " + format + " (csv or ndjson)");
+            }
+        }
+    }
+
+    // One JSON object per line: nothing between root values but our own '\n',
+    // and the response stream stays open for the web layer to close
+    private static final JsonFactory NDJSON_FACTORY = JsonFactory.builder()
+            .rootValueSeparator("")
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final NaturalLanguageQueryService naturalLanguageQueryService;
+    private final DataRowQueryService dataRowQueryService;
+
+    public CsvExportService(NaturalLanguageQueryService naturalLanguageQueryService,
+                            DataRowQueryService dataRowQueryService) {
+        this.naturalLanguageQueryService = naturalLanguageQueryService;
+        this.dataRowQueryService = dataRowQueryService;
+    }
+
+    /**
+     * Exports the rows answering {@code question} (all rows when blank) with
+     * the dataset's columns in CSV order, and returns how many were written.
+     * The transaction keeps the database cursor open while the rows are written.
+     */
+    @Transactional(readOnly = true)
+    public long export(String dataset, String question, Format format, OutputStream out) throws IOException {
+        ParsedQuery query = naturalLanguageQueryService.plan(dataset, question).getQuery();
+        String[] header = dataRowQueryService.findColumns(dataset).stream()
+                .map(ColumnInfo::getName)
+                .toArray(String[]::new);
+        return format == Format.NDJSON
+                ? writeNdjson(dataset, query, header, out)
+                : writeCsv(dataset, query, header, out);
+    }
+
+    private long writeCsv(String dataset, ParsedQuery query, String[] header, OutputStream out) throws IOException {
+        ICSVWriter csv = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        csv.writeNext(header, false);
+        long[] written = {0};
+        dataRowQueryService.streamRows(dataset, query, row -> {
+            csv.writeNext(values(row, header.length), false);
+            written[0]++;
+        });
+        csv.flush();
+        if (csv.checkError()) {
+            throw new IOException("CSV export failed", csv.getException());
+        }
+        return written[0];
+    }
+
+    private long writeNdjson(String dataset, ParsedQuery query, String[] header, OutputStream out) {
+        long[] written = {0};
+        try (JsonGenerator json = NDJSON_FACTORY.createGenerator(ObjectWriteContext.empty(), out,
+                JsonEncoding.UTF8)) {
+            dataRowQueryService.streamRows(dataset, query, row -> {
+                String[] values = values(row, header.length);
+                json.writeStartObject();
+                for (int i = 0; i < header.length; i++) {
+                    json.writeStringProperty(header[i], values[i]);
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+                written[0]++;
+            });
+        }
+        return written[0];
+    }
+
+    // Cells come in CSV column order; short rows are padded with empty values
+    private static String[] values(DataRow row, int columns) {
+        String[] values = new String[columns];
+        List<DataCell> cells = row.getCells();
+        for (int i = 0; i < columns; i++) {
+            String value = i < cells.size() ? cells.get(i).getCellValue() : null;
+            values[i] = value == null ? "" : value;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,51 @@
+package com.nupur.csv_chat_graphql.service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Summary of one CSV import: how many rows/cells were written and how fast.
+ */
+public class CsvImportResult {
+
+    private final long rows;
+    private final long cells;
+    private final long elapsedMillis;
+    private final List<IngestStageStats> stages;
+
+    public CsvImportResult(long rows, long cells, long elapsedMillis, List<IngestStageStats> stages) {
+        this.rows = rows;
+        this.cells = cells;
+        this.elapsedMillis = elapsedMillis;
+        this.stages = stages;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getCells() {
+        return cells;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public List<IngestStageStats> getStages() {
+        return stages;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis > 0 ? rows * 1000.0 / elapsedMillis : rows;
+    }
+
+    @Override
+    public String toString() {
+        String perStage = stages.stream()
+                .map(IngestStageStats::toString)
+                .collect(Collectors.joining(", "));
+        return "Imported %d rows (%d cells) in %d ms (%.0f rows/sec) [%s]"
+                .formatted(rows, cells, elapsedMillis, getRowsPerSecond(), perStage);
+    }
+}
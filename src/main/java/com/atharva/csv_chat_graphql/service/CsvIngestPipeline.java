@@ -0,0 +1,271 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.DataCell;
+import com.nupur.csv_chat_graphql.DataRow;
+import com.nupur.csv_chat_graphql.config.CsvImportProperties;
+import com.opencsv.CSVReader;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Three-stage ingest pipeline:
+ *
+ *   reader (1 thread)  → CSV records, split into batches of chunk-size
+ *   workers (N threads) → DataRow/DataCell entities built in parallel
+ *   writer (caller)    → batches handed to the caller in file order
+ *
+ * Stages talk through bounded queues, so a slow writer blocks the workers and
+ * the reader (back-pressure) instead of letting parsed data pile up on the heap.
+ * The reader also holds a permit per batch until it is written, so batches that
+ * wait for a slow worker's earlier one can't pile up either: at most
+ * queue-capacity + workers batches are in flight.
+ * The writer runs on the calling thread on purpose: it is the only stage that
+ * touches the EntityManager / transaction.
+ */
+@Component
+public class CsvIngestPipeline {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final CsvImportProperties importProperties;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(new IngestThreadFactory());
+
+    public CsvIngestPipeline(CsvImportProperties importProperties) {
+        this.importProperties = importProperties;
+    }
+
+    /**
+     * Runs the pipeline until the reader hits EOF. {@code writer} is called on the
+     * current thread once per batch, in the same order the records appear in the file.
+     */
+    public List<IngestStageStats> run(CSVReader csvReader,
+                                      String[] header,
+                                      Consumer<List<DataRow>> writer) throws Exception {
+
+        int batchSize = Math.max(1, importProperties.getChunkSize());
+        int workers = Math.max(1, importProperties.getWorkers());
+        int capacity = Math.max(1, importProperties.getQueueCapacity());
+
+        BlockingQueue<Batch<String[]>> parsed = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Batch<DataRow>> converted = new ArrayBlockingQueue<>(capacity);
+        // Batches read but not yet written; caps the writer's reorder buffer
+        Semaphore inFlight = new Semaphore(capacity + workers);
+
+        IngestStageStats readStats = new IngestStageStats("read");
+        IngestStageStats convertStats = new IngestStageStats("convert");
+        IngestStageStats writeStats = new IngestStageStats("write");
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            futures.add(executor.submit(guarded(failure, () ->
+                    readBatches(csvReader, batchSize, workers, parsed, inFlight, readStats))));
+
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(guarded(failure, () ->
+                        convertBatches(header, parsed, converted, convertStats))));
+            }
+
+            writeInOrder(workers, converted, inFlight, failure, writer, writeStats);
+        } finally {
+            // Stops the other stages if the writer failed (or we were interrupted)
+            futures.forEach(f -> f.cancel(true));
+        }
+
+        return List.of(readStats, convertStats, writeStats);
+    }
+
+    // ----------------- stages -----------------
+
+    private void readBatches(CSVReader csvReader,
+                             int batchSize,
+                             int workers,
+                             BlockingQueue<Batch<String[]>> parsed,
+                             Semaphore inFlight,
+                             IngestStageStats stats) throws Exception {
+        long seq = 0;
+        String[] record;
+        List<String[]> records = new ArrayList<>(batchSize);
+        long started = System.nanoTime();
+
+        while ((record = csvReader.readNext()) != null) {
+            records.add(record);
+            if (records.size() == batchSize) {
+                stats.record(records.size(), System.nanoTime() - started);
+                inFlight.acquire();
+                parsed.put(new Batch<>(seq++, records));
+                records = new ArrayList<>(batchSize);
+                started = System.nanoTime();
+            }
+        }
+        if (!records.isEmpty()) {
+            stats.record(records.size(), System.nanoTime() - started);
+            inFlight.acquire();
+            parsed.put(new Batch<>(seq, records));
+        }
+
+        // One end marker per worker so every worker shuts down
+        for (int i = 0; i < workers; i++) {
+            parsed.put(Batch.end());
+        }
+    }
+
+    private void convertBatches(String[] header,
+                                BlockingQueue<Batch<String[]>> parsed,
+                                BlockingQueue<Batch<DataRow>> converted,
+                                IngestStageStats stats) throws InterruptedException {
+        while (true) {
+            Batch<String[]> batch = parsed.take();
+            if (batch.isEnd()) {
+                converted.put(Batch.end());
+                return;
+            }
+
+            long started = System.nanoTime();
+            List<DataRow> rows = convert(header, batch.items);
+            stats.record(rows.size(), System.nanoTime() - started);
+
+            converted.put(new Batch<>(batch.seq, rows));
+        }
+    }
+
+    // One batch of records into rows with their cells; runs on the worker threads
+    List<DataRow> convert(String[] header, List<String[]> records) {
+        List<DataRow> rows = new ArrayList<>(records.size());
+        for (String[] values : records) {
+            DataRow row = new DataRow();
+            for (int i = 0; i < header.length; i++) {
+                String value = (i < values.length) ? values[i] : "";
+                row.addCell(new DataCell(header[i], value, row));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Workers finish batches out of order; park early ones until their turn
+     * so row ids keep following the file order. Every written batch hands its
+     * permit back to the reader, which bounds {@code pending}.
+     */
+    private void writeInOrder(int workers,
+                              BlockingQueue<Batch<DataRow>> converted,
+                              Semaphore inFlight,
+                              AtomicReference<Throwable> failure,
+                              Consumer<List<DataRow>> writer,
+                              IngestStageStats stats) throws Exception {
+        Map<Long, List<DataRow>> pending = new HashMap<>();
+        long nextSeq = 0;
+        int finishedWorkers = 0;
+
+        while (finishedWorkers < workers) {
+            rethrow(failure.get());
+
+            Batch<DataRow> batch = converted.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (batch == null) {
+                continue;
+            }
+            if (batch.isEnd()) {
+                finishedWorkers++;
+                continue;
+            }
+
+            pending.put(batch.seq, batch.items);
+            List<DataRow> next;
+            while ((next = pending.remove(nextSeq)) != null) {
+                long started = System.nanoTime();
+                writer.accept(next);
+                stats.record(next.size(), System.nanoTime() - started);
+                inFlight.release();
+                nextSeq++;
+            }
+        }
+        rethrow(failure.get());
+    }
+
+    // ----------------- helpers -----------------
+
+    private static Runnable guarded(AtomicReference<Throwable> failure, StageTask task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (InterruptedException e) {
+                // Only happens on cancel/shutdown; make sure the writer stops waiting too
+                failure.compareAndSet(null, e);
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+        };
+    }
+
+    private static void rethrow(Throwable t) throws Exception {
+        if (t == null) {
+            return;
+        }
+        if (t instanceof Exception e) {
+            throw e;
+        }
+        throw (Error) t;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface StageTask {
+        void run() throws Exception;
+    }
+
+    private static final class Batch<T> {
+        private static final Batch<?> END = new Batch<>(-1, List.of());
+
+        final long seq;
+        final List<T> items;
+
+        Batch(long seq, List<T> items) {
+            this.seq = seq;
+            this.items = items;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> Batch<T> end() {
+            return (Batch<T>) END;
+        }
+
+        boolean isEnd() {
+            return this == END;
+        }
+    }
+
+    private static final class IngestThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "csv-ingest-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
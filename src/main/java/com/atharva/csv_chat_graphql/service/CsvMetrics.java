@@ -0,0 +1,109 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.StorageLayout;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the query engine and the import, exposed through
+ * Actuator (/actuator/metrics, /actuator/prometheus):
+ *
+ *   csv.query                  timer per kind (rows / page / aggregate) and route taken
+ *   csv.query.rows.returned    rows (or groups) a query answered with, same tags
+ *   csv.query.rows.scanned     rows a Java-side route walked to answer it (not
+ *                              recorded for SQL, the database does that work)
+ *   csv.import                 timer per layout, plus csv.import.rows / csv.import.bytes
+ *                              counters and rows/s, bytes/s summaries per import
+ *   csv.import.stage           busy time of each pipeline stage (read / convert / write / index)
+ *   graphql.request.sql.statements  SQL statements sent for one GraphQL request
+ *
+ * GraphQL requests and per-field data fetcher latency come from Spring
+ * GraphQL's own observations (graphql.request, graphql.datafetcher).
+ */
+@Component
+public class CsvMetrics {
+
+    private final MeterRegistry registry;
+
+    public CsvMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    // --------------------------------------------------------------------
+    // 🔹 Queries
+    // --------------------------------------------------------------------
+
+    /** One answered query: how long it took on which route and how many rows it returned. */
+    public void queryAnswered(String kind, QueryRoute route, long nanos, long rowsReturned) {
+        Timer.builder("csv.query")
+                .description("Questions answered, by kind and execution route")
+                .tags("kind", kind, "route", route.name())
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("csv.query.rows.returned")
+                .description("Rows (or groups) returned per query")
+                .baseUnit("rows")
+                .tags("kind", kind, "route", route.name())
+                .register(registry)
+                .record(rowsReturned);
+    }
+
+    /** Rows an in-memory, columnar or mapped route looked at for one query. */
+    public void rowsScanned(QueryRoute route, long rows) {
+        DistributionSummary.builder("csv.query.rows.scanned")
+                .description("Rows walked in Java per query")
+                .baseUnit("rows")
+                .tags("route", route.name())
+                .register(registry)
+                .record(rows);
+    }
+
+    /** SQL statements Hibernate sent while one GraphQL request executed. */
+    public void sqlStatements(long statements) {
+        DistributionSummary.builder("graphql.request.sql.statements")
+                .description("SQL statements per GraphQL request")
+                .register(registry)
+                .record(statements);
+    }
+
+    // --------------------------------------------------------------------
+    // 🔹 Import
+    // --------------------------------------------------------------------
+
+    /** One finished import of {@code bytes} bytes of CSV. */
+    public void imported(StorageLayout layout, CsvImportResult result, long bytes) {
+        String tag = layout.name();
+        Timer.builder("csv.import")
+                .description("CSV imports, by storage layout")
+                .tag("layout", tag)
+                .register(registry)
+                .record(result.getElapsedMillis(), TimeUnit.MILLISECONDS);
+        registry.counter("csv.import.rows", "layout", tag).increment(result.getRows());
+        registry.counter("csv.import.bytes", "layout", tag).increment(bytes);
+
+        DistributionSummary.builder("csv.import.rows.per.second")
+                .description("Rows per second of each import")
+                .tag("layout", tag)
+                .register(registry)
+                .record(result.getRowsPerSecond());
+        double seconds = Math.max(result.getElapsedMillis(), 1) / 1000.0;
+        DistributionSummary.builder("csv.import.bytes.per.second")
+                .description("CSV bytes per second of each import")
+                .baseUnit("bytes")
+                .tag("layout", tag)
+                .register(registry)
+                .record(bytes / seconds);
+
+        for (IngestStageStats stage : result.getStages()) {
+            Timer.builder("csv.import.stage")
+                    .description("Busy time of an ingest pipeline stage per import")
+                    .tags("layout", tag, "stage", stage.getStage())
+                    .register(registry)
+                    .record(stage.getBusyMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -1,43 +1,128 @@
 package com.nupur.csv_chat_graphql.service;
 
+import com.nupur.csv_chat_graphql.ColumnInfo;
 import com.nupur.csv_chat_graphql.DataCell;
 import com.nupur.csv_chat_graphql.DataRow;
-import com.nupur.csv_chat_graphql.repository.DataCellRepository;
-import com.nupur.csv_chat_graphql.repository.DataRowRepository;
+import com.nupur.csv_chat_graphql.StorageLayout;
+import com.nupur.csv_chat_graphql.columnar.ColumnarTableBuilder;
+import com.nupur.csv_chat_graphql.columnar.ColumnarTableStore;
+import com.nupur.csv_chat_graphql.config.CsvImportProperties;
+import com.nupur.csv_chat_graphql.mapped.MappedCsvStore;
+import com.nupur.csv_chat_graphql.mapped.MappedCsvTable;
+import com.nupur.csv_chat_graphql.repository.ColumnInfoRepository;
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvValidationException;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CancellationException;
 
 @Service
 public class CsvService {
 
-    private final DataRowRepository dataRowRepository;
-    private final DataCellRepository dataCellRepository;
+    private static final Logger log = LoggerFactory.getLogger(CsvService.class);
 
-    public CsvService(DataRowRepository dataRowRepository,
-                      DataCellRepository dataCellRepository) {
-        this.dataRowRepository = dataRowRepository;
-        this.dataCellRepository = dataCellRepository;
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private final EntityManager entityManager;
+    private final CsvIngestPipeline ingestPipeline;
+    private final ColumnarTableStore columnarTableStore;
+    private final ColumnInfoRepository columnInfoRepository;
+    private final QueryPlanCache planCache;
+    private final QueryResultCache resultCache;
+    private final DatasetGenerations generations;
+    private final GenerationCleaner generationCleaner;
+    private final CsvImportProperties importProperties;
+    private final MappedCsvStore mappedCsvStore;
+    private final CsvMetrics metrics;
+
+    public CsvService(EntityManager entityManager,
+                      CsvIngestPipeline ingestPipeline,
+                      ColumnarTableStore columnarTableStore,
+                      ColumnInfoRepository columnInfoRepository,
+                      QueryPlanCache planCache,
+                      QueryResultCache resultCache,
+                      DatasetGenerations generations,
+                      GenerationCleaner generationCleaner,
+                      CsvImportProperties importProperties,
+                      MappedCsvStore mappedCsvStore,
+                      CsvMetrics metrics) {
+        this.columnInfoRepository = columnInfoRepository;
+        this.planCache = planCache;
+        this.resultCache = resultCache;
+        this.generations = generations;
+        this.generationCleaner = generationCleaner;
+        this.importProperties = importProperties;
+        this.mappedCsvStore = mappedCsvStore;
+        this.entityManager = entityManager;
+        this.ingestPipeline = ingestPipeline;
+        this.columnarTableStore = columnarTableStore;
+        this.metrics = metrics;
     }
 
+    /**
+     * Streams the uploaded CSV into the database chunk by chunk, replacing the
+     * named dataset (other datasets are untouched).
+     *
+     * Reading and entity construction happen in {@link CsvIngestPipeline}.
+     * Rows and cells are persisted through the EntityManager so Hibernate can
+     * group them into JDBC batch INSERTs (see hibernate.jdbc.batch_size), and the
+     * persistence context is flushed + cleared after every chunk so heap usage
+     * stays bounded no matter how large the file is. With csv.import.layout=compact
+     * each row is written as one payload instead of one DataCell per value; with
+     * csv.import.layout=mapped the file is not loaded at all but kept on disk and
+     * indexed (see {@link MappedCsvStore}).
+     */
     @Transactional
-    public void importCsv(MultipartFile file) throws IOException, CsvValidationException {
+    public CsvImportResult importCsv(String dataset, MultipartFile file) throws IOException, CsvValidationException {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("Uploaded CSV file is empty");
         }
+        return importCsv(dataset, file.getInputStream(), ImportProgressListener.NONE);
+    }
+
+    /**
+     * Same import, reading from any stream (used by background {@link ImportJob}s).
+     * The listener is told about every written batch and can cancel the import,
+     * in which case the whole transaction is rolled back.
+     */
+    @Transactional
+    public CsvImportResult importCsv(String dataset, InputStream input, ImportProgressListener listener)
+            throws IOException, CsvValidationException {
+
+        long start = System.nanoTime();
+        String name = DatasetGenerations.checkName(dataset);
+        CountingInputStream counted = new CountingInputStream(input);
+        if (importProperties.getLayout() == StorageLayout.MAPPED) {
+            CsvImportResult result = importMapped(name, counted, listener, start);
+            metrics.imported(StorageLayout.MAPPED, result, counted.getCount());
+            return result;
+        }
+
+        // 🔥 IMPORTANT: each upload replaces the dataset, but nothing is deleted
+        // here. The rows go into a new generation that queries don't see until
+        // it is published after commit; the old one is dropped in the background.
+        long generation = generations.next();
+        StorageLayout layout = importProperties.getLayout();
 
-        // 🔥 IMPORTANT: Clear previous CSV data so each upload starts fresh
-        // Because DataRow has cascade = ALL + orphanRemoval, deleting rows
-        // will also delete the linked DataCell records.
-        dataRowRepository.deleteAll();
+        long[] counts = new long[2]; // rows, cells
+        List<IngestStageStats> stages;
 
-        try (Reader reader = new InputStreamReader(file.getInputStream());
+        try (Reader reader = new BufferedReader(
+                new InputStreamReader(counted, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
              CSVReader csvReader = new CSVReader(reader)) {
 
             String[] header = csvReader.readNext();
@@ -45,20 +130,123 @@ public class CsvService {
                 throw new IllegalArgumentException("CSV file has no header row.");
             }
 
-            String[] rowValues;
-            while ((rowValues = csvReader.readNext()) != null) {
-                // Create one DataRow per CSV row
-                DataRow row = new DataRow();
-                dataRowRepository.save(row);
-
-                for (int i = 0; i < header.length; i++) {
-                    String columnName = header[i];
-                    String value = (i < rowValues.length) ? rowValues[i] : "";
+            // Columnar copy (if enabled) is filled as batches are written
+            ColumnarTableBuilder columnar = columnarTableStore.newBuilder(header);
+            // Column types are inferred from every value on the way past
+            ColumnTypeInference typeInference = new ColumnTypeInference(header);
 
-                    DataCell cell = new DataCell(columnName, value, row);
-                    dataCellRepository.save(cell);
+            // Parsing and entity construction run on pipeline threads; this
+            // (transactional) thread only persists, one batch at a time.
+            stages = ingestPipeline.run(csvReader, header, rows -> {
+                if (listener.isCancelled()) {
+                    throw new CancellationException("CSV import cancelled");
                 }
+                for (DataRow row : rows) {
+                    List<DataCell> cells = row.getCells();
+                    row.setDatasetGeneration(name, generation);
+                    if (layout == StorageLayout.COMPACT) {
+                        row.compact();
+                    } else {
+                        for (DataCell cell : cells) {
+                            cell.setGeneration(generation);
+                        }
+                    }
+                    // cascade = ALL persists the row's cells as well (none when compact)
+                    entityManager.persist(row);
+                    counts[1] += cells.size();
+                    typeInference.observe(cells);
+                    if (columnar != null) {
+                        columnar.addRow(row.getId(), cells);
+                    }
+                }
+                counts[0] += rows.size();
+
+                // End of batch → push it to the DB and drop managed entities
+                entityManager.flush();
+                entityManager.clear();
+                listener.onRowsWritten(counts[0]);
+            });
+
+            List<ColumnInfo> columns = typeInference.result();
+            for (ColumnInfo column : columns) {
+                column.setDatasetGeneration(name, generation);
+                column.setLayout(layout);
             }
+            columnInfoRepository.saveAll(columns);
+
+            publishAfterCommit(name, generation, columnar, columns);
+        } catch (IOException | CsvValidationException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("CSV import failed: " + e.getMessage(), e);
         }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        CsvImportResult result = new CsvImportResult(counts[0], counts[1], elapsedMillis, stages);
+        log.info("CSV import into '{}' ({} layout) finished: {}", name, layout, result);
+        metrics.imported(layout, result, counted.getCount());
+        return result;
+    }
+
+    /**
+     * Mapped import: the file is saved and indexed by {@link MappedCsvStore}
+     * (one scan, no database writes) and replaces the dataset right away. A
+     * database copy of the dataset from an earlier import is dropped.
+     */
+    private CsvImportResult importMapped(String dataset, InputStream input, ImportProgressListener listener,
+                                         long start) throws IOException {
+        IngestStageStats stats = new IngestStageStats("index");
+        MappedCsvTable table = mappedCsvStore.importFile(dataset, input, rows -> {
+            if (listener.isCancelled()) {
+                throw new CancellationException("CSV import cancelled");
+            }
+            listener.onRowsWritten(rows);
+        });
+        long elapsedNanos = System.nanoTime() - start;
+        stats.record(table.getRowCount(), elapsedNanos);
+
+        columnarTableStore.clear(dataset);
+        planCache.datasetReplaced(dataset);
+        resultCache.datasetReplaced(dataset);
+        generationCleaner.drop(generations.remove(dataset));
+
+        long cells = (long) table.getRowCount() * table.getColumns().size();
+        CsvImportResult result = new CsvImportResult(table.getRowCount(), cells, elapsedNanos / 1_000_000,
+                List.of(stats));
+        log.info("CSV import into '{}' ({} layout) finished: {}", dataset, StorageLayout.MAPPED, result);
+        return result;
+    }
+
+    /**
+     * Once the rows are committed: switch the dataset's queries to the new
+     * generation, swap in its columnar table (if any) so the columnar and JPA
+     * views never disagree, drop the dataset's query plans (planned with the
+     * old statistics) and move the result cache to the new dataset version. The old generation is
+     * dropped later. An older import that commits after a newer one of the same
+     * dataset has been published is discarded instead.
+     */
+    private void publishAfterCommit(String dataset, long generation, ColumnarTableBuilder columnar,
+                                    List<ColumnInfo> columns) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long obsolete = generations.publish(dataset, generation);
+                if (obsolete == generation) {
+                    log.warn("Import of '{}' generation {} finished after a newer one, discarding it",
+                            dataset, generation);
+                    generationCleaner.drop(generation);
+                    return;
+                }
+                mappedCsvStore.remove(dataset); // replaces a mapped copy, if there was one
+                if (columnar != null) {
+                    columnarTableStore.publish(dataset, columnar.build());
+                } else {
+                    columnarTableStore.clear(dataset);
+                }
+                planCache.datasetReplaced(dataset);
+                resultCache.datasetReplaced(dataset);
+                generationCleaner.drop(obsolete);
+            }
+        });
     }
-}
\ No newline at end of file
+}
@@ -1,191 +1,996 @@
 package com.nupur.csv_chat_graphql.service;
 
+import com.nupur.csv_chat_graphql.ColumnInfo;
 import com.nupur.csv_chat_graphql.DataCell;
 import com.nupur.csv_chat_graphql.DataRow;
 import com.nupur.csv_chat_graphql.QDataRow;
 import com.nupur.csv_chat_graphql.QDataCell;
+import com.nupur.csv_chat_graphql.columnar.Column;
+import com.nupur.csv_chat_graphql.columnar.ColumnFilter;
+import com.nupur.csv_chat_graphql.columnar.ColumnarTable;
+import com.nupur.csv_chat_graphql.columnar.ColumnarTableStore;
+import com.nupur.csv_chat_graphql.config.CsvQueryProperties;
+import com.nupur.csv_chat_graphql.mapped.MappedColumn;
+import com.nupur.csv_chat_graphql.mapped.MappedCsvStore;
+import com.nupur.csv_chat_graphql.mapped.MappedCsvTable;
+import com.nupur.csv_chat_graphql.repository.ColumnInfoRepository;
 import com.nupur.csv_chat_graphql.repository.DataRowRepository;
+import com.querydsl.core.Tuple;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.IntToLongFunction;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 @Service
 public class DataRowQueryService {
 
+    // Rows per page when the in-memory path walks the table (fewer when a page of matches is near)
+    private static final int SCAN_PAGE_SIZE = 1000;
+    private static final int MIN_SCAN_PAGE_SIZE = 64;
+    // Row ids per cell query (and JDBC fetch size) when rows are streamed from the database
+    private static final int STREAM_BATCH_SIZE = 1000;
+
     private final DataRowRepository repository;
+    private final ColumnInfoRepository columnInfoRepository;
+    private final ColumnarTableStore columnarTableStore;
+    private final QuerydslQueryCompiler queryCompiler;
+    private final EntityManager entityManager;
+    private final CsvQueryProperties queryProperties;
+    private final QueryResultCache resultCache;
+    private final DatasetGenerations generations;
+    private final GenerationCleaner generationCleaner;
+    private final ColumnDictionaries dictionaries;
+    private final MappedCsvStore mappedCsvStore;
+    private final ColumnStatisticsStore statisticsStore;
+    private final CsvMetrics metrics;
 
     // QueryDSL factory (already configured via QuerydslConfig)
     @Autowired
     private JPAQueryFactory queryFactory;
 
-    public DataRowQueryService(DataRowRepository repository) {
+    public DataRowQueryService(DataRowRepository repository,
+                               ColumnInfoRepository columnInfoRepository,
+                               ColumnarTableStore columnarTableStore,
+                               QuerydslQueryCompiler queryCompiler,
+                               EntityManager entityManager,
+                               CsvQueryProperties queryProperties,
+                               QueryResultCache resultCache,
+                               DatasetGenerations generations,
+                               GenerationCleaner generationCleaner,
+                               ColumnDictionaries dictionaries,
+                               MappedCsvStore mappedCsvStore,
+                               ColumnStatisticsStore statisticsStore,
+                               CsvMetrics metrics) {
         this.repository = repository;
+        this.columnInfoRepository = columnInfoRepository;
+        this.columnarTableStore = columnarTableStore;
+        this.queryCompiler = queryCompiler;
+        this.entityManager = entityManager;
+        this.queryProperties = queryProperties;
+        this.resultCache = resultCache;
+        this.generations = generations;
+        this.generationCleaner = generationCleaner;
+        this.dictionaries = dictionaries;
+        this.mappedCsvStore = mappedCsvStore;
+        this.statisticsStore = statisticsStore;
+        this.metrics = metrics;
+    }
+
+    /** Names of all datasets, in the database or mapped. */
+    public List<String> datasetNames() {
+        TreeSet<String> names = new TreeSet<>(generations.names());
+        names.addAll(mappedCsvStore.names());
+        return List.copyOf(names);
+    }
+
+    /** Columns of the dataset's current CSV with their inferred types, in header order. */
+    public List<ColumnInfo> findColumns(String dataset) {
+        Optional<MappedCsvTable> mapped = mappedCsvStore.current(dataset);
+        if (mapped.isPresent()) {
+            return mapped.get().columnInfo(dataset);
+        }
+        return columnInfoRepository.findAllByGenerationOrderByPositionAsc(generations.current(dataset));
     }
 
-    public List<DataRow> findAllRows() {
-        return repository.findAll();
+    /** Statistics of a column of the dataset's current CSV, null when there are none. */
+    public ColumnStatistics columnStatistics(String dataset, String column) {
+        return statisticsStore.current(dataset).column(column);
+    }
+
+    /** Cells of a compact row, decoded with its generation's column names. */
+    public List<DataCell> compactCells(DataRow row) {
+        return dictionaries.forGeneration(row.getGeneration()).cells(row);
     }
 
     /**
-     * Basic equality filter: where columnName = value (case-insensitive).
-     * Current implementation: in-memory filtering over repository.findAll().
+     * Cells of many rows in ONE {@code IN (...)} query, grouped by row id
+     * (used by the GraphQL batch loader for DataRow.cells).
      */
-    public List<DataRow> findRowsByColumnValue(String columnName, String value) {
-        String col = columnName.toLowerCase(Locale.ROOT);
-        String val = value.toLowerCase(Locale.ROOT);
+    public Map<Long, List<DataCell>> findCellsByRowIds(Collection<Long> rowIds) {
+        if (rowIds.isEmpty()) {
+            return Map.of();
+        }
+        QDataCell cell = QDataCell.dataCell;
+
+        Map<Long, List<DataCell>> cellsByRow = new HashMap<>();
+        queryFactory
+                .selectFrom(cell)
+                .where(cell.row.id.in(rowIds))
+                .orderBy(cell.row.id.asc(), cell.id.asc())
+                .fetch()
+                .forEach(c -> cellsByRow.computeIfAbsent(c.getRow().getId(), id -> new ArrayList<>()).add(c));
+        return cellsByRow;
+    }
 
-        return repository.findAll()
-                .stream()
-                .filter(row -> row.getCells() != null &&
-                        row.getCells().stream().anyMatch(cell ->
-                                cell.getColumnName() != null &&
-                                        cell.getCellValue() != null &&
-                                        cell.getColumnName().equalsIgnoreCase(col) &&
-                                        cell.getCellValue().equalsIgnoreCase(val)))
-                .collect(Collectors.toList());
+    /**
+     * Runs a whole parsed question (conditions + ORDER BY + TOP N) in one go:
+     * from the columnar table when it is loaded, otherwise as a single SQL
+     * query compiled by {@link QuerydslQueryCompiler} (or in memory on the
+     * {@link QueryRoute#JAVA} route, or by scanning a mapped CSV).
+     */
+    public List<DataRow> findRows(String dataset, ParsedQuery query) {
+        PlannedQuery plan = plan(dataset, query);
+        return findRows(dataset, plan.getQuery(), plan.getRoute());
     }
 
     /**
-     * Same "columnName = value" filter implemented using QueryDSL.
-     * Generates a JOIN + WHERE at SQL level.
+     * Same, on a route chosen earlier (e.g. a cached {@link PlannedQuery}). A
+     * scan that was picked to fill one page is costed again for the whole
+     * answer, which it would have to read every row for.
      */
-    public List<DataRow> findRowsByColumnValueUsingQuerydsl(String columnName, String value) {
-        if (columnName == null || value == null) {
-            return List.of();
+    public List<DataRow> findRows(String dataset, ParsedQuery query, QueryRoute route) {
+        QueryRoute answered = wholeAnswerRoute(dataset, query, route);
+        long start = System.nanoTime();
+        List<DataRow> rows = fetchRows(dataset, query, answered);
+        metrics.queryAnswered("rows", answered, System.nanoTime() - start, rows.size());
+        return rows;
+    }
+
+    private List<DataRow> fetchRows(String dataset, ParsedQuery query, QueryRoute route) {
+        Optional<MappedCsvTable> mapped = mappedFor(dataset, route);
+        if (mapped.isPresent()) {
+            MappedCsvTable table = mapped.get();
+            return table.toDataRows(orderMapped(table, query, query.hasLimit() ? query.getLimit() : -1));
+        }
+        Optional<ColumnarTable> columnar = columnarFor(dataset, route);
+        if (columnar.isPresent()) {
+            ColumnarTable table = columnar.get();
+            return table.toDataRows(orderColumnar(table, query, query.hasLimit() ? query.getLimit() : -1));
+        }
+        if (route == QueryRoute.JAVA) {
+            return filterInMemory(dataset, query);
         }
+        return fetchUsingQuerydsl(dataset, query);
+    }
 
-        String col = columnName.trim();
-        String val = value.trim();
-        if (col.isEmpty() || val.isEmpty()) {
-            return List.of();
+    /**
+     * Page size for a connection's "first" argument: the default when absent,
+     * capped at csv.query.max-page-size.
+     */
+    public int pageSize(Integer first) {
+        if (first == null) {
+            return queryProperties.getDefaultPageSize();
         }
+        if (first < 0) {
+            throw new IllegalArgumentException("first must not be negative");
+        }
+        return Math.min(first, queryProperties.getMaxPageSize());
+    }
 
-        QDataRow row = QDataRow.dataRow;
-        QDataCell cell = QDataCell.dataCell;
+    /**
+     * One page of a parsed question for the GraphQL connections: at most
+     * {@code first} rows after {@code after} (null = first page), honouring
+     * TOP N across pages. SQL pages are keyset queries (no OFFSET); the
+     * columnar table slices its sorted selection after the cursor row, and an
+     * unsorted scan of a mapped CSV resumes right after it.
+     */
+    public RowPage findPage(String dataset, ParsedQuery query, RowCursor after, int first) {
+        PlannedQuery plan = plan(dataset, query);
+        return findPage(dataset, plan.getQuery(), plan.getRoute(), after, first);
+    }
+
+    public RowPage findPage(String dataset, ParsedQuery query, QueryRoute route, RowCursor after, int first) {
+        long start = System.nanoTime();
+        RowPage page = fetchPage(dataset, query, route, after, first);
+        metrics.queryAnswered("page", route, System.nanoTime() - start, page.getRows().size());
+        return page;
+    }
+
+    private RowPage fetchPage(String dataset, ParsedQuery query, QueryRoute route, RowCursor after, int first) {
+        int seen = after == null ? 0 : after.getSeen();
+        int size = first;
+        if (query.hasLimit()) {
+            size = Math.min(size, query.getLimit() - seen);
+        }
+        if (size <= 0) {
+            return new RowPage(List.of(), List.of(), false, after != null);
+        }
+        // Rows ranked by the in-memory routes: every row up to the end of this page (and
+        // one more to tell whether there is a next page), no more
+        int window = seen + size + 1;
+        if (route == QueryRoute.JAVA && query.hasSort()) {
+            return slicePage(filterInMemory(dataset, query, window), query.getSortColumn(), after, size);
+        }
+
+        List<DataRow> rows = new ArrayList<>(size);
+        List<String> sortValues = new ArrayList<>(size);
+        boolean more;
+
+        Optional<MappedCsvTable> mapped = mappedFor(dataset, route);
+        Optional<ColumnarTable> columnar = columnarFor(dataset, route);
+        if (route == QueryRoute.JAVA) {
+            // unsorted: the scan resumes right after the cursor row and stops at the page's last match
+            List<DataRow> matching = firstMatches(dataset, query, after == null ? Long.MIN_VALUE : after.getRowId(),
+                    size + 1);
+            more = matching.size() > size;
+            for (DataRow row : matching.subList(0, Math.min(size, matching.size()))) {
+                rows.add(row);
+                sortValues.add(null);
+            }
+        } else if (mapped.isPresent() && !query.hasSort()) {
+            // row id = position + 1, so the scan resumes at the cursor's id
+            MappedCsvTable table = mapped.get();
+            int from = after == null ? 0 : (int) Math.min(after.getRowId(), Integer.MAX_VALUE);
+            int[] matching = table.filter(query.getConditions(), from, size + 1);
+            mappedScanned(table, from, matching, size + 1);
+            more = matching.length > size;
+            for (int i = 0; i < Math.min(size, matching.length); i++) {
+                rows.add(table.toDataRow(matching[i]));
+                sortValues.add(null);
+            }
+        } else if (mapped.isPresent()) {
+            MappedCsvTable table = mapped.get();
+            int[] ordered = orderMapped(table, query, window);
+            int start = after == null ? 0 : positionAfter(ordered, table::rowIdAt, after.getRowId());
+            int end = Math.min(ordered.length, start + size);
+            MappedColumn sortColumn = table.column(query.getSortColumn());
+            for (int i = start; i < end; i++) {
+                rows.add(table.toDataRow(ordered[i]));
+                sortValues.add(sortColumn == null ? null : table.valueAt(ordered[i], sortColumn));
+            }
+            more = end < ordered.length;
+        } else if (columnar.isPresent()) {
+            ColumnarTable table = columnar.get();
+            int[] ordered = orderColumnar(table, query, window);
+            int start = after == null ? 0 : positionAfter(ordered, table::rowIdAt, after.getRowId());
+            int end = Math.min(ordered.length, start + size);
+            Column sortColumn = query.hasSort() ? table.column(query.getSortColumn()) : null;
+            for (int i = start; i < end; i++) {
+                rows.add(table.toDataRow(ordered[i]));
+                sortValues.add(sortColumn == null ? null : sortColumn.valueAt(ordered[i]));
+            }
+            more = end < ordered.length;
+        } else {
+            // one extra row tells whether there is a next page
+            List<Tuple> tuples = queryCompiler.compilePage(query, generations.current(dataset), after, size + 1).fetch();
+            more = tuples.size() > size;
+            for (Tuple t : tuples.subList(0, Math.min(size, tuples.size()))) {
+                rows.add(t.get(0, DataRow.class));
+                sortValues.add(t.get(1, String.class));
+            }
+        }
+
+        return toPage(rows, sortValues, seen, more && !(query.hasLimit() && seen + rows.size() >= query.getLimit()),
+                after != null);
+    }
+
+    /**
+     * One page of "column = value" (rowsByColumnValue), from the result cache
+     * when the same page of the current dataset was asked for before.
+     */
+    public RowPage findPageByColumnValue(String dataset, String column, String value, RowCursor after, int first) {
+        ParsedQuery query = new ParsedQuery(
+                List.of(new QueryCondition(DataCell.normalize(column), DataCell.normalize(value))), null, false, null);
+        return resultCache.page(dataset, columnValueKey(column, value), after, first,
+                () -> findPage(dataset, query, after, first), this::detached);
+    }
+
+    /**
+     * Same as {@link #findPage} over rows that are already filtered and sorted
+     * in memory (the csv.query.pushdown=false path).
+     */
+    public RowPage slicePage(List<DataRow> ordered, String sortColumn, RowCursor after, int first) {
+        int start = 0;
+        if (after != null) {
+            start = ordered.size();
+            for (int i = 0; i < ordered.size(); i++) {
+                if (ordered.get(i).getId() == after.getRowId()) {
+                    start = i + 1;
+                    break;
+                }
+            }
+        }
+        int end = Math.min(ordered.size(), start + Math.max(0, first));
 
-        return queryFactory
-                .selectDistinct(row)
-                .from(row)
-                .join(row.cells, cell)
-                .where(
-                        cell.columnName.equalsIgnoreCase(col)
-                                .and(cell.cellValue.equalsIgnoreCase(val))
-                )
-                .fetch();
+        List<DataRow> rows = ordered.subList(start, end);
+        List<String> sortValues = new ArrayList<>(rows.size());
+        for (DataRow row : rows) {
+            sortValues.add(sortColumn == null ? null : cellValue(row, sortColumn));
+        }
+        return toPage(rows, sortValues, after == null ? 0 : after.getSeen(), end < ordered.size(), after != null);
     }
 
     /**
-     * AND query: (col1 = val1) AND (col2 = val2).
-     * Still using in-memory filtering for now.
+     * Detached copies of the rows with their cells in memory (one IN query for
+     * all rows whose cells are still lazy, compact rows decoded), so results can
+     * be cached and shared between requests; the GraphQL batch loader then skips them.
      */
-    public List<DataRow> findRowsByTwoColumns(String column1, String value1,
-                                              String column2, String value2) {
+    public List<DataRow> detached(List<DataRow> rows) {
+        List<Long> lazy = new ArrayList<>();
+        boolean compact = false;
+        for (DataRow row : rows) {
+            if (row.isCompact()) {
+                compact = true;
+            } else if (!Hibernate.isInitialized(row.getCells())) {
+                lazy.add(row.getId());
+            }
+        }
+        if (lazy.isEmpty() && !compact) {
+            return List.copyOf(rows);
+        }
+        Map<Long, List<DataCell>> cells = findCellsByRowIds(lazy);
+
+        List<DataRow> copies = new ArrayList<>(rows.size());
+        for (DataRow row : rows) {
+            if (row.isCompact()) {
+                copies.add(dictionaries.forGeneration(row.getGeneration()).expand(row));
+                continue;
+            }
+            if (Hibernate.isInitialized(row.getCells())) {
+                copies.add(row);
+                continue;
+            }
+            DataRow copy = new DataRow(row.getId());
+            for (DataCell cell : cells.getOrDefault(row.getId(), List.of())) {
+                copy.addCell(new DataCell(cell.getColumnName(), cell.getCellValue(), copy));
+            }
+            copies.add(copy);
+        }
+        return copies;
+    }
 
-        String col1 = column1.toLowerCase(Locale.ROOT);
-        String val1 = value1.toLowerCase(Locale.ROOT);
-        String col2 = column2.toLowerCase(Locale.ROOT);
-        String val2 = value2.toLowerCase(Locale.ROOT);
+    public RowPage detached(RowPage page) {
+        return new RowPage(detached(page.getRows()), page.getCursors(), page.hasNextPage(), page.hasPreviousPage());
+    }
+
+    private static RowPage toPage(List<DataRow> rows, List<String> sortValues, int seen,
+                                  boolean hasNext, boolean hasPrevious) {
+        List<RowCursor> cursors = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            cursors.add(new RowCursor(rows.get(i).getId(), sortValues.get(i), seen + i + 1));
+        }
+        return new RowPage(rows, cursors, hasNext, hasPrevious);
+    }
+
+    /**
+     * Aggregate question as one SQL GROUP BY query (in the database, only the
+     * groups travel back); compact and mapped datasets have no cells to group,
+     * so their rows are aggregated in memory instead.
+     */
+    public List<AggregateRow> aggregate(String dataset, AggregateQuery query) {
+        long start = System.nanoTime();
+        ParsedQuery filter = statisticsStore.current(dataset).bySelectivity(query.getFilter());
+        if (filter != query.getFilter()) {
+            query = new AggregateQuery(query.getFunction(), query.getColumn(), query.getGroupBy(), filter);
+        }
+        QueryRoute route = mappedCsvStore.current(dataset).isPresent() ? QueryRoute.MAPPED
+                : dictionaries.current(dataset).isCompact() ? QueryRoute.JAVA : QueryRoute.SQL;
+        List<AggregateRow> rows = route == QueryRoute.SQL ? aggregateInSql(dataset, query)
+                : aggregateInMemory(dataset, query);
+        metrics.queryAnswered("aggregate", route, System.nanoTime() - start, rows.size());
+        return rows;
+    }
 
-        return repository.findAll()
-                .stream()
-                .filter(row -> matches(row, col1, val1) && matches(row, col2, val2))
-                .collect(Collectors.toList());
+    private List<AggregateRow> aggregateInSql(String dataset, AggregateQuery query) {
+        List<AggregateRow> rows = new ArrayList<>();
+        for (Tuple t : queryCompiler.compileAggregate(query, generations.current(dataset)).fetch()) {
+            Number value = t.get(1, Number.class);
+            Long count = t.get(2, Long.class);
+            rows.add(new AggregateRow(t.get(0, String.class),
+                    value == null ? null : value.doubleValue(),
+                    count == null ? 0 : count));
+        }
+        return rows;
     }
 
-    private boolean matches(DataRow row, String col, String val) {
-        if (row.getCells() == null) return false;
+    /**
+     * Plans a parsed question: its conditions most selective first (by the
+     * dataset's column statistics, see {@link DatasetStatistics#bySelectivity}),
+     * the route for it and the estimated size of the answer.
+     */
+    public PlannedQuery plan(String dataset, ParsedQuery query) {
+        DatasetStatistics statistics = statisticsStore.current(dataset);
+        ParsedQuery ordered = statistics.bySelectivity(query);
+        return new PlannedQuery(ordered, routeFor(dataset, ordered, statistics), statistics.estimatedRows(ordered));
+    }
 
-        return row.getCells().stream().anyMatch(cell ->
-                cell.getColumnName() != null &&
-                        cell.getCellValue() != null &&
-                        cell.getColumnName().equalsIgnoreCase(col) &&
-                        cell.getCellValue().equalsIgnoreCase(val)
-        );
+    public QueryRoute routeFor(String dataset, ParsedQuery query) {
+        return routeFor(dataset, query, statisticsStore.current(dataset));
     }
 
     /**
-     * Filter by column = value, then sort by another column, then limit.
-     * Used for: "show top N rows where ... order by ... asc/desc"
+     * A mapped dataset is always scanned in place (it has nothing in the
+     * database). Otherwise Java-side evaluation when push-down is off; the
+     * columnar table when it is loaded and can answer the question (equality
+     * filters only), else SQL - or Java again for a compact dataset, which has
+     * no cells to query. Java too for a question without ORDER BY that the
+     * statistics say matches many rows: walking the rows in id order then finds
+     * a page after a few of them, where SQL first collects every matching id
+     * (see {@link #scanIsCheaper}).
      */
-    public List<DataRow> findRowsByColumnValueSortedLimited(
-            String filterColumn,
-            String filterValue,
-            String orderByColumn,
-            boolean descending,
-            int limit
-    ) {
-        String filterCol = filterColumn.toLowerCase(Locale.ROOT);
-        String filterVal = filterValue.toLowerCase(Locale.ROOT);
-        String orderCol = orderByColumn.toLowerCase(Locale.ROOT);
+    private QueryRoute routeFor(String dataset, ParsedQuery query, DatasetStatistics statistics) {
+        if (mappedCsvStore.current(dataset).isPresent()) {
+            return QueryRoute.MAPPED;
+        }
+        if (!queryProperties.isPushdown()) {
+            return QueryRoute.JAVA;
+        }
+        boolean equalityOnly = query.getConditions().stream().allMatch(QueryCondition::isEquality);
+        if (equalityOnly && columnarTableStore.current(dataset).isPresent()) {
+            return QueryRoute.COLUMNAR;
+        }
+        if (dictionaries.current(dataset).isCompact()) {
+            return QueryRoute.JAVA;
+        }
+        int wanted = (query.hasLimit() ? Math.min(query.getLimit(), queryProperties.getDefaultPageSize())
+                : queryProperties.getDefaultPageSize()) + 1;
+        return scanIsCheaper(query, statistics, wanted) ? QueryRoute.JAVA : QueryRoute.SQL;
+    }
+
+    // The route for every row of the answer at once: a JAVA route the cost model picked for a page
+    // stays only if the scan also wins for the TOP N (or, without one, for all the matches)
+    private QueryRoute wholeAnswerRoute(String dataset, ParsedQuery query, QueryRoute route) {
+        if (route != QueryRoute.JAVA || !queryProperties.isPushdown() || dictionaries.current(dataset).isCompact()) {
+            return route;
+        }
+        long wanted = query.hasLimit() ? query.getLimit() : Long.MAX_VALUE;
+        return scanIsCheaper(query, statisticsStore.current(dataset), wanted) ? QueryRoute.JAVA : QueryRoute.SQL;
+    }
+
+    // Rows a scan reads to find the first `wanted` matches, each costing csv.query.scan-row-cost,
+    // against the matching ids SQL collects before it can return the first of them
+    private boolean scanIsCheaper(ParsedQuery query, DatasetStatistics statistics, long wanted) {
+        double rowCost = queryProperties.getScanRowCost();
+        if (rowCost <= 0 || query.hasSort() || query.getConditions().isEmpty() || !statistics.isKnown()) {
+            return false;
+        }
+        double selectivity = statistics.selectivity(query.getConditions());
+        double scanned = Math.min(statistics.rows(), wanted / Math.max(selectivity, 1e-9));
+        return scanned * rowCost < selectivity * statistics.rows();
+    }
+
+    // The columnar table for a COLUMNAR route; empty (→ SQL) if it has been dropped since
+    private Optional<ColumnarTable> columnarFor(String dataset, QueryRoute route) {
+        return route == QueryRoute.COLUMNAR ? columnarTableStore.current(dataset) : Optional.empty();
+    }
+
+    // The mapped table for a MAPPED route; empty if the dataset has been re-imported since
+    private Optional<MappedCsvTable> mappedFor(String dataset, QueryRoute route) {
+        return route == QueryRoute.MAPPED ? mappedCsvStore.current(dataset) : Optional.empty();
+    }
+
+    private int[] orderMapped(MappedCsvTable table, ParsedQuery query, int limit) {
+        if (!query.hasSort()) {
+            int[] matching = table.filter(query.getConditions(), 0, limit);
+            mappedScanned(table, 0, matching, limit);
+            return matching;
+        }
+        int[] matching = table.filter(query.getConditions(), 0, -1, queryProperties.getParallelThreshold());
+        mappedScanned(table, 0, matching, -1);
+        return table.orderBy(matching, query.getSortColumn(), query.isDescending(), limit,
+                queryProperties.getParallelThreshold());
+    }
+
+    private int[] orderColumnar(ColumnarTable table, ParsedQuery query, int limit) {
+        List<ColumnFilter> filters = query.getConditions().stream()
+                .map(c -> new ColumnFilter(c.getColumn(), c.getValue()))
+                .toList();
+        int[] matching = table.filter(filters);
+        metrics.rowsScanned(QueryRoute.COLUMNAR, table.getRowCount());
+        return query.hasSort()
+                ? table.orderBy(matching, query.getSortColumn(), query.isDescending(), limit,
+                        queryProperties.getParallelThreshold())
+                : table.orderBy(matching, null, false, limit);
+    }
+
+    // Rows of the mapped table a filter from `from` covered: up to the last match once it had
+    // `limit` of them, else all the rest (zones it skipped included)
+    private void mappedScanned(MappedCsvTable table, int from, int[] matching, int limit) {
+        boolean stoppedEarly = limit >= 0 && matching.length >= limit && matching.length > 0;
+        int end = stoppedEarly ? matching[matching.length - 1] + 1 : table.getRowCount();
+        metrics.rowsScanned(QueryRoute.MAPPED, Math.max(0, end - from));
+    }
+
+    // Index just past the cursor row; the end when the row is gone (table replaced)
+    private static int positionAfter(int[] ordered, IntToLongFunction rowIdAt, long rowId) {
+        for (int i = 0; i < ordered.length; i++) {
+            if (rowIdAt.applyAsLong(ordered[i]) == rowId) {
+                return i + 1;
+            }
+        }
+        return ordered.length;
+    }
+
+    private static String cellValue(DataRow row, String column) {
+        for (DataCell cell : row.getCells()) {
+            if (cell.getColumnName() != null && cell.getColumnName().equalsIgnoreCase(column)) {
+                return cell.getCellValue();
+            }
+        }
+        return null;
+    }
 
+    /**
+     * Always SQL, even when the columnar table is loaded (a mapped dataset has
+     * no SQL copy, so it is scanned instead).
+     */
+    public List<DataRow> fetchUsingQuerydsl(String dataset, ParsedQuery query) {
+        Optional<MappedCsvTable> mapped = mappedCsvStore.current(dataset);
+        if (mapped.isPresent()) {
+            return findRows(dataset, query, QueryRoute.MAPPED);
+        }
+        return queryCompiler.compile(query, generations.current(dataset)).fetch();
+    }
+
+    /**
+     * Walks the whole table in id order, {@code pageSize} rows at a time (cells
+     * fetched with them), for evaluation paths that cannot be pushed down to SQL.
+     * Each page is detached after the consumer returns, so only the rows the
+     * consumer keeps stay on the heap. Compact rows arrive expanded, mapped
+     * ones decoded from the file.
+     */
+    public void scanRows(String dataset, int pageSize, Consumer<List<DataRow>> consumer) {
+        scanRows(dataset, pageSize, false, consumer);
+    }
+
+    /**
+     * Same; with {@code parallel} each page's compact payloads (or mapped
+     * records) are decoded on the fork-join pool, keeping the page in id order.
+     */
+    public void scanRows(String dataset, int pageSize, boolean parallel, Consumer<List<DataRow>> consumer) {
+        scanRows(dataset, pageSize, parallel, Long.MIN_VALUE, page -> {
+            consumer.accept(page);
+            return true;
+        });
+    }
+
+    // Same, from the first row after `afterId`, until `consumer` returns false
+    private void scanRows(String dataset, int pageSize, boolean parallel, long afterId,
+                          Predicate<List<DataRow>> consumer) {
+        Optional<MappedCsvTable> mapped = mappedCsvStore.current(dataset);
+        if (mapped.isPresent()) {
+            // row id = position + 1
+            MappedCsvTable table = mapped.get();
+            for (int from = (int) Math.max(0, Math.min(afterId, table.getRowCount())); from < table.getRowCount();
+                 from += pageSize) {
+                int to = Math.min(table.getRowCount(), from + pageSize);
+                if (!consumer.test(parallel
+                        ? IntStream.range(from, to).parallel().mapToObj(table::toDataRow).toList()
+                        : table.toDataRows(from, to))) {
+                    return;
+                }
+            }
+            return;
+        }
+        scanGeneration(generations.current(dataset), pageSize, parallel, afterId, consumer);
+    }
+
+    // Same over one database generation (e.g. one pinned by an export)
+    private void scanGeneration(long generation, int pageSize, boolean parallel, long afterId,
+                                Predicate<List<DataRow>> consumer) {
+        QDataRow row = QDataRow.dataRow;
+        QDataCell cell = QDataCell.dataCell;
+        ColumnDictionary dictionary = dictionaries.forGeneration(generation);
+        long lastId = afterId;
+
+        while (dictionary.isCompact()) {
+            // the payload comes with the row, no cells to join
+            List<DataRow> page = queryFactory
+                    .selectFrom(row)
+                    .where(row.generation.eq(generation), row.id.gt(lastId))
+                    .orderBy(row.id.asc())
+                    .limit(pageSize)
+                    .fetch();
+            if (page.isEmpty()) {
+                return;
+            }
+            boolean more = consumer.test(parallel
+                    ? page.parallelStream().map(dictionary::expand).toList()
+                    : dictionary.expand(page));
+            entityManager.clear();
+            if (!more) {
+                return;
+            }
+            lastId = page.get(page.size() - 1).getId();
+        }
+
+        while (true) {
+            // keyset page of ids first, so the collection fetch join isn't paginated
+            List<Long> ids = queryFactory
+                    .select(row.id)
+                    .from(row)
+                    .where(row.generation.eq(generation), row.id.gt(lastId))
+                    .orderBy(row.id.asc())
+                    .limit(pageSize)
+                    .fetch();
+            if (ids.isEmpty()) {
+                return;
+            }
+
+            List<DataRow> page = queryFactory
+                    .selectDistinct(row)
+                    .from(row)
+                    .leftJoin(row.cells, cell).fetchJoin()
+                    .where(row.id.in(ids))
+                    .orderBy(row.id.asc())
+                    .fetch();
+
+            boolean more = consumer.test(new ArrayList<>(page));
+            entityManager.clear();
+            if (!more) {
+                return;
+            }
+            lastId = ids.get(ids.size() - 1);
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // 🔹 Streaming (export): the answer handed over one row at a time, never
+    //    collected into a list
+    // --------------------------------------------------------------------
+
+    /**
+     * Every row answering the question, in the order {@link #findRows} would
+     * return them, passed to {@code sink} one at a time. Database rows come
+     * through a forward-only cursor over the matching ids (the same SQL as the
+     * question, selecting ids only) with their cells loaded per batch of ids and
+     * dropped from the persistence context afterwards; mapped and columnar rows
+     * are decoded from their positions one by one. The heap stays flat, except
+     * for an ORDER BY over compact rows, which ranks a (sort key, id) per match
+     * before reading the rows back by id.
+     * The database generation stays pinned until the last row is handed over,
+     * so an import replacing the dataset meanwhile can't drop it mid-stream.
+     *
+     * Must run inside a (read-only) transaction, which keeps the cursor open.
+     */
+    public void streamRows(String dataset, ParsedQuery query, Consumer<DataRow> sink) {
+        int limit = query.hasLimit() ? query.getLimit() : -1;
+        Optional<MappedCsvTable> mapped = mappedCsvStore.current(dataset);
+        if (mapped.isPresent()) {
+            MappedCsvTable table = mapped.get();
+            for (int pos : orderMapped(table, query, limit)) {
+                sink.accept(table.toDataRow(pos));
+            }
+            return;
+        }
+        Optional<ColumnarTable> columnar = columnarFor(dataset, routeFor(dataset, query));
+        if (columnar.isPresent()) {
+            ColumnarTable table = columnar.get();
+            for (int pos : orderColumnar(table, query, limit)) {
+                sink.accept(table.toDataRow(pos));
+            }
+            return;
+        }
+
+        try (GenerationCleaner.Pin pin = generationCleaner.pinCurrent(dataset)) {
+            streamFromDatabase(dataset, query, pin.getGeneration(), sink);
+        }
+    }
+
+    private void streamFromDatabase(String dataset, ParsedQuery query, long generation, Consumer<DataRow> sink) {
+        ColumnDictionary dictionary = dictionaries.forGeneration(generation);
+        if (dictionary.isCompact()) {
+            streamCompact(dataset, query, generation, dictionary, sink);
+            return;
+        }
+
+        // EAV: the question's own SQL (whatever the route), ids only, through a cursor
         @SuppressWarnings("unchecked")
-        Comparator<DataRow> comparator =
-                Comparator.comparing(row -> (Comparable) getComparableValue(row, orderCol));
-
-        if (descending) {
-            comparator = comparator.reversed();
-        }
-
-        return repository.findAll()
-                .stream()
-                .filter(row -> matches(row, filterCol, filterVal))
-                .sorted(comparator)
-                .limit(limit)
-                .collect(Collectors.toList());
-    }
-
-    private Comparable<?> getComparableValue(DataRow row, String column) {
-        if (row.getCells() == null) return "";
-
-        return row.getCells().stream()
-                .filter(c -> c.getColumnName() != null &&
-                        c.getColumnName().equalsIgnoreCase(column))
-                .map(DataCell::getCellValue)
-                .findFirst()
-                .map(val -> {
-                    // try numeric comparison first
-                    try {
-                        return Double.parseDouble(val);
-                    } catch (NumberFormatException e) {
-                        return val; // fallback to string compare
+        org.hibernate.query.Query<Long> ids = queryCompiler.compileIds(query, generation).createQuery()
+                .unwrap(org.hibernate.query.Query.class);
+        ids.setFetchSize(STREAM_BATCH_SIZE);
+        ids.setReadOnly(true);
+        try (ScrollableResults<Long> cursor = ids.scroll(ScrollMode.FORWARD_ONLY)) {
+            List<Long> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+            while (cursor.next()) {
+                batch.add(cursor.get());
+                if (batch.size() == STREAM_BATCH_SIZE) {
+                    streamBatch(batch, sink);
+                    batch.clear();
+                }
+            }
+            streamBatch(batch, sink);
+        }
+    }
+
+    // Compact rows of the generation: unsorted ones straight from the scan (up to the TOP N); sorted
+    // ones ranked on (sort key, id) alone, then read back by id and expanded one batch at a time
+    private void streamCompact(String dataset, ParsedQuery query, long generation, ColumnDictionary dictionary,
+                               Consumer<DataRow> sink) {
+        List<String> header = dictionary.getNames();
+        RowMatcher matcher = new RowMatcher(query.getConditions(), header);
+        boolean parallel = scansInParallel(dataset);
+        int limit = query.hasLimit() ? query.getLimit() : -1;
+
+        if (!query.hasSort()) {
+            int[] sent = new int[1];
+            scanGeneration(generation, SCAN_PAGE_SIZE, parallel, Long.MIN_VALUE, page -> {
+                for (DataRow row : matcher.isEmpty() ? page : matches(page, matcher, parallel)) {
+                    if (limit >= 0 && sent[0] >= limit) {
+                        break;
                     }
-                })
-                .orElse("");
+                    sink.accept(row);
+                    sent[0]++;
+                }
+                return limit < 0 || sent[0] < limit;
+            });
+            return;
+        }
+
+        int sortPosition = RowMatcher.position(header, query.getSortColumn());
+        TopN.Collector<SortKey, Long> ranked = new TopN.Collector<>(SortKey.order(query.isDescending()), limit);
+        scanGeneration(generation, SCAN_PAGE_SIZE, parallel, Long.MIN_VALUE, page -> {
+            for (DataRow row : matcher.isEmpty() ? page : matches(page, matcher, parallel)) {
+                ranked.offer(SortKey.of(RowMatcher.cellAt(row, sortPosition, query.getSortColumn())), row.getId());
+            }
+            return true;
+        });
+
+        QDataRow row = QDataRow.dataRow;
+        List<Long> ids = ranked.result();
+        for (int from = 0; from < ids.size(); from += STREAM_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + STREAM_BATCH_SIZE));
+            Map<Long, DataRow> rows = new HashMap<>();
+            for (DataRow compact : queryFactory.selectFrom(row).where(row.id.in(batch)).fetch()) {
+                rows.put(compact.getId(), compact);
+            }
+            for (Long id : batch) {
+                sink.accept(dictionary.expand(rows.get(id)));
+            }
+            entityManager.clear(); // the batch is written, let it go
+        }
+    }
+
+    // Rows of a batch of ids, in the cursor's order, with their cells (one IN query)
+    private void streamBatch(List<Long> ids, Consumer<DataRow> sink) {
+        Map<Long, List<DataCell>> cells = findCellsByRowIds(ids);
+        for (Long id : ids) {
+            DataRow row = new DataRow(id);
+            row.getCells().addAll(cells.getOrDefault(id, List.of()));
+            sink.accept(row);
+        }
+        entityManager.clear(); // the batch's cells are written, let them go
     }
 
     // --------------------------------------------------------------------
-    // 🔹 QueryDSL-style wrapper methods used by NaturalLanguageQueryService
-    //    For now they just delegate to the existing in-memory methods,
-    //    so behavior stays exactly the same and everything compiles.
+    // 🔹 In-memory evaluation (csv.query.pushdown=false, compact datasets):
+    //    rows are pulled lazily, one page at a time, and only matching rows
+    //    are kept. Conditions are compiled once against the header (see
+    //    RowMatcher); from csv.query.parallel-threshold rows each page is
+    //    decoded and matched on the fork-join pool, results kept in row order.
     // --------------------------------------------------------------------
 
-    public List<DataRow> findRowsByTwoColumnsUsingQuerydsl(
-            String column1,
-            String value1,
-            String column2,
-            String value2
-    ) {
-        return findRowsByTwoColumns(column1, value1, column2, value2);
-    }
-
-    public List<DataRow> findRowsByColumnValueSortedLimitedUsingQuerydsl(
-            String filterColumn,
-            String filterValue,
-            String orderByColumn,
-            boolean descending,
-            int limit
-    ) {
-        return findRowsByColumnValueSortedLimited(
-                filterColumn,
-                filterValue,
-                orderByColumn,
-                descending,
-                limit
-        );
-    }
-}
\ No newline at end of file
+    /**
+     * Conditions, ORDER BY and TOP N of a parsed question, evaluated in Java.
+     * With TOP N only the best N matches are kept while the rows stream past
+     * (a bounded heap over sort keys computed once per row, see {@link TopN}),
+     * so neither a full sort nor the full match list is needed. Orders like
+     * the SQL route.
+     */
+    public List<DataRow> filterInMemory(String dataset, ParsedQuery query) {
+        return filterInMemory(dataset, query, query.hasLimit() ? query.getLimit() : -1);
+    }
+
+    // Same, keeping at most `limit` rows (negative = all)
+    private List<DataRow> filterInMemory(String dataset, ParsedQuery query, int limit) {
+        List<String> header = columnNames(dataset);
+        RowMatcher matcher = new RowMatcher(query.getConditions(), header);
+        int sortPosition = query.hasSort() ? RowMatcher.position(header, query.getSortColumn()) : -1;
+        boolean parallel = scansInParallel(dataset);
+        int keep = query.hasLimit() ? (limit < 0 ? query.getLimit() : Math.min(limit, query.getLimit())) : limit;
+
+        // ORDER BY (+ TOP N): ranked as they arrive
+        TopN.Collector<SortKey, DataRow> ranked = query.hasSort()
+                ? new TopN.Collector<>(SortKey.order(query.isDescending()), keep)
+                : null;
+        List<DataRow> filtered = new ArrayList<>();
+        long[] scanned = new long[1];
+
+        // WHERE conditions
+        scanRows(dataset, SCAN_PAGE_SIZE, parallel, Long.MIN_VALUE, page -> {
+            scanned[0] += page.size();
+            List<DataRow> matching = matcher.isEmpty() ? page : matches(page, matcher, parallel);
+            if (ranked != null) {
+                // sort keys computed alongside, offered in row order (ties keep it)
+                List<SortKey> keys = (parallel ? matching.parallelStream() : matching.stream())
+                        .map(row -> SortKey.of(RowMatcher.cellAt(row, sortPosition, query.getSortColumn())))
+                        .toList();
+                for (int i = 0; i < matching.size(); i++) {
+                    ranked.offer(keys.get(i), matching.get(i));
+                }
+                return true;
+            }
+            for (DataRow row : matching) {
+                if (keep >= 0 && filtered.size() >= keep) {
+                    break;
+                }
+                filtered.add(row); // TOP N without ORDER BY: the first N
+            }
+            return keep < 0 || filtered.size() < keep; // unsorted TOP N: done once N are in
+        });
+        metrics.rowsScanned(scanRoute(dataset), scanned[0]);
+        return ranked != null ? ranked.result() : filtered;
+    }
+
+    // The first `want` matches after row `afterId`, in id order; the scan stops at the last of them
+    // and reads pages about as large as the estimated selectivity says it needs
+    private List<DataRow> firstMatches(String dataset, ParsedQuery query, long afterId, int want) {
+        RowMatcher matcher = new RowMatcher(query.getConditions(), columnNames(dataset));
+        boolean parallel = scansInParallel(dataset);
+        double selectivity = statisticsStore.current(dataset).selectivity(query.getConditions());
+        int pageSize = (int) Math.max(MIN_SCAN_PAGE_SIZE,
+                Math.min(SCAN_PAGE_SIZE, 2 * want / Math.max(selectivity, 1e-3)));
+        List<DataRow> found = new ArrayList<>(want);
+        long[] scanned = new long[1];
+
+        scanRows(dataset, pageSize, parallel, afterId, page -> {
+            scanned[0] += page.size();
+            for (DataRow row : matcher.isEmpty() ? page : matches(page, matcher, parallel)) {
+                if (found.size() == want) {
+                    break;
+                }
+                found.add(row);
+            }
+            return found.size() < want;
+        });
+        metrics.rowsScanned(scanRoute(dataset), scanned[0]);
+        return found;
+    }
+
+    /**
+     * Same answer as the SQL GROUP BY of {@link QuerydslQueryCompiler#compileAggregate}:
+     * groups by the lowercased value (labelled with its smallest spelling),
+     * ignores non-numeric values, ORDER BY / TOP N apply to the groups.
+     */
+    public List<AggregateRow> aggregateInMemory(String dataset, AggregateQuery query) {
+        ParsedQuery filter = query.getFilter();
+        Map<String, Group> groups = new HashMap<>();
+        List<String> header = columnNames(dataset);
+        RowMatcher matcher = new RowMatcher(filter.getConditions(), header);
+        int groupPosition = query.isGrouped() ? RowMatcher.position(header, query.getGroupBy()) : -1;
+        int valuePosition = query.getColumn() == null ? -1 : RowMatcher.position(header, query.getColumn());
+        boolean parallel = scansInParallel(dataset);
+        long[] scanned = new long[1];
+
+        scanRows(dataset, SCAN_PAGE_SIZE, parallel, page -> {
+            scanned[0] += page.size();
+            for (DataRow row : matcher.isEmpty() ? page : matches(page, matcher, parallel)) {
+                DataCell groupCell = query.isGrouped() ? RowMatcher.cellAt(row, groupPosition, query.getGroupBy()) : null;
+                String key = groupCell == null ? null : DataCell.normalize(groupCell.getCellValue());
+                Group group = groups.computeIfAbsent(key, Group::new);
+                group.add(groupCell, query.getColumn() == null ? null
+                        : RowMatcher.cellAt(row, valuePosition, query.getColumn()));
+            }
+        });
+        metrics.rowsScanned(scanRoute(dataset), scanned[0]);
+        if (groups.isEmpty() && !query.isGrouped()) {
+            groups.put(null, new Group(null)); // like SQL: one row even without matches
+        }
+
+        List<Group> ordered = new ArrayList<>(groups.values());
+        AggregateQuery.Function function = query.getFunction();
+        Comparator<Group> byKey = Comparator.comparing(g -> g.key, Comparator.nullsFirst(Comparator.naturalOrder()));
+        if (query.sortsByGroup() || !filter.hasSort()) {
+            ordered.sort(query.sortsByGroup() && filter.isDescending() ? byKey.reversed() : byKey);
+        } else {
+            Comparator<Group> byValue = Comparator.comparing(g -> g.value(function),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            ordered.sort((filter.isDescending() ? byValue.reversed() : byValue).thenComparing(byKey));
+        }
+        if (filter.hasLimit() && ordered.size() > filter.getLimit()) {
+            ordered = ordered.subList(0, filter.getLimit());
+        }
+
+        List<AggregateRow> rows = new ArrayList<>(ordered.size());
+        for (Group group : ordered) {
+            rows.add(new AggregateRow(group.label, group.value(function), group.count));
+        }
+        return rows;
+    }
+
+    // Header of the dataset's current CSV, for compiling conditions to positions
+    private List<String> columnNames(String dataset) {
+        return findColumns(dataset).stream().map(ColumnInfo::getName).toList();
+    }
+
+    // Route a full scan of the dataset counts as: in place for a mapped CSV, else Java
+    private QueryRoute scanRoute(String dataset) {
+        return mappedCsvStore.current(dataset).isPresent() ? QueryRoute.MAPPED : QueryRoute.JAVA;
+    }
+
+    // Whether the dataset is big enough for its scans to be split across the fork-join pool
+    private boolean scansInParallel(String dataset) {
+        int threshold = queryProperties.getParallelThreshold();
+        if (threshold <= 0) {
+            return false;
+        }
+        Optional<MappedCsvTable> mapped = mappedCsvStore.current(dataset);
+        if (mapped.isPresent()) {
+            return mapped.get().getRowCount() >= threshold;
+        }
+        DatasetStatistics statistics = statisticsStore.current(dataset);
+        long rows = statistics.isKnown() ? statistics.rows() : repository.countByGeneration(generations.current(dataset));
+        return rows >= threshold;
+    }
+
+    // The rows that match, in their original order
+    private static List<DataRow> matches(List<DataRow> rows, RowMatcher matcher, boolean parallel) {
+        return (parallel ? rows.parallelStream() : rows.stream()).filter(matcher).toList();
+    }
+
+    // Result-cache key of "column = value" (matched case-insensitively)
+    private static String columnValueKey(String column, String value) {
+        return "eq:" + DataCell.normalize(column) + "=" + DataCell.normalize(value);
+    }
+
+    // Running aggregate of one group (in-memory path)
+    private static final class Group {
+
+        private final String key;
+        private String label;
+        private long count;
+        private long numbers;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        private Group(String key) {
+            this.key = key;
+        }
+
+        private void add(DataCell groupCell, DataCell valueCell) {
+            count++;
+            if (groupCell != null && (label == null || groupCell.getCellValue().compareTo(label) < 0)) {
+                label = groupCell.getCellValue();
+            }
+            Double number = valueCell == null ? null : valueCell.getNumberValue();
+            if (number != null) {
+                numbers++;
+                sum += number;
+                min = Math.min(min, number);
+                max = Math.max(max, number);
+            }
+        }
+
+        private Double value(AggregateQuery.Function function) {
+            if (function == AggregateQuery.Function.COUNT) {
+                return (double) count;
+            }
+            if (numbers == 0) {
+                return null;
+            }
+            return switch (function) {
+                case SUM -> sum;
+                case AVG -> sum / numbers;
+                case MIN -> min;
+                default -> max;
+            };
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.repository.ColumnInfoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Named datasets and the generation each of them currently reads.
+ *
+ * Every import writes its rows under a fresh generation while readers keep
+ * using the dataset's current one; once the import has committed,
+ * {@link #publish} flips that dataset's pointer in one map write. Generation
+ * numbers are unique across datasets, so filtering on the generation (the
+ * leading column of the row and cell indexes) also prunes every query to its
+ * dataset. Nothing is deleted on the import path — replaced generations are
+ * dropped afterwards by {@link GenerationCleaner}.
+ */
+@Component
+public class DatasetGenerations {
+
+    /** Dataset used when an upload or query does not name one. */
+    public static final String DEFAULT_DATASET = "default";
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_.-]{0,63}");
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerations.class);
+
+    private final AtomicLong allocated;
+    private final Map<String, Long> current = new ConcurrentHashMap<>();
+
+    public DatasetGenerations(ColumnInfoRepository columnInfoRepository) {
+        // Every committed import has column metadata, even a header-only CSV
+        long newest = 0;
+        for (Object[] dataset : columnInfoRepository.findNewestGenerations()) {
+            long generation = ((Number) dataset[1]).longValue();
+            current.put((String) dataset[0], generation);
+            newest = Math.max(newest, generation);
+        }
+        Long allocatedBefore = columnInfoRepository.findMaxGeneration();
+        this.allocated = new AtomicLong(allocatedBefore == null ? newest : Math.max(newest, allocatedBefore));
+    }
+
+    /**
+     * The dataset name to use for a request: {@link #DEFAULT_DATASET} when
+     * absent, otherwise 1-64 letters, digits, '.', '_' or '-'.
+     */
+    public static String checkName(String dataset) {
+        if (dataset == null || dataset.isBlank()) {
+            return DEFAULT_DATASET;
+        }
+        String name = dataset.trim();
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid dataset name: " + dataset);
+        }
+        return name;
+    }
+
+    /** The generation queries on {@code dataset} read right now (0 = nothing imported, no rows). */
+    public long current(String dataset) {
+        return current.getOrDefault(dataset, 0L);
+    }
+
+    /** Datasets that have been imported, by name. */
+    public List<String> names() {
+        List<String> names = new ArrayList<>(current.keySet());
+        names.sort(null);
+        return names;
+    }
+
+    /** Current generations of all datasets. */
+    public Collection<Long> currentGenerations() {
+        return List.copyOf(current.values());
+    }
+
+    /** Highest generation handed out so far. */
+    public long lastAllocated() {
+        return allocated.get();
+    }
+
+    /** A new, not yet visible generation for an import that is about to start. */
+    public long next() {
+        return allocated.incrementAndGet();
+    }
+
+    /**
+     * Makes a committed generation the dataset's current one and returns the
+     * generation that is now obsolete (0 for none). Only moves forward: a
+     * generation older than the current one (an import that started earlier but
+     * committed later) is not published and is itself returned as obsolete.
+     */
+    public synchronized long publish(String dataset, long generation) {
+        long previous = current(dataset);
+        if (generation <= previous) {
+            return generation;
+        }
+        current.put(dataset, generation);
+        log.info("Dataset '{}' generation {} published", dataset, generation);
+        return previous;
+    }
+
+    /**
+     * Forgets the dataset's database copy (it now lives elsewhere, e.g. as a
+     * mapped file) and returns its generation for the cleaner (0 for none).
+     */
+    public synchronized long remove(String dataset) {
+        Long previous = current.remove(dataset);
+        return previous == null ? 0 : previous;
+    }
+}
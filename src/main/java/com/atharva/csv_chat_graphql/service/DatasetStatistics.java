@@ -0,0 +1,122 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.ColumnInfo;
+import com.nupur.csv_chat_graphql.DataCell;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link ColumnStatistics} of one version of a dataset, and the estimates
+ * the planner takes from them. Conditions are taken as independent, so AND-ed
+ * ones keep the product of their selectivities; a condition the statistics
+ * can't judge (no statistics, a range over text) gets the textbook guess: 1/10
+ * for equality, 1/3 for a range, 1/4 for between.
+ */
+public final class DatasetStatistics {
+
+    public static final DatasetStatistics EMPTY = new DatasetStatistics(List.of());
+
+    private static final double EQUAL_GUESS = 0.1;
+    private static final double RANGE_GUESS = 1.0 / 3;
+    private static final double BETWEEN_GUESS = 0.25;
+
+    // by lowercased name; first occurrence wins for duplicate headers, like the row lookups
+    private final Map<String, ColumnStatistics> columns = new HashMap<>();
+    private final long rows;
+
+    private DatasetStatistics(List<ColumnStatistics> columns) {
+        long rows = 0;
+        for (ColumnStatistics column : columns) {
+            this.columns.putIfAbsent(DataCell.normalize(column.getColumn()), column);
+            rows = Math.max(rows, column.getRows());
+        }
+        this.rows = rows;
+    }
+
+    public static DatasetStatistics of(List<ColumnStatistics> columns) {
+        return columns.isEmpty() ? EMPTY : new DatasetStatistics(columns);
+    }
+
+    /** The statistics stored with the columns; columns imported without them are left out. */
+    public static DatasetStatistics decode(List<ColumnInfo> columns) {
+        List<ColumnStatistics> decoded = new ArrayList<>(columns.size());
+        for (ColumnInfo column : columns) {
+            ColumnStatistics statistics = ColumnStatistics.decode(column.getName(), column.getType(),
+                    column.getStatistics());
+            if (statistics != null) {
+                decoded.add(statistics);
+            }
+        }
+        return of(decoded);
+    }
+
+    /** False when nothing is known (no data, or imported before statistics were gathered). */
+    public boolean isKnown() {
+        return !columns.isEmpty();
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    /** Statistics of a column, null when there are none. */
+    public ColumnStatistics column(String name) {
+        return name == null ? null : columns.get(DataCell.normalize(name));
+    }
+
+    /** Estimated fraction of the rows a condition keeps. */
+    public double selectivity(QueryCondition condition) {
+        ColumnStatistics column = column(condition.getColumn());
+        double selectivity = column == null ? Double.NaN : column.selectivity(condition);
+        if (!Double.isNaN(selectivity)) {
+            return selectivity;
+        }
+        return switch (condition.getOperator()) {
+            case EQ -> EQUAL_GUESS;
+            case NE -> 1 - EQUAL_GUESS;
+            case BETWEEN -> BETWEEN_GUESS;
+            default -> RANGE_GUESS;
+        };
+    }
+
+    /** Estimated fraction of the rows all of the conditions keep. */
+    public double selectivity(List<QueryCondition> conditions) {
+        double selectivity = 1;
+        for (QueryCondition condition : conditions) {
+            selectivity *= selectivity(condition);
+        }
+        return selectivity;
+    }
+
+    /** Estimated rows of the answer (TOP N included); -1 when nothing is known. */
+    public long estimatedRows(ParsedQuery query) {
+        if (!isKnown()) {
+            return -1;
+        }
+        long estimate = Math.round(rows * selectivity(query.getConditions()));
+        return query.hasLimit() ? Math.min(estimate, query.getLimit()) : estimate;
+    }
+
+    /**
+     * The same question with its conditions most selective first (ties keep
+     * their order): every route evaluates them in that order, so the narrowest
+     * one drives the SQL, and the in-memory matchers reject most rows on the
+     * first test.
+     */
+    public ParsedQuery bySelectivity(ParsedQuery query) {
+        List<QueryCondition> conditions = query.getConditions();
+        if (conditions.size() < 2 || !isKnown()) {
+            return query;
+        }
+        List<QueryCondition> ordered = new ArrayList<>(conditions);
+        ordered.sort(Comparator.comparingDouble(this::selectivity));
+        if (ordered.equals(conditions)) {
+            return query;
+        }
+        return new ParsedQuery(ordered, query.getSortColumn(), query.isDescending(), query.getLimit());
+    }
+}
@@ -0,0 +1,186 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.config.CsvImportProperties;
+import com.nupur.csv_chat_graphql.repository.ColumnInfoRepository;
+import com.nupur.csv_chat_graphql.repository.DataCellRepository;
+import com.nupur.csv_chat_graphql.repository.DataRowRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Drops dataset generations that are no longer current, in the background.
+ *
+ * Each drop is three bulk DELETEs (cells, rows, column metadata) on the
+ * generation column, run a grace period after the flip so queries that
+ * started on the old generation can still finish reading it. Reads that may
+ * outlast the grace period (exports) {@link #pinCurrent pin} their generation;
+ * its drop then waits until the last pin is released.
+ */
+@Component
+public class GenerationCleaner {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationCleaner.class);
+
+    private final DataCellRepository dataCellRepository;
+    private final DataRowRepository dataRowRepository;
+    private final ColumnInfoRepository columnInfoRepository;
+    private final DatasetGenerations generations;
+    private final TransactionTemplate transactionTemplate;
+    private final long graceMillis;
+    private final ScheduledExecutorService executor;
+
+    // Pins per generation, and pinned generations whose drop is due; guarded by `pins`
+    private final Map<Long, Integer> pins = new HashMap<>();
+    private final Set<Long> dropWhenReleased = new HashSet<>();
+
+    public GenerationCleaner(DataCellRepository dataCellRepository,
+                             DataRowRepository dataRowRepository,
+                             ColumnInfoRepository columnInfoRepository,
+                             PlatformTransactionManager transactionManager,
+                             CsvImportProperties importProperties,
+                             DatasetGenerations generations) {
+        this.dataCellRepository = dataCellRepository;
+        this.dataRowRepository = dataRowRepository;
+        this.columnInfoRepository = columnInfoRepository;
+        this.generations = generations;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.graceMillis = importProperties.getOldGenerationGraceMillis();
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "csv-generation-cleaner");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // Leftovers of a previous run (e.g. stopped before its cleanup ran): every
+        // generation allocated before startup that is not current. Imports of
+        // this run get newer generations and are never touched.
+        List<Long> keep = new ArrayList<>(generations.currentGenerations());
+        keep.add(0L);
+        long upTo = generations.lastAllocated();
+        executor.execute(() -> delete("stale generations up to " + upTo, () -> {
+            dataCellRepository.deleteStaleGenerations(upTo, keep);
+            columnInfoRepository.deleteStaleGenerations(upTo, keep);
+            return dataRowRepository.deleteStaleGenerations(upTo, keep);
+        }));
+    }
+
+    /**
+     * Schedules deletion of one replaced (or discarded) generation. Other
+     * datasets and imports still in flight have other generations and are never
+     * touched.
+     */
+    public void drop(long generation) {
+        if (generation <= 0) {
+            return;
+        }
+        executor.schedule(() -> {
+            synchronized (pins) {
+                if (pins.containsKey(generation)) {
+                    dropWhenReleased.add(generation); // dropped by the last unpin
+                    return;
+                }
+            }
+            deleteGeneration(generation);
+        }, graceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Pins the generation {@code dataset} reads right now, so it is not dropped
+     * before the returned pin is closed even if an import replaces it meanwhile.
+     */
+    public Pin pinCurrent(String dataset) {
+        while (true) {
+            long generation = generations.current(dataset);
+            Pin pin = pin(generation);
+            // a publish in between may already have scheduled its drop: pin the new one instead
+            if (generations.current(dataset) == generation) {
+                return pin;
+            }
+            pin.close();
+        }
+    }
+
+    private Pin pin(long generation) {
+        synchronized (pins) {
+            pins.merge(generation, 1, Integer::sum);
+        }
+        return new Pin(generation);
+    }
+
+    private void unpin(long generation) {
+        synchronized (pins) {
+            if (pins.merge(generation, -1, Integer::sum) > 0) {
+                return;
+            }
+            pins.remove(generation);
+            if (!dropWhenReleased.remove(generation)) {
+                return;
+            }
+        }
+        executor.execute(() -> deleteGeneration(generation));
+    }
+
+    private void deleteGeneration(long generation) {
+        delete("generation " + generation, () -> {
+            dataCellRepository.deleteByGeneration(generation);
+            columnInfoRepository.deleteByGeneration(generation);
+            return dataRowRepository.deleteByGeneration(generation);
+        });
+    }
+
+    private void delete(String what, Supplier<Integer> deletes) {
+        try {
+            long start = System.nanoTime();
+            Integer rows = transactionTemplate.execute(status -> deletes.get());
+            if (rows != null && rows > 0) {
+                log.info("Dropped {} rows of {} in {} ms", rows, what, (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (RuntimeException e) {
+            // Stays behind until the next startup, which drops all stale generations
+            log.warn("Could not drop {}", what, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** A generation kept readable until {@link #close()} (once; later calls do nothing). */
+    public final class Pin implements AutoCloseable {
+
+        private final long generation;
+        private boolean closed;
+
+        private Pin(long generation) {
+            this.generation = generation;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                unpin(generation);
+            }
+        }
+    }
+}
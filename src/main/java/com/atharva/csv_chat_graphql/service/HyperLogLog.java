@@ -0,0 +1,56 @@
+package com.nupur.csv_chat_graphql.service;
+
+/**
+ * Distinct-value estimate in a fixed 4 KB (HyperLogLog, 2^12 registers,
+ * standard error about 1.6%). Values are hashed to 64 bits (FNV-1a over the
+ * chars, then the MurmurHash3 finalizer to spread the bits), so no large-range
+ * correction is needed. Not thread-safe.
+ */
+final class HyperLogLog {
+
+    private static final int P = 12;
+    private static final int M = 1 << P;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / M);
+
+    private final byte[] registers = new byte[M];
+
+    void add(String value) {
+        long hash = hash(value);
+        int register = (int) (hash >>> (64 - P));
+        // rank of the first 1 bit in the remaining 52 bits (the guard bit caps it)
+        int rank = Long.numberOfLeadingZeros((hash << P) | (1L << (P - 1))) + 1;
+        if (rank > registers[register]) {
+            registers[register] = (byte) rank;
+        }
+    }
+
+    long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * M * M / sum;
+        if (estimate <= 2.5 * M && zeros > 0) {
+            estimate = M * Math.log((double) M / zeros); // linear counting while registers are sparse
+        }
+        return Math.round(estimate);
+    }
+
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,191 @@
+package com.nupur.csv_chat_graphql.service;
+
+import java.time.Instant;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One background CSV import. Progress counters are updated by the import
+ * thread and read by the REST / GraphQL polling endpoints.
+ */
+public class ImportJob implements ImportProgressListener {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final String dataset;
+    private final String fileName;
+    private final long totalBytes;
+    private final Instant createdAt = Instant.now();
+
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile CsvImportResult result;
+    private volatile boolean cancelRequested;
+    private volatile Future<?> future;
+
+    public ImportJob(String id, String dataset, String fileName, long totalBytes) {
+        this.id = id;
+        this.dataset = dataset;
+        this.fileName = fileName;
+        this.totalBytes = totalBytes;
+    }
+
+    // ----------------- progress callbacks (import thread) -----------------
+
+    @Override
+    public void onRowsWritten(long totalRows) {
+        rowsProcessed.set(totalRows);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    void addBytesRead(long bytes) {
+        bytesRead.addAndGet(bytes);
+    }
+
+    synchronized void markRunning() {
+        if (status.isFinished()) {
+            return;
+        }
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void markCompleted(CsvImportResult result) {
+        this.result = result;
+        this.rowsProcessed.set(result.getRows());
+        finish(Status.COMPLETED);
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        finish(Status.FAILED);
+    }
+
+    void markCancelled() {
+        finish(Status.CANCELLED);
+    }
+
+    private synchronized void finish(Status finalStatus) {
+        if (status.isFinished()) {
+            return;
+        }
+        finishedAt = Instant.now();
+        status = finalStatus;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    Future<?> getFuture() {
+        return future;
+    }
+
+    CsvImportResult importResult() {
+        return result;
+    }
+
+    // ----------------- read side (REST / GraphQL) -----------------
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDataset() {
+        return dataset;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getRowsProcessed() {
+        return rowsProcessed.get();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getResult() {
+        return result != null ? result.toString() : null;
+    }
+
+    public long getElapsedMillis() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        return end.toEpochMilli() - start.toEpochMilli();
+    }
+
+    public double getRowsPerSecond() {
+        long elapsed = getElapsedMillis();
+        return elapsed > 0 ? getRowsProcessed() * 1000.0 / elapsed : 0;
+    }
+
+    public double getBytesPerSecond() {
+        long elapsed = getElapsedMillis();
+        return elapsed > 0 ? getBytesRead() * 1000.0 / elapsed : 0;
+    }
+
+    /**
+     * Remaining seconds estimated from the byte rate so far; null while unknown.
+     */
+    public Long getEtaSeconds() {
+        if (status.isFinished()) {
+            return 0L;
+        }
+        double rate = getBytesPerSecond();
+        if (rate <= 0 || totalBytes <= 0) {
+            return null;
+        }
+        long remaining = Math.max(0, totalBytes - getBytesRead());
+        return (long) Math.ceil(remaining / rate);
+    }
+}
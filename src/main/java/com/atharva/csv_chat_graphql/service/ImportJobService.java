@@ -0,0 +1,188 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.config.CsvImportProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs CSV imports as background jobs so the upload request returns right away.
+ *
+ * The multipart body is spooled to a temp file first (the servlet deletes its
+ * own copy once the request ends), then imported on a dedicated executor.
+ * Imports into different datasets run side by side (each writes its own
+ * generation, see {@link DatasetGenerations}). Imports into the same dataset
+ * replace each other, so they take turns on that dataset's lock; request
+ * threads and GraphQL queries are never blocked by it.
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+    private final CsvService csvService;
+    private final CsvImportProperties importProperties;
+    private final ExecutorService executor;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    // One fair lock per dataset name
+    private final Map<String, ReentrantLock> importLocks = new ConcurrentHashMap<>();
+
+    public ImportJobService(CsvService csvService, CsvImportProperties importProperties) {
+        this.csvService = csvService;
+        this.importProperties = importProperties;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, importProperties.getJobThreads()), r -> {
+            Thread t = new Thread(r, "csv-import-job-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Spools the upload to disk and queues its import into {@code dataset}
+     * (the default dataset when null). Returns immediately.
+     */
+    public ImportJob submit(String dataset, MultipartFile file) throws IOException {
+        String name = DatasetGenerations.checkName(dataset);
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Uploaded CSV file is empty");
+        }
+
+        Path spooled = Files.createTempFile("csv-import-", ".csv");
+        try {
+            file.transferTo(spooled);
+        } catch (IOException | RuntimeException e) {
+            // e.g. disk full or an aborted upload: nothing will import (and delete) it
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), name, file.getOriginalFilename(), file.getSize());
+        jobs.put(job.getId(), job);
+        evictFinishedJobs();
+
+        job.setFuture(executor.submit(() -> run(job, spooled)));
+        return job;
+    }
+
+    /**
+     * Submits the upload and waits for it (the classic blocking upload endpoint).
+     */
+    public CsvImportResult submitAndWait(String dataset, MultipartFile file) throws Exception {
+        ImportJob job = submit(dataset, file);
+        try {
+            job.getFuture().get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+        if (job.getStatus() != ImportJob.Status.COMPLETED) {
+            throw new IllegalStateException(job.getError() != null ? job.getError() : "Import " + job.getStatus());
+        }
+        return job.importResult();
+    }
+
+    public ImportJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    public List<ImportJob> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(ImportJob::getCreatedAt).reversed())
+                .toList();
+    }
+
+    /**
+     * Requests cancellation. A queued job never starts; a running job stops at
+     * its next batch boundary and its transaction is rolled back.
+     */
+    public ImportJob cancel(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null || job.getStatus().isFinished()) {
+            return job;
+        }
+        // No interrupt: the writer checks the flag itself, and interrupting a
+        // thread in the middle of JDBC work can poison the connection.
+        job.requestCancel();
+        if (job.getStatus() == ImportJob.Status.QUEUED) {
+            job.markCancelled();
+        }
+        return job;
+    }
+
+    // ----------------- internals -----------------
+
+    private void run(ImportJob job, Path spooled) {
+        ReentrantLock importLock = importLocks.computeIfAbsent(job.getDataset(), dataset -> new ReentrantLock(true));
+        try {
+            importLock.lockInterruptibly();
+            try {
+                if (job.isCancelled()) {
+                    job.markCancelled();
+                    return;
+                }
+                job.markRunning();
+                try (InputStream in = new CountingInputStream(Files.newInputStream(spooled), job::addBytesRead)) {
+                    job.markCompleted(csvService.importCsv(job.getDataset(), in, job));
+                }
+            } finally {
+                importLock.unlock();
+            }
+        } catch (CancellationException e) {
+            job.markCancelled();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.markCancelled();
+        } catch (Exception e) {
+            log.warn("CSV import job {} failed", job.getId(), e);
+            job.markFailed(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(spooled);
+            } catch (IOException e) {
+                log.warn("Could not delete spooled upload {}", spooled, e);
+            }
+        }
+    }
+
+    private void evictFinishedJobs() {
+        int retention = Math.max(1, importProperties.getJobRetention());
+        Collection<ImportJob> finished = jobs.values().stream()
+                .filter(j -> j.getStatus().isFinished())
+                .sorted(Comparator.comparing(ImportJob::getCreatedAt))
+                .toList();
+        int excess = finished.size() - retention;
+        for (ImportJob job : finished) {
+            if (excess-- <= 0) {
+                break;
+            }
+            jobs.remove(job.getId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(ImportJob::requestCancel);
+        executor.shutdownNow();
+    }
+}
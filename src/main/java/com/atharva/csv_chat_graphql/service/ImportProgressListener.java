@@ -0,0 +1,16 @@
+package com.nupur.csv_chat_graphql.service;
+
+/**
+ * Hook the import writer calls after every persisted batch.
+ * Returning true from {@link #isCancelled()} aborts (and rolls back) the import.
+ */
+public interface ImportProgressListener {
+
+    ImportProgressListener NONE = totalRows -> { };
+
+    void onRowsWritten(long totalRows);
+
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -0,0 +1,47 @@
+package com.nupur.csv_chat_graphql.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput counters for one stage of the ingest pipeline (read / convert / write).
+ * Busy time only counts time spent doing work, not time blocked on the queues,
+ * so records/sec shows which stage is the bottleneck. For the convert stage the
+ * busy time is summed over all workers, i.e. the figure is per worker thread.
+ */
+public class IngestStageStats {
+
+    private final String stage;
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    public IngestStageStats(String stage) {
+        this.stage = stage;
+    }
+
+    void record(long recordCount, long nanos) {
+        records.addAndGet(recordCount);
+        busyNanos.addAndGet(nanos);
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public long getRecords() {
+        return records.get();
+    }
+
+    public long getBusyMillis() {
+        return busyNanos.get() / 1_000_000;
+    }
+
+    public double getRecordsPerSecond() {
+        long nanos = busyNanos.get();
+        return nanos > 0 ? records.get() * 1_000_000_000.0 / nanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "%s=%.0f rec/s".formatted(stage, getRecordsPerSecond());
+    }
+}
@@ -1,59 +1,176 @@
 package com.nupur.csv_chat_graphql.service;
 
-import com.nupur.csv_chat_graphql.DataCell;
-import com.nupur.csv_chat_graphql.DataRow;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Service
 public class NaturalLanguageQueryService {
 
+    // Compiled once; used on every (uncached) parse
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern AND = Pattern.compile("\\s+and\\s+");
+    private static final Pattern TOP_N = Pattern.compile("top\\s+(\\d+)");
+
+    // Operator phrases of a WHERE fragment, longest / most specific first
+    private static final List<OperatorPhrase> OPERATOR_PHRASES = List.of(
+            new OperatorPhrase(" is greater than or equal to ", QueryCondition.Operator.GTE),
+            new OperatorPhrase(" is less than or equal to ", QueryCondition.Operator.LTE),
+            new OperatorPhrase(" is at least ", QueryCondition.Operator.GTE),
+            new OperatorPhrase(" is at most ", QueryCondition.Operator.LTE),
+            new OperatorPhrase(" at least ", QueryCondition.Operator.GTE),
+            new OperatorPhrase(" at most ", QueryCondition.Operator.LTE),
+            new OperatorPhrase(" is greater than ", QueryCondition.Operator.GT),
+            new OperatorPhrase(" is more than ", QueryCondition.Operator.GT),
+            new OperatorPhrase(" greater than ", QueryCondition.Operator.GT),
+            new OperatorPhrase(" more than ", QueryCondition.Operator.GT),
+            new OperatorPhrase(" is above ", QueryCondition.Operator.GT),
+            new OperatorPhrase(" above ", QueryCondition.Operator.GT),
+            new OperatorPhrase(" is less than ", QueryCondition.Operator.LT),
+            new OperatorPhrase(" less than ", QueryCondition.Operator.LT),
+            new OperatorPhrase(" is below ", QueryCondition.Operator.LT),
+            new OperatorPhrase(" below ", QueryCondition.Operator.LT),
+            new OperatorPhrase(" is not ", QueryCondition.Operator.NE),
+            new OperatorPhrase("!=", QueryCondition.Operator.NE),
+            new OperatorPhrase("<>", QueryCondition.Operator.NE),
+            new OperatorPhrase(">=", QueryCondition.Operator.GTE),
+            new OperatorPhrase("<=", QueryCondition.Operator.LTE),
+            new OperatorPhrase(">", QueryCondition.Operator.GT),
+            new OperatorPhrase("<", QueryCondition.Operator.LT),
+            new OperatorPhrase(" is ", QueryCondition.Operator.EQ),
+            new OperatorPhrase("=", QueryCondition.Operator.EQ));
+
+    // "salary between 3" (the upper bound follows the next "and")
+    private static final Pattern BETWEEN = Pattern.compile("(.+?)\\s+between\\s+(\\S+)");
+
+    private static final Map<String, AggregateQuery.Function> AGGREGATE_WORDS = Map.ofEntries(
+            Map.entry("count", AggregateQuery.Function.COUNT),
+            Map.entry("how many", AggregateQuery.Function.COUNT),
+            Map.entry("number of", AggregateQuery.Function.COUNT),
+            Map.entry("sum", AggregateQuery.Function.SUM),
+            Map.entry("total", AggregateQuery.Function.SUM),
+            Map.entry("average", AggregateQuery.Function.AVG),
+            Map.entry("avg", AggregateQuery.Function.AVG),
+            Map.entry("mean", AggregateQuery.Function.AVG),
+            Map.entry("min", AggregateQuery.Function.MIN),
+            Map.entry("minimum", AggregateQuery.Function.MIN),
+            Map.entry("lowest", AggregateQuery.Function.MIN),
+            Map.entry("max", AggregateQuery.Function.MAX),
+            Map.entry("maximum", AggregateQuery.Function.MAX),
+            Map.entry("highest", AggregateQuery.Function.MAX));
+
+    // <function> [of] [the] [<column>] [by|per|for each <group>]
+    private static final Pattern AGGREGATE_PHRASE = Pattern.compile(
+            "\\b(count|how many|number of|sum|total|average|avg|mean|min|minimum|lowest|max|maximum|highest)\\b"
+                    + "(?:\\s+(?:of|the))*"
+                    + "(?:\\s+(?!by\\b|per\\b|for\\b)(\\w+))?"
+                    + "(?:\\s+(?:by|per|for each)\\s+(\\w+))?");
+
+    private static final Pattern GROUP_BY = Pattern.compile("\\bgroup(?:ed)?\\s+by\\s+(\\w+)");
+
     private final DataRowQueryService dataRowQueryService;
+    private final QueryPlanCache planCache;
+    private final QueryResultCache resultCache;
 
-    public NaturalLanguageQueryService(DataRowQueryService dataRowQueryService) {
+    public NaturalLanguageQueryService(DataRowQueryService dataRowQueryService,
+                                       QueryPlanCache planCache,
+                                       QueryResultCache resultCache) {
         this.dataRowQueryService = dataRowQueryService;
+        this.planCache = planCache;
+        this.resultCache = resultCache;
     }
 
     /**
-     * Used by GraphQL.
+     * Used by GraphQL: one connection page of the answer (see
+     * {@link DataRowQueryService#findPage}). The question is parsed first (WHERE
+     * conditions, ORDER BY, TOP N) and the page answered as a whole: one QueryDSL
+     * query, or the columnar table if loaded. Rows are only walked in Java when
+     * push-down is switched off (csv.query.pushdown=false), the dataset is stored
+     * compact or a scan finds the page sooner. Pages are cached until the
+     * dataset's next import.
      */
-    public List<DataRow> ask(String question) {
-        return query(question);
+    public RowPage askPage(String dataset, String question, RowCursor after, int first) {
+        return resultCache.page(dataset, askKey(question), after, first,
+                () -> findPage(dataset, question, after, first), dataRowQueryService::detached);
+    }
+
+    private RowPage findPage(String dataset, String question, RowCursor after, int first) {
+        PlannedQuery plan = plan(dataset, question);
+        return dataRowQueryService.findPage(dataset, plan.getQuery(), plan.getRoute(), after, first);
     }
 
     /**
-     * Main implementation for natural language query.
+     * Plans the question and keeps the plan under an id (see {@link QueryPlanCache#prepare}).
+     */
+    public PreparedQuery prepare(String dataset, String question) {
+        return planCache.prepare(dataset, question, plan(dataset, question));
+    }
+
+    /**
+     * The prepared question with this id.
      *
-     * Now:
-     *  - For common patterns we use QueryDSL via DataRowQueryService
-     *  - For anything more complex we fall back to the old in-memory logic
+     * @throws IllegalArgumentException when there is none (never prepared, or evicted)
      */
-    public List<DataRow> query(String question) {
-        // Load all rows for the fallback in-memory path
-        List<DataRow> allRows = dataRowQueryService.findAllRows();
-        if (allRows.isEmpty()) {
-            return allRows;
+    public PreparedQuery prepared(String id) {
+        PreparedQuery prepared = planCache.prepared(id);
+        if (prepared == null) {
+            throw new IllegalArgumentException("Unknown prepared query id: " + id + " (ask it again with askSmart)");
         }
+        return prepared;
+    }
+
+    /**
+     * One connection page of a prepared question's answer: its plan runs as is,
+     * and it shares cached pages with {@link #askPage} for the same question.
+     */
+    public RowPage preparedPage(String id, RowCursor after, int first) {
+        PreparedQuery prepared = prepared(id);
+        String dataset = prepared.getDataset();
+        return resultCache.page(dataset, askKey(prepared.getQuestion()), after, first, () -> {
+            PlannedQuery plan = prepared.getPlan();
+            if (plan == null) { // the dataset's columns changed since it was prepared
+                plan = prepare(dataset, prepared.getQuestion()).getPlan();
+            }
+            return dataRowQueryService.findPage(dataset, plan.getQuery(), plan.getRoute(), after, first);
+        }, dataRowQueryService::detached);
+    }
+
+    // Same normalization as the plan cache: case and surrounding blanks don't matter
+    private static String askKey(String question) {
+        return "ask:" + QueryPlanCache.normalize(question);
+    }
+
+    /**
+     * Parsed question + execution route, from the plan cache when the same
+     * question (ignoring case and surrounding blanks) was planned before for
+     * the same dataset.
+     */
+    public PlannedQuery plan(String dataset, String question) {
+        return planCache.get(dataset, question, normalized -> dataRowQueryService.plan(dataset, parse(normalized)));
+    }
 
+    /**
+     * Turns the question into conditions + ORDER BY + TOP N (no data access).
+     */
+    public ParsedQuery parse(String question) {
         String original = question == null ? "" : question.trim();
         String lower = original.toLowerCase(Locale.ROOT);
 
         // --- 1) WHERE part parsing ---
         int whereIdx = lower.indexOf("where");
         int orderIdx = lower.indexOf("order by");
+        int groupIdx = lower.indexOf("group by");
 
         String wherePart = null;
         if (whereIdx != -1) {
             int start = whereIdx + "where".length();
-            int end = (orderIdx != -1) ? orderIdx : lower.length();
+            int end = firstAfter(start, lower.length(), orderIdx, groupIdx);
             wherePart = lower.substring(start, end).trim();
         }
 
-        List<Condition> conditions = Collections.emptyList();
+        List<QueryCondition> conditions = Collections.emptyList();
         if (wherePart != null && !wherePart.isEmpty()) {
             conditions = parseConditions(wherePart);
         }
@@ -63,9 +180,10 @@ public class NaturalLanguageQueryService {
         boolean descending = false;
 
         if (orderIdx != -1) {
-            String orderPart = lower.substring(orderIdx + "order by".length()).trim();
-            String[] tokens = orderPart.split("\\s+");
-            if (tokens.length >= 1) {
+            int start = orderIdx + "order by".length();
+            String orderPart = lower.substring(start, firstAfter(start, lower.length(), groupIdx)).trim();
+            String[] tokens = WHITESPACE.split(orderPart);
+            if (tokens.length >= 1 && !tokens[0].isBlank()) {
                 sortColumn = tokens[0].trim(); // e.g. "salary"
             }
             if (tokens.length >= 2) {
@@ -78,196 +196,112 @@ public class NaturalLanguageQueryService {
         // --- 3) TOP N parsing ---
         Integer topN = extractTopN(lower);
 
-        // ======== QUERYDSL ROUTING ========
-
-        // Case 0: no conditions / no ordering / no limit → just return all
-        if (conditions.isEmpty() && sortColumn == null && topN == null) {
-            return allRows;
-        }
-
-        // Case 1: one condition, no ORDER BY, no TOP → use QueryDSL equality filter
-        if (conditions.size() == 1 && sortColumn == null && topN == null) {
-            Condition c = conditions.get(0);
-            return dataRowQueryService.findRowsByColumnValueUsingQuerydsl(
-                    c.column, c.value
-            );
-        }
-
-        // Case 2: two conditions, no ORDER BY, no TOP → QueryDSL AND of two columns
-        if (conditions.size() == 2 && sortColumn == null && topN == null) {
-            Condition c1 = conditions.get(0);
-            Condition c2 = conditions.get(1);
-            return dataRowQueryService.findRowsByTwoColumnsUsingQuerydsl(
-                    c1.column, c1.value,
-                    c2.column, c2.value
-            );
-        }
-
-        // Case 3: one condition + ORDER BY + TOP → QueryDSL filter + sort + limit
-        if (conditions.size() == 1 && sortColumn != null && topN != null && topN > 0) {
-            Condition c = conditions.get(0);
-            return dataRowQueryService.findRowsByColumnValueSortedLimitedUsingQuerydsl(
-                    c.column,
-                    c.value,
-                    sortColumn,
-                    descending,
-                    topN
-            );
-        }
-
-        // Fallback: anything more complex → old in-memory logic (so nothing breaks)
-        return filterInMemory(allRows, conditions, sortColumn, descending, topN);
-    }
-
-    // ----------------- helper types & methods -----------------
-
-    private static class Condition {
-        final String column; // lowercased
-        final String value;  // lowercased
-
-        Condition(String column, String value) {
-            this.column = column;
-            this.value = value;
-        }
+        return new ParsedQuery(conditions, sortColumn, descending, topN);
     }
 
     /**
-     * Parses text like:
-     * "department is engineering and city is paris"
-     * into a list of Condition(column, value).
+     * Parses an aggregate question: "count rows where city is paris",
+     * "average salary by department", "total salary per city group by ...",
+     * "max experience by city order by experience desc top 3".
+     * Conditions, ORDER BY and TOP N are parsed exactly like {@link #parse}.
+     *
+     * @throws IllegalArgumentException when the question has no aggregate phrase
      */
-    private List<Condition> parseConditions(String wherePart) {
-        List<Condition> conditions = new ArrayList<>();
-
-        // split `a is b and c is d`
-        String[] fragments = wherePart.split("\\s+and\\s+");
-        for (String fragment : fragments) {
-            String f = fragment.trim();
-
-            String[] pieces;
-            if (f.contains(" is ")) {
-                pieces = f.split("\\s+is\\s+", 2);
-            } else if (f.contains("=")) {
-                pieces = f.split("=", 2);
-            } else {
-                continue; // unsupported fragment
-            }
-
-            if (pieces.length < 2) {
-                continue;
-            }
-
-            String col = pieces[0].trim().toLowerCase(Locale.ROOT);   // "department"
-            String val = pieces[1].trim().toLowerCase(Locale.ROOT);   // "engineering"
-
-            if (!col.isEmpty() && !val.isEmpty()) {
-                conditions.add(new Condition(col, val));
-            }
-        }
-
-        return conditions;
-    }
-
-    private List<DataRow> filterInMemory(List<DataRow> allRows,
-                                         List<Condition> conditions,
-                                         String sortColumn,
-                                         boolean descending,
-                                         Integer topN) {
-
-        List<DataRow> filtered = new ArrayList<>(allRows);
-
-        // WHERE conditions
-        if (conditions != null && !conditions.isEmpty()) {
-            filtered = filtered.stream()
-                    .filter(row -> matchesAllConditions(row, conditions))
-                    .collect(Collectors.toList());
+    public AggregateQuery parseAggregate(String question) {
+        String lower = question == null ? "" : question.trim().toLowerCase(Locale.ROOT);
+
+        // the aggregate phrase lives before WHERE / ORDER BY
+        int end = firstAfter(0, lower.length(), lower.indexOf("where"), lower.indexOf("order by"),
+                lower.indexOf("group by"));
+        Matcher m = AGGREGATE_PHRASE.matcher(lower.substring(0, end));
+        if (!m.find()) {
+            throw new IllegalArgumentException("No aggregate (count, sum, average, min, max) in: " + question);
         }
+        AggregateQuery.Function function = AGGREGATE_WORDS.get(m.group(1));
+        String column = m.group(2);
+        String groupBy = m.group(3);
 
-        // ORDER BY
-        if (sortColumn != null && !sortColumn.isEmpty()) {
-            final String sortColFinal = sortColumn;
-            Comparator<DataRow> cmp = Comparator.comparing(
-                    row -> extractComparableValue(row, sortColFinal),
-                    NaturalLanguageQueryService::compareValues
-            );
-            if (descending) {
-                cmp = cmp.reversed();
-            }
-
-            filtered.sort(cmp);
+        Matcher g = GROUP_BY.matcher(lower);
+        if (g.find()) {
+            groupBy = g.group(1);
         }
 
-        // TOP N
-        if (topN != null && topN > 0 && filtered.size() > topN) {
-            filtered = new ArrayList<>(filtered.subList(0, topN));
+        if (function == AggregateQuery.Function.COUNT) {
+            column = null; // counts rows ("count rows", "how many employees")
+        } else if (column == null) {
+            throw new IllegalArgumentException(function + " needs a column, e.g. \"" + m.group(1) + " salary\"");
         }
-
-        return filtered;
+        return new AggregateQuery(function, column, groupBy, parse(question));
     }
 
-    private boolean matchesAllConditions(DataRow row, List<Condition> conditions) {
-        List<DataCell> cells = row.getCells();
-        if (cells == null || cells.isEmpty()) {
-            return false;
-        }
+    /**
+     * Runs an aggregate question in the database (see {@link #parseAggregate}).
+     */
+    public AggregateResult aggregate(String dataset, String question) {
+        AggregateQuery query = parseAggregate(question);
+        return new AggregateResult(query, dataRowQueryService.aggregate(dataset, query));
+    }
 
-        for (Condition c : conditions) {
-            boolean matched = cells.stream().anyMatch(cell -> {
-                String colName = safeLower(cell.getColumnName());
-                String val = safeLower(cell.getValue());
-                return colName.equals(c.column) && val.equals(c.value);
-            });
+    // ----------------- helper methods -----------------
 
-            if (!matched) {
-                return false;
+    // Smallest index >= from among candidates (-1 = absent), or end
+    private static int firstAfter(int from, int end, int... candidates) {
+        int result = end;
+        for (int idx : candidates) {
+            if (idx >= from && idx < result) {
+                result = idx;
             }
         }
-        return true;
-    }
-
-    private static String safeLower(String s) {
-        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+        return result;
     }
 
     /**
-     * Extract value of a given column from a row, used for sorting.
+     * Parses text like:
+     * "department is engineering and city is paris and salary > 50000
+     *  and experience between 3 and 7"
+     * into a list of QueryConditions.
      */
-    private String extractComparableValue(DataRow row, String sortColumnLower) {
-        String sortCol = sortColumnLower.toLowerCase(Locale.ROOT);
-        for (DataCell cell : row.getCells()) {
-            if (cell.getColumnName() != null &&
-                    cell.getColumnName().equalsIgnoreCase(sortCol)) {
-                return cell.getValue() == null ? "" : cell.getValue();
+    private List<QueryCondition> parseConditions(String wherePart) {
+        List<QueryCondition> conditions = new ArrayList<>();
+
+        // split `a is b and c > d`; the "and" of a BETWEEN joins two fragments back
+        String[] fragments = AND.split(wherePart);
+        for (int i = 0; i < fragments.length; i++) {
+            String f = fragments[i].trim();
+
+            Matcher between = BETWEEN.matcher(f);
+            if (between.matches() && i + 1 < fragments.length) {
+                String col = between.group(1).trim();
+                String low = between.group(2).trim();
+                String high = fragments[++i].trim();
+                if (!col.isEmpty() && !low.isEmpty() && !high.isEmpty()) {
+                    conditions.add(new QueryCondition(col, QueryCondition.Operator.BETWEEN, low, high));
+                }
+                continue;
             }
-        }
-        return "";
-    }
 
-    /**
-     * Compares two values; tries numeric comparison first, then falls back to string.
-     */
-    private static int compareValues(String a, String b) {
-        if (a == null) a = "";
-        if (b == null) b = "";
-
-        // Try numeric
-        try {
-            double da = Double.parseDouble(a);
-            double db = Double.parseDouble(b);
-            return Double.compare(da, db);
-        } catch (NumberFormatException ignored) {
-            // Not numeric, fall back to lexicographic
+            for (OperatorPhrase op : OPERATOR_PHRASES) {
+                int at = f.indexOf(op.text);
+                if (at < 0) {
+                    continue;
+                }
+                String col = f.substring(0, at).trim();                    // "department"
+                String val = f.substring(at + op.text.length()).trim();    // "engineering"
+                if (!col.isEmpty() && !val.isEmpty()) {
+                    conditions.add(new QueryCondition(col, op.operator, val, null));
+                }
+                break;
+            }
         }
 
-        return a.compareToIgnoreCase(b);
+        return conditions;
     }
 
     /**
      * Extracts "top N" from text like "show top 2 rows ...".
      */
     private Integer extractTopN(String lowerQuestion) {
-        Pattern p = Pattern.compile("top\\s+(\\d+)");
-        Matcher m = p.matcher(lowerQuestion);
+        Matcher m = TOP_N.matcher(lowerQuestion);
         if (m.find()) {
             try {
                 return Integer.parseInt(m.group(1));
@@ -276,4 +310,14 @@ public class NaturalLanguageQueryService {
         }
         return null;
     }
-}
\ No newline at end of file
+
+    private static final class OperatorPhrase {
+        final String text;
+        final QueryCondition.Operator operator;
+
+        OperatorPhrase(String text, QueryCondition.Operator operator) {
+            this.text = text;
+            this.operator = operator;
+        }
+    }
+}
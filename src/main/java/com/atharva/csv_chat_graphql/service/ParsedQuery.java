@@ -0,0 +1,54 @@
+package com.nupur.csv_chat_graphql.service;
+
+import java.util.List;
+
+/**
+ * Structured form of a natural-language question:
+ * WHERE conditions (AND-ed), optional ORDER BY column/direction and optional TOP N.
+ */
+public final class ParsedQuery {
+
+    private final List<QueryCondition> conditions;
+    private final String sortColumn;
+    private final boolean descending;
+    private final Integer limit;
+
+    public ParsedQuery(List<QueryCondition> conditions, String sortColumn, boolean descending, Integer limit) {
+        this.conditions = List.copyOf(conditions);
+        this.sortColumn = sortColumn;
+        this.descending = descending;
+        this.limit = limit;
+    }
+
+    public List<QueryCondition> getConditions() {
+        return conditions;
+    }
+
+    public String getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /** TOP N, or null when the question has no (positive) limit. */
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public boolean hasSort() {
+        return sortColumn != null && !sortColumn.isEmpty();
+    }
+
+    public boolean hasLimit() {
+        return limit != null && limit > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "where " + conditions
+                + (hasSort() ? " order by " + sortColumn + (descending ? " desc" : " asc") : "")
+                + (hasLimit() ? " limit " + limit : "");
+    }
+}
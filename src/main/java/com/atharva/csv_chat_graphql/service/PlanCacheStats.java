@@ -0,0 +1,47 @@
+package com.nupur.csv_chat_graphql.service;
+
+/**
+ * Snapshot of the {@link QueryPlanCache} counters.
+ */
+public final class PlanCacheStats {
+
+    private final long size;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+
+    public PlanCacheStats(long size, long hits, long misses, long evictions, long invalidations) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /** Times a dataset's plans were dropped because its CSV's columns changed. */
+    public long getInvalidations() {
+        return invalidations;
+    }
+}
@@ -0,0 +1,41 @@
+package com.nupur.csv_chat_graphql.service;
+
+/**
+ * Immutable plan for one question: the parsed query (conditions most selective
+ * first) plus the route chosen for it and the estimated number of rows it
+ * answers. Cached by {@link QueryPlanCache}, so repeated questions skip parsing.
+ */
+public final class PlannedQuery {
+
+    private final ParsedQuery query;
+    private final QueryRoute route;
+    // from the column statistics; -1 when there are none
+    private final long estimatedRows;
+
+    public PlannedQuery(ParsedQuery query, QueryRoute route) {
+        this(query, route, -1);
+    }
+
+    public PlannedQuery(ParsedQuery query, QueryRoute route, long estimatedRows) {
+        this.query = query;
+        this.route = route;
+        this.estimatedRows = estimatedRows;
+    }
+
+    public ParsedQuery getQuery() {
+        return query;
+    }
+
+    public QueryRoute getRoute() {
+        return route;
+    }
+
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    @Override
+    public String toString() {
+        return route + ": " + query + (estimatedRows < 0 ? "" : " (~" + estimatedRows + " rows)");
+    }
+}
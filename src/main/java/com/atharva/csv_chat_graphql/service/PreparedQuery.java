@@ -0,0 +1,47 @@
+package com.nupur.csv_chat_graphql.service;
+
+/**
+ * A question prepared on a dataset (askSmart): its id, and the plan that
+ * {@code prepared(id)} runs without parsing the question again. The plan is
+ * null once an import changed the dataset's columns; it is then planned
+ * again from the question on the next run.
+ */
+public final class PreparedQuery {
+
+    private final String id;
+    private final String dataset;
+    private final String question; // normalized
+    private final PlannedQuery plan;
+
+    PreparedQuery(String id, String dataset, String question, PlannedQuery plan) {
+        this.id = id;
+        this.dataset = dataset;
+        this.question = question;
+        this.plan = plan;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDataset() {
+        return dataset;
+    }
+
+    public String getQuestion() {
+        return question;
+    }
+
+    public PlannedQuery getPlan() {
+        return plan;
+    }
+
+    PreparedQuery withPlan(PlannedQuery plan) {
+        return new PreparedQuery(id, dataset, question, plan);
+    }
+
+    @Override
+    public String toString() {
+        return id + " (" + dataset + "): " + plan;
+    }
+}
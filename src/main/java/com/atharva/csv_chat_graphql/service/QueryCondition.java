@@ -0,0 +1,134 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.CellValues;
+import com.nupur.csv_chat_graphql.DataCell;
+
+import java.time.LocalDate;
+
+/**
+ * One condition from a natural-language WHERE clause: "column is value",
+ * "column > value", "column between a and b", ...
+ * Column and values are stored lowercased; text matching is case-insensitive.
+ *
+ * Range operators compare numerically when the value is a number, by date when
+ * it is an ISO date, and as (lowercased) text otherwise.
+ */
+public final class QueryCondition {
+
+    public enum Operator {
+        EQ("="), NE("!="), GT(">"), GTE(">="), LT("<"), LTE("<="), BETWEEN("between");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+
+    private final String column;
+    private final Operator operator;
+    private final String value;
+    // upper bound for BETWEEN, null otherwise
+    private final String value2;
+    // range bounds parsed once, not per compared row
+    private final Bound bound;
+    private final Bound bound2;
+
+    public QueryCondition(String column, String value) {
+        this(column, Operator.EQ, value, null);
+    }
+
+    public QueryCondition(String column, Operator operator, String value, String value2) {
+        this.column = column;
+        this.operator = operator;
+        this.value = value;
+        this.value2 = value2;
+        this.bound = operator == Operator.EQ || operator == Operator.NE ? null : new Bound(value);
+        this.bound2 = operator == Operator.BETWEEN ? new Bound(value2) : null;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getValue2() {
+        return value2;
+    }
+
+    public boolean isEquality() {
+        return operator == Operator.EQ;
+    }
+
+    /** Java-side evaluation against the row's cell of {@link #getColumn()} (null = no such cell). */
+    public boolean matches(DataCell cell) {
+        if (cell == null || cell.getCellValue() == null) {
+            return false;
+        }
+        String text = DataCell.normalize(cell.getCellValue());
+        switch (operator) {
+            case EQ:
+                return text.equals(value);
+            case NE:
+                return !text.equals(value);
+            case BETWEEN:
+                return compare(cell, text, bound) >= 0 && compare(cell, text, bound2) <= 0;
+            default:
+                int cmp = compare(cell, text, bound);
+                if (cmp == Integer.MIN_VALUE) {
+                    return false;
+                }
+                return switch (operator) {
+                    case GT -> cmp > 0;
+                    case GTE -> cmp >= 0;
+                    case LT -> cmp < 0;
+                    default -> cmp <= 0;
+                };
+        }
+    }
+
+    // Sign of cell - bound, or MIN_VALUE when the cell has no value of the bound's type
+    private static int compare(DataCell cell, String text, Bound bound) {
+        if (bound.number != null) {
+            return cell.getNumberValue() == null ? Integer.MIN_VALUE
+                    : Double.compare(cell.getNumberValue(), bound.number);
+        }
+        if (bound.date != null) {
+            return cell.getDateValue() == null ? Integer.MIN_VALUE
+                    : Integer.signum(cell.getDateValue().compareTo(bound.date));
+        }
+        return Integer.signum(text.compareTo(bound.text));
+    }
+
+    @Override
+    public String toString() {
+        return operator == Operator.BETWEEN
+                ? column + " between " + value + " and " + value2
+                : column + " " + operator.getSymbol() + " " + value;
+    }
+
+    // A range bound as a number, else a date, else text
+    private static final class Bound {
+
+        private final String text;
+        private final Double number;
+        private final LocalDate date;
+
+        private Bound(String text) {
+            this.text = text;
+            this.number = text == null ? null : CellValues.parseNumber(text);
+            this.date = text == null || number != null ? null : CellValues.parseDate(text);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.mapped.MappedCsvStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Debug helper: captures the SQL a question compiles to (its matching-id
+ * query, run for at most one row so nothing is loaded) and asks the database
+ * how it executes it. A mapped dataset (scanned in place) or a compact one
+ * (no cells to query) has no SQL and says so instead.
+ */
+@Service
+public class QueryExplainService {
+
+    private static final String LOOKUP_INDEX = "idx_data_cell_lookup";
+
+    private final NaturalLanguageQueryService naturalLanguageQueryService;
+    private final QuerydslQueryCompiler queryCompiler;
+    private final DatasetGenerations generations;
+    private final ColumnDictionaries dictionaries;
+    private final MappedCsvStore mappedCsvStore;
+    private final JdbcTemplate jdbcTemplate;
+
+    public QueryExplainService(NaturalLanguageQueryService naturalLanguageQueryService,
+                               QuerydslQueryCompiler queryCompiler,
+                               DatasetGenerations generations,
+                               ColumnDictionaries dictionaries,
+                               MappedCsvStore mappedCsvStore,
+                               JdbcTemplate jdbcTemplate) {
+        this.naturalLanguageQueryService = naturalLanguageQueryService;
+        this.queryCompiler = queryCompiler;
+        this.generations = generations;
+        this.dictionaries = dictionaries;
+        this.mappedCsvStore = mappedCsvStore;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public List<QueryPlan> explain(String dataset, String question) {
+        ParsedQuery parsed = naturalLanguageQueryService.parse(question);
+        if (mappedCsvStore.current(dataset).isPresent()) {
+            return List.of(QueryPlan.notSqlBacked("mapped CSV: scanned in place, not SQL-backed"));
+        }
+        long generation = generations.current(dataset);
+        if (dictionaries.forGeneration(generation).isCompact()) {
+            return List.of(QueryPlan.notSqlBacked("compact rows: evaluated in memory, not SQL-backed"));
+        }
+        List<String> statements = SqlCapture.capture(() -> queryCompiler.compileIds(parsed, generation).limit(1).fetch());
+
+        List<QueryPlan> plans = new ArrayList<>();
+        for (String sql : statements) {
+            // H2 explains a prepared statement without its parameters bound
+            String plan = jdbcTemplate.query(con -> con.prepareStatement("EXPLAIN " + sql),
+                    rs -> rs.next() ? rs.getString(1) : "");
+            plans.add(new QueryPlan(sql, plan,
+                    plan != null && plan.toLowerCase(Locale.ROOT).contains(LOOKUP_INDEX)));
+        }
+        return plans;
+    }
+}
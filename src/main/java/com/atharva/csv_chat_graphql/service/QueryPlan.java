@@ -0,0 +1,47 @@
+package com.nupur.csv_chat_graphql.service;
+
+/**
+ * One SQL statement of a question together with H2's EXPLAIN output for it,
+ * or (see {@link #notSqlBacked}) why the question runs without SQL.
+ */
+public final class QueryPlan {
+
+    private final String sql;
+    private final String plan;
+    private final boolean usesLookupIndex;
+    private final boolean sqlBacked;
+
+    public QueryPlan(String sql, String plan, boolean usesLookupIndex) {
+        this(sql, plan, usesLookupIndex, true);
+    }
+
+    private QueryPlan(String sql, String plan, boolean usesLookupIndex, boolean sqlBacked) {
+        this.sql = sql;
+        this.plan = plan;
+        this.usesLookupIndex = usesLookupIndex;
+        this.sqlBacked = sqlBacked;
+    }
+
+    /** A dataset whose questions run without SQL; {@code reason} becomes the plan. */
+    public static QueryPlan notSqlBacked(String reason) {
+        return new QueryPlan("", reason, false, false);
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    /** True when the plan seeks idx_data_cell_lookup. */
+    public boolean isUsesLookupIndex() {
+        return usesLookupIndex;
+    }
+
+    /** False when the dataset is answered without SQL (mapped CSV, compact rows). */
+    public boolean isSqlBacked() {
+        return sqlBacked;
+    }
+}
@@ -0,0 +1,114 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.nupur.csv_chat_graphql.config.CsvQueryProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded cache (Caffeine, W-TinyLFU eviction) from (dataset, normalized
+ * question text) to its {@link PlannedQuery}. Dashboards repeat the same few
+ * hundred questions, so most calls skip parsing and route selection entirely.
+ *
+ * Prepared questions (askSmart) keep their plan under an id instead, for
+ * {@code prepared(id)} to run without even normalizing the question.
+ *
+ * Plans depend on the dataset's columns and on its data (the route and the
+ * condition order come from the column statistics), so a dataset's plans are
+ * dropped whenever an import replaces it.
+ */
+@Component
+public class QueryPlanCache {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanCache.class);
+
+    // Cannot occur in a dataset name
+    private static final char KEY_SEPARATOR = '\n';
+
+    private final Cache<String, PlannedQuery> plans;
+    private final Cache<String, PreparedQuery> prepared;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public QueryPlanCache(CsvQueryProperties queryProperties) {
+        this.plans = Caffeine.newBuilder()
+                .maximumSize(queryProperties.getPlanCacheSize())
+                .recordStats()
+                .build();
+        this.prepared = Caffeine.newBuilder()
+                .maximumSize(queryProperties.getPreparedQueries())
+                .build();
+    }
+
+    /**
+     * Cached plan for the question on {@code dataset}, computed by
+     * {@code planner} (which receives the normalized text) on a miss.
+     */
+    public PlannedQuery get(String dataset, String question, Function<String, PlannedQuery> planner) {
+        String normalized = normalize(question);
+        return plans.get(dataset + KEY_SEPARATOR + normalized, key -> planner.apply(normalized));
+    }
+
+    /**
+     * Keeps {@code plan} as the prepared question; the same question (ignoring
+     * case and surrounding blanks) on the same dataset always gets the same id.
+     */
+    public PreparedQuery prepare(String dataset, String question, PlannedQuery plan) {
+        String normalized = normalize(question);
+        PreparedQuery query = new PreparedQuery(preparedId(dataset, normalized), dataset, normalized, plan);
+        prepared.put(query.getId(), query);
+        return query;
+    }
+
+    /**
+     * The prepared question with this id, null when there is none (or it was evicted).
+     */
+    public PreparedQuery prepared(String id) {
+        return id == null ? null : prepared.getIfPresent(id);
+    }
+
+    /**
+     * Called after an import committed: drops the dataset's plans, even when
+     * the columns are the same, since new data means new statistics.
+     */
+    public void datasetReplaced(String dataset) {
+        String prefix = dataset + KEY_SEPARATOR;
+        plans.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        // prepared ids stay valid, their questions are planned again on the next run
+        prepared.asMap().replaceAll((id, query) -> query.getDataset().equals(dataset) ? query.withPlan(null) : query);
+        invalidations.incrementAndGet();
+        log.info("Dataset '{}' replaced, its query plans were dropped", dataset);
+    }
+
+    public PlanCacheStats stats() {
+        CacheStats stats = plans.stats();
+        return new PlanCacheStats(plans.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), invalidations.get());
+    }
+
+    // SHA-256 of (dataset, normalized question), 128 bits in hex
+    static String preparedId(String dataset, String normalized) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest((dataset + KEY_SEPARATOR + normalized).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Parsing is case-insensitive and ignores surrounding blanks, so the key is too
+    static String normalize(String question) {
+        return question == null ? "" : question.trim().toLowerCase(Locale.ROOT);
+    }
+}
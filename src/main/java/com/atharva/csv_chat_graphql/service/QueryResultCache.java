@@ -0,0 +1,138 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.nupur.csv_chat_graphql.DataCell;
+import com.nupur.csv_chat_graphql.DataRow;
+import com.nupur.csv_chat_graphql.config.CsvQueryProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Connection pages of read queries (ask, rowsByColumnValue) keyed by
+ * (dataset, dataset version, normalized query). A dataset only changes when an
+ * import replaces it, so a result stays valid until then.
+ *
+ * The dataset's version is bumped once the import has committed: a reader that
+ * looked up version N before the bump can only ever store or find entries under
+ * N, which nobody asks for afterwards, so no one sees the old or a
+ * half-imported dataset through the cache. Entries are weighed by their estimated heap size
+ * and evicted (W-TinyLFU) beyond csv.query.result-cache.max-bytes.
+ */
+@Component
+public class QueryResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryResultCache.class);
+
+    // Rough per-object costs (headers, references, boxed values)
+    private static final int ROW_BYTES = 64;
+    private static final int CELL_BYTES = 224;
+    private static final int CURSOR_BYTES = 64;
+
+    private final boolean enabled;
+    private final Cache<String, Entry> results;
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong replacements = new AtomicLong();
+
+    public QueryResultCache(CsvQueryProperties queryProperties) {
+        CsvQueryProperties.ResultCache settings = queryProperties.getResultCache();
+        this.enabled = settings.isEnabled();
+        this.results = Caffeine.newBuilder()
+                .maximumWeight(settings.getMaxBytes())
+                .weigher((String key, Entry entry) -> entry.bytes)
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cached connection page of {@code query}; the cursor and page size are part
+     * of the key. On a miss {@code loader} runs (outside any cache lock) and
+     * {@code freeze} turns its result into something that can be shared between
+     * requests before it is stored.
+     */
+    public RowPage page(String dataset, String query, RowCursor after, int first,
+                        Supplier<RowPage> loader, UnaryOperator<RowPage> freeze) {
+        String key = query + "|" + (after == null ? "" : after.encode()) + "|" + first;
+        return get(dataset, key, loader, freeze, page -> bytes(page.getRows(), page.getCursors().size()));
+    }
+
+    /** Called after an import committed: results of the dataset's old data are never served again. */
+    public void datasetReplaced(String dataset) {
+        long current = versions.merge(dataset, 1L, Long::sum);
+        replacements.incrementAndGet();
+        String prefix = dataset + "|";
+        results.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        log.info("Dataset '{}' replaced, its cached results are now at version {}", dataset, current);
+    }
+
+    public ResultCacheStats stats() {
+        CacheStats stats = results.stats();
+        long bytes = results.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L);
+        return new ResultCacheStats(enabled, replacements.get(), results.estimatedSize(), bytes,
+                stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(String dataset, String query, Supplier<T> loader, UnaryOperator<T> freeze,
+                      ToLongFunction<T> weigher) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long loadedVersion = versions.getOrDefault(dataset, 0L);
+        // dataset names cannot contain '|'
+        String key = dataset + "|" + loadedVersion + "|" + query;
+
+        Entry cached = results.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached.value;
+        }
+
+        T value = freeze.apply(loader.get());
+        // Not worth keeping if an import finished meanwhile
+        if (versions.getOrDefault(dataset, 0L) == loadedVersion) {
+            results.put(key, new Entry(value, (int) Math.min(Integer.MAX_VALUE, weigher.applyAsLong(value))));
+        }
+        return value;
+    }
+
+    // Estimated heap size of rows (+ cursors); each cell holds name, value and their lowercased keys
+    static long bytes(List<DataRow> rows, int cursors) {
+        long bytes = (long) cursors * CURSOR_BYTES;
+        for (DataRow row : rows) {
+            bytes += ROW_BYTES;
+            for (DataCell cell : row.getCells()) {
+                bytes += CELL_BYTES + 4L * (length(cell.getColumnName()) + length(cell.getCellValue()));
+            }
+        }
+        return bytes;
+    }
+
+    private static int length(String s) {
+        return s == null ? 0 : s.length();
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final int bytes;
+
+        private Entry(Object value, int bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+}
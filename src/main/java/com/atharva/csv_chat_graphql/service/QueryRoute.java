@@ -0,0 +1,15 @@
+package com.nupur.csv_chat_graphql.service;
+
+/**
+ * Where a parsed question is executed.
+ */
+public enum QueryRoute {
+    /** In-memory columnar table (csv.query.columnar.enabled, equality filters only). */
+    COLUMNAR,
+    /** One QueryDSL query in the database. */
+    SQL,
+    /** Java-side evaluation over paged rows (csv.query.pushdown=false). */
+    JAVA,
+    /** Scan of a memory-mapped CSV file and its index (csv.import.layout=mapped). */
+    MAPPED
+}
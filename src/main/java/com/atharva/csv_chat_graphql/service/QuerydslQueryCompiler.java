@@ -0,0 +1,274 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.CellValues;
+import com.nupur.csv_chat_graphql.DataCell;
+import com.nupur.csv_chat_graphql.DataRow;
+import com.nupur.csv_chat_graphql.QDataCell;
+import com.nupur.csv_chat_graphql.QDataRow;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.ComparableExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.core.types.dsl.StringExpression;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Turns a {@link ParsedQuery} into ONE QueryDSL query over DataRow:
+ *
+ *   select r from DataRow r
+ *   left join r.cells s on s.columnKey = :sortColumn                -- only with ORDER BY
+ *   where r.id in (select c1.row.id from DataCell c1
+ *                  where c1.generation = :current
+ *                    and c1.columnKey = :col1 and c1.valueKey = :val1)
+ *     and r.id in (... one sub-query per condition ...)     -- r.generation = :current without any
+ *   order by <number/text/empty rank>, s.numberValue, lower(s.cellValue), r.id
+ *   limit :topN
+ *
+ * so filtering, sorting and TOP N all happen in the database. Pages of a
+ * connection add a keyset predicate on the same ORDER BY keys instead of OFFSET.
+ * Every query reads one dataset generation, which also selects the dataset:
+ * generations are unique across datasets (see {@link DatasetGenerations}).
+ */
+@Component
+public class QuerydslQueryCompiler {
+
+    private static final QDataCell SORT_CELL = new QDataCell("sortCell");
+
+    private final JPAQueryFactory queryFactory;
+
+    public QuerydslQueryCompiler(JPAQueryFactory queryFactory) {
+        this.queryFactory = queryFactory;
+    }
+
+    /** The query over one dataset generation (see {@link DatasetGenerations#current}). */
+    public JPAQuery<DataRow> compile(ParsedQuery query, long generation) {
+        QDataRow row = QDataRow.dataRow;
+        JPAQuery<?> sql = build(query, generation, null);
+        if (query.hasLimit()) {
+            sql.limit(query.getLimit());
+        }
+        return sql.select(row);
+    }
+
+    /** Same query selecting only the row ids, in the same order (for a forward-only cursor). */
+    public JPAQuery<Long> compileIds(ParsedQuery query, long generation) {
+        QDataRow row = QDataRow.dataRow;
+        JPAQuery<?> sql = build(query, generation, null);
+        if (query.hasLimit()) {
+            sql.limit(query.getLimit());
+        }
+        return sql.select(row.id);
+    }
+
+    /**
+     * One keyset page: the rows after {@code after} (null = from the start),
+     * at most {@code size} of them, each with its sort-cell value (null without
+     * ORDER BY) for the next cursor. No OFFSET, so page N costs the same as page 1.
+     */
+    public JPAQuery<Tuple> compilePage(ParsedQuery query, long generation, RowCursor after, int size) {
+        QDataRow row = QDataRow.dataRow;
+        JPAQuery<?> sql = build(query, generation, after);
+        sql.limit(size);
+        return query.hasSort()
+                ? sql.select(row, SORT_CELL.cellValue)
+                : sql.select(row, Expressions.nullExpression(String.class));
+    }
+
+    private JPAQuery<?> build(ParsedQuery query, long generation, RowCursor after) {
+        QDataRow row = QDataRow.dataRow;
+        JPAQuery<?> sql = queryFactory.query().from(row);
+
+        where(sql, row, query, generation);
+
+        if (query.hasSort()) {
+            sql.leftJoin(row.cells, SORT_CELL)
+                    .on(SORT_CELL.columnKey.eq(DataCell.normalize(query.getSortColumn())));
+
+            // Numbers first (numerically, on the typed number_value), then text,
+            // then empty/missing cells — in both directions. Spelled out as a CASE
+            // rank because "nulls last" is not rendered for every JPA provider.
+            NumberExpression<Integer> rank = rank(SORT_CELL);
+            NumberExpression<Double> numeric = SORT_CELL.numberValue;
+            StringExpression text = SORT_CELL.cellValue.coalesce("").lower();
+
+            if (after != null) {
+                sql.where(afterSorted(rank, numeric, text, row, after, query.isDescending()));
+            }
+
+            sql.orderBy(rank.asc());
+            if (query.isDescending()) {
+                sql.orderBy(numeric.desc(), text.desc());
+            } else {
+                sql.orderBy(numeric.asc(), text.asc());
+            }
+        } else if (after != null) {
+            sql.where(row.id.gt(after.getRowId()));
+        }
+        // Ties (and unsorted results) keep import order
+        sql.orderBy(row.id.asc());
+        return sql;
+    }
+
+    /**
+     * Aggregate question → one GROUP BY query returning (group label, value, row count):
+     *
+     *   select min(g.cellValue), avg(v.numberValue), count(r.id) from DataRow r
+     *   left join r.cells g on g.columnKey = :groupBy
+     *   left join r.cells v on v.columnKey = :column
+     *   where r.id in (...conditions...)
+     *   group by g.valueKey order by ... limit :topN
+     *
+     * Groups are case-insensitive (like the filters); the label is one of the
+     * group's original spellings.
+     */
+    public JPAQuery<Tuple> compileAggregate(AggregateQuery query, long generation) {
+        QDataRow row = QDataRow.dataRow;
+        ParsedQuery filter = query.getFilter();
+        JPAQuery<?> sql = queryFactory.query().from(row);
+        where(sql, row, filter, generation);
+
+        QDataCell valueCell = new QDataCell("valueCell");
+        if (query.getColumn() != null) {
+            sql.leftJoin(row.cells, valueCell).on(valueCell.columnKey.eq(DataCell.normalize(query.getColumn())));
+        }
+        NumberExpression<Double> value = switch (query.getFunction()) {
+            case SUM -> valueCell.numberValue.sum();
+            case AVG -> valueCell.numberValue.avg();
+            case MIN -> valueCell.numberValue.min();
+            case MAX -> valueCell.numberValue.max();
+            case COUNT -> row.id.count().castToNum(Double.class);
+        };
+        NumberExpression<Long> count = row.id.count();
+
+        Expression<String> label = Expressions.nullExpression(String.class);
+        if (query.isGrouped()) {
+            QDataCell groupCell = new QDataCell("groupCell");
+            sql.leftJoin(row.cells, groupCell).on(groupCell.columnKey.eq(DataCell.normalize(query.getGroupBy())));
+            sql.groupBy(groupCell.valueKey);
+            label = groupCell.cellValue.min();
+
+            if (query.sortsByGroup()) {
+                sql.orderBy(filter.isDescending() ? groupCell.valueKey.desc() : groupCell.valueKey.asc());
+            } else if (filter.hasSort()) {
+                sql.orderBy(filter.isDescending() ? value.desc() : value.asc());
+            } else {
+                sql.orderBy(groupCell.valueKey.asc());
+            }
+        }
+
+        if (filter.hasLimit()) {
+            sql.limit(filter.getLimit());
+        }
+        return sql.select(label, value, count);
+    }
+
+    /**
+     * One "row.id in (sub-query)" per condition, each sub-query limited to the
+     * current generation (a row's cells share its generation). Only an
+     * unconditioned query filters DataRow.generation itself: next to the IN
+     * sub-queries it would make H2 walk idx_data_row_generation and test every
+     * row against them, instead of seeking the primary key with their ids.
+     */
+    private static void where(JPAQuery<?> sql, QDataRow row, ParsedQuery query, long generation) {
+        if (query.getConditions().isEmpty()) {
+            sql.where(row.generation.eq(generation));
+        }
+        int alias = 0;
+        for (QueryCondition condition : query.getConditions()) {
+            QDataCell cell = new QDataCell("c" + alias++);
+            sql.where(row.id.in(JPAExpressions.select(cell.row.id)
+                    .from(cell)
+                    .where(cell.generation.eq(generation),
+                            cell.columnKey.eq(DataCell.normalize(condition.getColumn())),
+                            condition(cell, condition))));
+        }
+    }
+
+    /**
+     * Value part of a condition. Equality is a plain match on value_key, an index
+     * seek on idx_data_cell_lookup (generation, column_key, value_key, row_id). Ranges compare
+     * number_value (idx_data_cell_number) or date_value when the bound is a
+     * number / ISO date, and value_key as text otherwise — same rules as
+     * {@link QueryCondition#matches}.
+     */
+    private static BooleanExpression condition(QDataCell cell, QueryCondition condition) {
+        return switch (condition.getOperator()) {
+            case EQ -> cell.valueKey.eq(DataCell.normalize(condition.getValue()));
+            case NE -> cell.valueKey.ne(DataCell.normalize(condition.getValue()));
+            case BETWEEN -> bound(cell, QueryCondition.Operator.GTE, condition.getValue())
+                    .and(bound(cell, QueryCondition.Operator.LTE, condition.getValue2()));
+            default -> bound(cell, condition.getOperator(), condition.getValue());
+        };
+    }
+
+    private static BooleanExpression bound(QDataCell cell, QueryCondition.Operator op, String bound) {
+        Double number = CellValues.parseNumber(bound);
+        if (number != null) {
+            return switch (op) {
+                case GT -> cell.numberValue.gt(number);
+                case GTE -> cell.numberValue.goe(number);
+                case LT -> cell.numberValue.lt(number);
+                default -> cell.numberValue.loe(number);
+            };
+        }
+        LocalDate date = CellValues.parseDate(bound);
+        return date != null
+                ? compare(cell.dateValue, op, date)
+                : compare(cell.valueKey, op, DataCell.normalize(bound));
+    }
+
+    private static <T extends Comparable<? super T>> BooleanExpression compare(ComparableExpression<T> expr,
+                                                                               QueryCondition.Operator op, T bound) {
+        return switch (op) {
+            case GT -> expr.gt(bound);
+            case GTE -> expr.goe(bound);
+            case LT -> expr.lt(bound);
+            default -> expr.loe(bound);
+        };
+    }
+
+    /**
+     * Keyset predicate "sort key > cursor key" over (rank, numeric, text, id),
+     * where numeric/text compare the other way round for DESC. The cursor's keys
+     * are computed by the database from its value, exactly like the row keys.
+     */
+    private static Predicate afterSorted(NumberExpression<Integer> rank, NumberExpression<Double> numeric,
+                                         StringExpression text, QDataRow row, RowCursor after,
+                                         boolean descending) {
+        String value = after.getSortValue();
+        Expression<String> cursorValue = Expressions.constant(value);
+        StringExpression cursorText = Expressions.stringTemplate("lower({0})", cursorValue);
+
+        BooleanExpression sameText = text.eq(cursorText).and(row.id.gt(after.getRowId()));
+        BooleanExpression textAfter = (descending ? text.lt(cursorText) : text.gt(cursorText)).or(sameText);
+
+        Double cursorNumber = CellValues.parseNumber(value);
+        int cursorRank = value.isEmpty() ? 2 : cursorNumber != null ? 0 : 1;
+        BooleanExpression sameRank;
+        if (cursorRank == 0) {
+            BooleanExpression numberAfter = descending ? numeric.lt(cursorNumber) : numeric.gt(cursorNumber);
+            sameRank = numberAfter.or(numeric.eq(cursorNumber).and(textAfter));
+        } else if (cursorRank == 1) {
+            sameRank = textAfter;
+        } else {
+            sameRank = row.id.gt(after.getRowId());
+        }
+        return rank.gt(cursorRank).or(rank.eq(cursorRank).and(sameRank));
+    }
+
+    private static NumberExpression<Integer> rank(QDataCell cell) {
+        return new CaseBuilder()
+                .when(cell.numberValue.isNotNull()).then(0)
+                .when(cell.cellValue.isNull().or(cell.cellValue.isEmpty())).then(2)
+                .otherwise(1);
+    }
+}
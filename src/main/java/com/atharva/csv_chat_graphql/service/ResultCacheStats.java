@@ -0,0 +1,60 @@
+package com.nupur.csv_chat_graphql.service;
+
+/**
+ * Snapshot of the {@link QueryResultCache} counters.
+ */
+public final class ResultCacheStats {
+
+    private final boolean enabled;
+    private final long replacements;
+    private final long size;
+    private final long estimatedBytes;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    public ResultCacheStats(boolean enabled, long replacements, long size, long estimatedBytes,
+                            long hits, long misses, long evictions) {
+        this.enabled = enabled;
+        this.replacements = replacements;
+        this.size = size;
+        this.estimatedBytes = estimatedBytes;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Committed imports so far; each one drops the cached results of its dataset. */
+    public long getReplacements() {
+        return replacements;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+}
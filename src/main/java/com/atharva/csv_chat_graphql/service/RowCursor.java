@@ -0,0 +1,64 @@
+package com.nupur.csv_chat_graphql.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position after the last row of a page: the row id, the row's value in
+ * the ORDER BY column (sorted queries only) and how many rows were already
+ * returned (so TOP N still holds across pages).
+ *
+ * Encoded as an opaque base64 string for the GraphQL "after" argument.
+ */
+public final class RowCursor {
+
+    private static final String VERSION = "k1";
+
+    private final long rowId;
+    private final String sortValue;
+    private final int seen;
+
+    public RowCursor(long rowId, String sortValue, int seen) {
+        this.rowId = rowId;
+        this.sortValue = sortValue == null ? "" : sortValue;
+        this.seen = seen;
+    }
+
+    public long getRowId() {
+        return rowId;
+    }
+
+    /** Value of the sort cell ("" for an empty or missing cell). */
+    public String getSortValue() {
+        return sortValue;
+    }
+
+    public int getSeen() {
+        return seen;
+    }
+
+    public String encode() {
+        // sort value last: it may contain the separator
+        String raw = VERSION + "|" + rowId + "|" + seen + "|" + sortValue;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Null for a null/blank cursor (= first page). */
+    public static RowCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new RowCursor(Long.parseLong(parts[1]), parts[3], Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // also covers bad base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.DataCell;
+import com.nupur.csv_chat_graphql.DataRow;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * WHERE conditions compiled against a dataset's header for the in-memory
+ * paths. Each condition's column is resolved to its header position once, so
+ * a row is checked by looking at that one cell (cells are kept in CSV column
+ * order) instead of searching every cell for every condition; a row whose
+ * cells are laid out differently falls back to the search.
+ *
+ * Stateless after construction, so one matcher is shared by all the threads
+ * of a parallel scan.
+ */
+final class RowMatcher implements Predicate<DataRow> {
+
+    private final QueryCondition[] conditions;
+    // header position of each condition's column, -1 when not in the header
+    private final int[] positions;
+    // the column appears more than once in the header: any of its cells may match
+    private final boolean[] repeated;
+
+    RowMatcher(List<QueryCondition> conditions, List<String> header) {
+        this.conditions = conditions.toArray(new QueryCondition[0]);
+        this.positions = new int[this.conditions.length];
+        this.repeated = new boolean[this.conditions.length];
+        for (int i = 0; i < this.conditions.length; i++) {
+            String column = this.conditions[i].getColumn();
+            positions[i] = position(header, column);
+            repeated[i] = positions[i] >= 0 && header.subList(positions[i] + 1, header.size()).stream()
+                    .anyMatch(column::equalsIgnoreCase);
+        }
+    }
+
+    /** Header position of a column (case-insensitive, first occurrence), -1 when missing. */
+    static int position(List<String> header, String column) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** The row's cell of a column, looked up at {@code position} first; null when missing. */
+    static DataCell cellAt(DataRow row, int position, String column) {
+        List<DataCell> cells = row.getCells();
+        if (position >= 0 && position < cells.size()) {
+            DataCell cell = cells.get(position);
+            if (column.equalsIgnoreCase(cell.getColumnName())) {
+                return cell;
+            }
+        }
+        for (DataCell cell : cells) {
+            if (cell.getColumnName() != null && cell.getColumnName().equalsIgnoreCase(column)) {
+                return cell;
+            }
+        }
+        return null;
+    }
+
+    boolean isEmpty() {
+        return conditions.length == 0;
+    }
+
+    /** True when the row matches every condition (AND). */
+    @Override
+    public boolean test(DataRow row) {
+        List<DataCell> cells = row.getCells();
+        if (cells == null || cells.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < conditions.length; i++) {
+            QueryCondition c = conditions[i];
+            boolean matched = repeated[i]
+                    ? cells.stream().anyMatch(cell -> c.getColumn().equalsIgnoreCase(cell.getColumnName()) && c.matches(cell))
+                    : c.matches(cellAt(row, positions[i], c.getColumn()));
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,39 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.DataRow;
+
+import java.util.List;
+
+/**
+ * One keyset page of rows plus the cursor of each row (same order).
+ */
+public final class RowPage {
+
+    private final List<DataRow> rows;
+    private final List<RowCursor> cursors;
+    private final boolean hasNextPage;
+    private final boolean hasPreviousPage;
+
+    public RowPage(List<DataRow> rows, List<RowCursor> cursors, boolean hasNextPage, boolean hasPreviousPage) {
+        this.rows = List.copyOf(rows);
+        this.cursors = List.copyOf(cursors);
+        this.hasNextPage = hasNextPage;
+        this.hasPreviousPage = hasPreviousPage;
+    }
+
+    public List<DataRow> getRows() {
+        return rows;
+    }
+
+    public List<RowCursor> getCursors() {
+        return cursors;
+    }
+
+    public boolean hasNextPage() {
+        return hasNextPage;
+    }
+
+    public boolean hasPreviousPage() {
+        return hasPreviousPage;
+    }
+}
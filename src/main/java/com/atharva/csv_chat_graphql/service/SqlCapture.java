@@ -0,0 +1,50 @@
+package com.nupur.csv_chat_graphql.service;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hibernate statement inspector that records the SQL of the current thread
+ * while {@link #capture} runs (and leaves every statement unchanged). It also
+ * counts every statement per thread, for the SQL-statements-per-request metric.
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+    // statements sent by each thread so far (never reset; callers take differences)
+    private static final ThreadLocal<long[]> SENT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        SENT.get()[0]++;
+        List<String> captured = CAPTURED.get();
+        if (captured != null) {
+            captured.add(sql);
+        }
+        return sql;
+    }
+
+    /** Number of SQL statements the current thread has sent since it started. */
+    public static long sentByCurrentThread() {
+        return SENT.get()[0];
+    }
+
+    /** Runs {@code action} and returns the SQL statements it sent, in order. */
+    public static List<String> capture(Runnable action) {
+        List<String> previous = CAPTURED.get();
+        List<String> captured = new ArrayList<>();
+        CAPTURED.set(captured);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                CAPTURED.remove();
+            } else {
+                CAPTURED.set(previous);
+            }
+        }
+        return captured;
+    }
+}
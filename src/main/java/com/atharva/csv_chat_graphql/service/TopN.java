@@ -0,0 +1,252 @@
+package com.nupur.csv_chat_graphql.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * ORDER BY ... TOP N without sorting everything: a bounded heap keeps the best
+ * N candidates seen so far, so selecting N of n rows is O(n log N) time and
+ * O(N) memory instead of an O(n log n) sort of the whole selection. Ties keep
+ * their input order (the heap also compares input indexes), so the result is
+ * exactly the first N of a stable sort.
+ *
+ * Row positions are ranked with a primitive comparator over precomputed keys
+ * (no boxing); large selections are split across the fork-join pool, each part
+ * keeps its own top N and the sorted parts are merged.
+ */
+public final class TopN {
+
+    private TopN() {
+    }
+
+    /**
+     * The first {@code limit} positions (negative = all) in {@code cmp} order,
+     * ties in input order; sequential.
+     */
+    public static int[] select(int[] positions, int limit, IntBinaryOperator cmp) {
+        return select(positions, limit, cmp, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same, split across the common fork-join pool when there are at least
+     * {@code parallelThreshold} positions.
+     */
+    public static int[] select(int[] positions, int limit, IntBinaryOperator cmp, int parallelThreshold) {
+        int n = positions.length;
+        if (limit < 0 || limit >= n) {
+            int[] sorted = positions.clone();
+            mergeSort(sorted, new int[n], 0, n, cmp);
+            return sorted;
+        }
+        if (limit == 0) {
+            return new int[0];
+        }
+        // ranks input indexes: by key, then by input order
+        IntBinaryOperator order = (i, j) -> {
+            int c = cmp.applyAsInt(positions[i], positions[j]);
+            return c != 0 ? c : Integer.compare(i, j);
+        };
+        int[] best = n >= parallelThreshold && parallelThreshold > 0
+                ? new Part(order, limit, 0, n, Math.max(parallelThreshold / 2, limit)).invoke()
+                : heapSelect(order, limit, 0, n);
+        int[] result = new int[best.length];
+        for (int i = 0; i < best.length; i++) {
+            result[i] = positions[best[i]];
+        }
+        return result;
+    }
+
+    // Sorted indexes of the best `limit` of [from, to) under `order` (a total order)
+    private static int[] heapSelect(IntBinaryOperator order, int limit, int from, int to) {
+        int k = Math.min(limit, to - from);
+        // max-heap: the worst of the kept candidates at the root
+        int[] heap = new int[k];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            if (size < k) {
+                heap[size] = i;
+                siftUp(heap, size++, order);
+            } else if (order.applyAsInt(i, heap[0]) < 0) {
+                heap[0] = i;
+                siftDown(heap, size, order);
+            }
+        }
+        // heap sort in place: repeatedly move the worst to the end
+        for (int end = size - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, end, order);
+        }
+        return heap;
+    }
+
+    private static void siftUp(int[] heap, int at, IntBinaryOperator order) {
+        int item = heap[at];
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (order.applyAsInt(item, heap[parent]) <= 0) {
+                break;
+            }
+            heap[at] = heap[parent];
+            at = parent;
+        }
+        heap[at] = item;
+    }
+
+    private static void siftDown(int[] heap, int size, IntBinaryOperator order) {
+        int item = heap[0];
+        int at = 0;
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && order.applyAsInt(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (order.applyAsInt(item, heap[child]) >= 0) {
+                break;
+            }
+            heap[at] = heap[child];
+            at = child;
+        }
+        heap[at] = item;
+    }
+
+    // Merge of two sorted index lists, first `limit` only
+    private static int[] merge(int[] a, int[] b, int limit, IntBinaryOperator order) {
+        int[] out = new int[Math.min(limit, a.length + b.length)];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < out.length; k++) {
+            out[k] = j >= b.length || (i < a.length && order.applyAsInt(a[i], b[j]) <= 0) ? a[i++] : b[j++];
+        }
+        return out;
+    }
+
+    /** Top-down merge sort over ints (stable, no boxing). */
+    public static void mergeSort(int[] a, int[] tmp, int from, int to, IntBinaryOperator cmp) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, tmp, from, mid, cmp);
+        mergeSort(a, tmp, mid, to, cmp);
+        if (cmp.applyAsInt(a[mid - 1], a[mid]) <= 0) {
+            return; // already in order
+        }
+
+        System.arraycopy(a, from, tmp, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && cmp.applyAsInt(tmp[i], tmp[j]) <= 0)) {
+                a[k] = tmp[i++];
+            } else {
+                a[k] = tmp[j++];
+            }
+        }
+    }
+
+    // One range of input indexes: split in halves down to `leaf` indexes, merge the parts' top N
+    private static final class Part extends RecursiveTask<int[]> {
+
+        private final IntBinaryOperator order;
+        private final int limit;
+        private final int from;
+        private final int to;
+        private final int leaf;
+
+        private Part(IntBinaryOperator order, int limit, int from, int to, int leaf) {
+            this.order = order;
+            this.limit = limit;
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= leaf) {
+                return heapSelect(order, limit, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            Part left = new Part(order, limit, from, mid, leaf);
+            left.fork();
+            int[] right = new Part(order, limit, mid, to, leaf).compute();
+            return merge(left.join(), right, limit, order);
+        }
+    }
+
+    /**
+     * Top N of objects that arrive one at a time (e.g. page by page from the
+     * database): only the best {@code limit} are kept, each with the sort key
+     * computed once when it is offered. Not thread-safe.
+     */
+    public static final class Collector<K, T> {
+
+        private final Comparator<K> order;
+        private final int limit;
+        // unbounded (limit < 0): everything, sorted at the end
+        private final List<Entry<K, T>> all;
+        private final PriorityQueue<Entry<K, T>> heap;
+        private long seq;
+
+        /** {@code limit} negative = keep everything (a plain stable sort). */
+        public Collector(Comparator<K> order, int limit) {
+            this.order = order;
+            this.limit = limit;
+            this.all = limit < 0 ? new ArrayList<>() : null;
+            // worst kept entry at the head
+            this.heap = limit < 0 ? null : new PriorityQueue<>(Math.max(1, Math.min(limit, 1024)),
+                    this::compare);
+        }
+
+        public void offer(K key, T item) {
+            Entry<K, T> entry = new Entry<>(key, item, seq++);
+            if (all != null) {
+                all.add(entry);
+            } else if (heap.size() < limit) {
+                heap.add(entry);
+            } else if (limit > 0 && compare(heap.peek(), entry) < 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+
+        /** The kept items, best first. */
+        public List<T> result() {
+            List<Entry<K, T>> entries = all != null ? all : new ArrayList<>(heap);
+            entries.sort((a, b) -> -compare(a, b));
+            List<T> items = new ArrayList<>(entries.size());
+            for (Entry<K, T> entry : entries) {
+                items.add(entry.item);
+            }
+            return items;
+        }
+
+        // Reversed ranking (worse entries first), ties: later offer is worse
+        private int compare(Entry<K, T> a, Entry<K, T> b) {
+            int c = order.compare(b.key, a.key);
+            return c != 0 ? c : Long.compare(b.seq, a.seq);
+        }
+    }
+
+    private static final class Entry<K, T> {
+
+        private final K key;
+        private final T item;
+        private final long seq;
+
+        private Entry(K key, T item, long seq) {
+            this.key = key;
+            this.item = item;
+            this.seq = seq;
+        }
+    }
+}
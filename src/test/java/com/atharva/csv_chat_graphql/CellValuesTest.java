@@ -0,0 +1,43 @@
+package com.nupur.csv_chat_graphql;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CellValuesTest {
+
+    @Test
+    void parsesOnlyPlainNumbers() {
+        assertThat(CellValues.parseNumber("42")).isEqualTo(42.0);
+        assertThat(CellValues.parseNumber("-3.50")).isEqualTo(-3.5);
+        assertThat(CellValues.parseNumber("+7")).isEqualTo(7.0);
+
+        assertThat(CellValues.parseNumber("")).isNull();
+        assertThat(CellValues.parseNumber("1e5")).isNull();
+        assertThat(CellValues.parseNumber("12.")).isNull();
+        assertThat(CellValues.parseNumber("NaN")).isNull();
+        assertThat(CellValues.parseNumber("abc")).isNull();
+    }
+
+    @Test
+    void parsesOnlyRealIsoDates() {
+        assertThat(CellValues.parseDate("2020-02-29")).isEqualTo(LocalDate.of(2020, 2, 29));
+
+        assertThat(CellValues.parseDate("2021-02-29")).isNull();
+        assertThat(CellValues.parseDate("2021-13-01")).isNull();
+        assertThat(CellValues.parseDate("2021/01/01")).isNull();
+        assertThat(CellValues.parseDate("20210101")).isNull();
+    }
+
+    @Test
+    void cellKeepsTypedCopiesInSync() {
+        DataCell cell = new DataCell("Salary", "120000", null);
+        assertThat(cell.getNumberValue()).isEqualTo(120000.0);
+
+        cell.setCellValue("2024-01-31");
+        assertThat(cell.getNumberValue()).isNull();
+        assertThat(cell.getDateValue()).isEqualTo(LocalDate.of(2024, 1, 31));
+    }
+}
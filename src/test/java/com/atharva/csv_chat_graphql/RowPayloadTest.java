@@ -0,0 +1,45 @@
+package com.nupur.csv_chat_graphql;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RowPayloadTest {
+
+    @Test
+    void roundTripsValuesInOrder() {
+        String wide = "x".repeat(300); // two-byte length prefix
+        List<String> values = List.of("42", "", "Zürich", wide, "a,b \"c\"");
+
+        byte[] payload = RowPayload.encode(values);
+
+        assertThat(RowPayload.decode(payload)).containsExactlyElementsOf(values);
+        assertThat(payload).hasSize(1 + (1 + 2) + 1 + (1 + 7) + (2 + 300) + (1 + 7));
+    }
+
+    @Test
+    void compactRowKeepsNoCells() {
+        DataRow row = new DataRow();
+        row.addCell(new DataCell("city", "Paris", row));
+        row.addCell(new DataCell("salary", "120000", row));
+
+        row.compact();
+
+        assertThat(row.isCompact()).isTrue();
+        assertThat(row.getCells()).isEmpty();
+        assertThat(RowPayload.decode(row.getPayload())).containsExactly("Paris", "120000");
+    }
+
+    @Test
+    void rejectsRowsWiderThanThePayloadColumn() {
+        String[] values = new String[2];
+        Arrays.fill(values, "x".repeat(RowPayload.MAX_BYTES / 2));
+
+        assertThatThrownBy(() -> RowPayload.encode(Arrays.asList(values)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
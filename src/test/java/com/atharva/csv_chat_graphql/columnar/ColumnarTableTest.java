@@ -0,0 +1,88 @@
+package com.nupur.csv_chat_graphql.columnar;
+
+import com.nupur.csv_chat_graphql.DataCell;
+import com.nupur.csv_chat_graphql.DataRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarTableTest {
+
+    private static ColumnarTable table() {
+        String[] header = {"name", "department", "salary", "rating"};
+        String[][] data = {
+                {"alice", "Engineering", "120000", "4.5"},
+                {"bob", "sales", "60000", "3.50"},
+                {"carol", "engineering", "95000", ""},
+                {"dave", "hr", "", "4"},
+        };
+        return build(header, data);
+    }
+
+    private static ColumnarTable build(String[] header, String[][] data) {
+        ColumnarTableBuilder builder = new ColumnarTableBuilder(header);
+        long id = 100;
+        for (String[] values : data) {
+            DataRow row = new DataRow(id);
+            List<DataCell> cells = new ArrayList<>();
+            for (int i = 0; i < header.length; i++) {
+                cells.add(new DataCell(header[i], values[i], row));
+            }
+            builder.addRow(id++, cells);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void infersColumnTypes() {
+        ColumnarTable table = table();
+
+        assertThat(table.column("NAME").getType()).isEqualTo(Column.Type.STRING);
+        assertThat(table.column("salary").getType()).isEqualTo(Column.Type.LONG);
+        assertThat(table.column("rating").getType()).isEqualTo(Column.Type.DOUBLE);
+        // decimal text is kept exactly as uploaded
+        assertThat(table.column("rating").valueAt(1)).isEqualTo("3.50");
+        assertThat(table.column("salary").valueAt(3)).isEmpty();
+    }
+
+    @Test
+    void filtersCaseInsensitivelyAndSortsNumerically() {
+        ColumnarTable table = table();
+
+        int[] engineers = table.filter(List.of(new ColumnFilter("Department", "ENGINEERING")));
+        assertThat(engineers).containsExactly(0, 2);
+
+        int[] bySalaryDesc = table.orderBy(table.filter(List.of()), "salary", true, 3);
+        assertThat(table.toDataRows(bySalaryDesc))
+                .extracting(DataRow::getId)
+                .containsExactly(100L, 102L, 101L);
+
+        assertThat(table.filter(List.of(new ColumnFilter("salary", "060000")))).isEmpty();
+        assertThat(table.filter(List.of(new ColumnFilter("missing", "x")))).isEmpty();
+    }
+
+    @Test
+    void sortsAMixedTextColumnLikeTheSqlRoute() {
+        // not all canonical numbers, so stored as text
+        String[][] data = {{"007"}, {"N/A"}, {"10"}, {""}, {"abc"}, {"9"}, {"9.5"}};
+        ColumnarTable table = build(new String[] {"code"}, data);
+        assertThat(table.column("code").getType()).isEqualTo(Column.Type.STRING);
+
+        // numbers (numerically), then text (case-insensitively), then empty cells
+        assertThat(values(table, table.orderBy(table.filter(List.of()), "code", false, -1)))
+                .containsExactly("007", "9", "9.5", "10", "abc", "N/A", "");
+        assertThat(values(table, table.orderBy(table.filter(List.of()), "code", true, -1)))
+                .containsExactly("10", "9.5", "9", "007", "N/A", "abc", "");
+    }
+
+    private static List<String> values(ColumnarTable table, int[] positions) {
+        List<String> values = new ArrayList<>();
+        for (int pos : positions) {
+            values.add(table.column("code").valueAt(pos));
+        }
+        return values;
+    }
+}
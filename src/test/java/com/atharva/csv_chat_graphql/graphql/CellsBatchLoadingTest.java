@@ -0,0 +1,65 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import com.nupur.csv_chat_graphql.service.CsvService;
+import com.nupur.csv_chat_graphql.service.ImportProgressListener;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.test.tester.ExecutionGraphQlServiceTester;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CellsBatchLoadingTest {
+
+    @Autowired
+    private CsvService csvService;
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private ExecutionGraphQlServiceTester tester;
+
+    @BeforeEach
+    void importRows() throws Exception {
+        StringBuilder csv = new StringBuilder("name,city\n");
+        for (int i = 0; i < 200; i++) {
+            csv.append("person-").append(i).append(",City").append(i % 7).append('\n');
+        }
+        csvService.importCsv("gql-cells", new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                ImportProgressListener.NONE);
+        tester = ExecutionGraphQlServiceTester.create(graphQlService);
+    }
+
+    @Test
+    void aPageOfRowsLoadsItsCellsInOneStatement() {
+        // warm-up: the dataset's dictionary and statistics load on first use
+        statements("{ rows(dataset: \"gql-cells\", first: 1) { edges { node { id } } } }");
+
+        // the cost estimate's column lookup, the keyset page, one batch of cells: not 1 + 50
+        assertThat(statements("{ rows(dataset: \"gql-cells\", first: 50) { edges { node { cells { value } } } } }"))
+                .isEqualTo(3);
+        assertThat(statements("{ rows(dataset: \"gql-cells\", first: 49) { edges { node { id } } } }"))
+                .isEqualTo(2);
+        assertThat(statements("{ rows(dataset: \"gql-cells\", first: 5) { edges { node { cells { value } } } } }"))
+                .isEqualTo(3);
+    }
+
+    // SQL statements the request sent (the QueryBudget count, as recorded per request)
+    private long statements(String document) {
+        DistributionSummary summary = registry.find("graphql.request.sql.statements").summary();
+        double before = summary == null ? 0 : summary.totalAmount();
+        tester.document(document).execute().path("rows.edges").entityList(Object.class).hasSizeGreaterThan(0);
+        return (long) (registry.find("graphql.request.sql.statements").summary().totalAmount() - before);
+    }
+}
@@ -0,0 +1,56 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FetchPermitsTest {
+
+    @Test
+    void waitingFetchesOfOlderRequestsGoFirst() throws Exception {
+        FetchPermits permits = new FetchPermits(1);
+        assertThat(permits.acquire(0, -1)).isTrue();
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        Thread newer = waitFor(permits, 200, "newer", order);
+        Thread older = waitFor(permits, 100, "older", order);
+
+        permits.release();
+        older.join(5000);
+        newer.join(5000);
+        assertThat(order).containsExactly("older", "newer");
+    }
+
+    @Test
+    void givesUpAfterTheTimeout() throws Exception {
+        FetchPermits permits = new FetchPermits(1);
+        assertThat(permits.acquire(0, -1)).isTrue();
+
+        assertThat(permits.acquire(0, TimeUnit.MILLISECONDS.toNanos(20))).isFalse();
+        permits.release();
+        assertThat(permits.acquire(0, 0)).isTrue(); // the timed-out waiter left the queue
+    }
+
+    // Starts a thread that waits for a permit, holds it briefly and hands it on
+    private static Thread waitFor(FetchPermits permits, long requestStarted, String name, List<String> order)
+            throws InterruptedException {
+        Thread thread = new Thread(() -> {
+            try {
+                permits.acquire(requestStarted, -1);
+                order.add(name);
+                permits.release();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        return thread;
+    }
+}
@@ -0,0 +1,75 @@
+package com.nupur.csv_chat_graphql.graphql;
+
+import com.nupur.csv_chat_graphql.ColumnInfo;
+import com.nupur.csv_chat_graphql.ColumnType;
+import com.nupur.csv_chat_graphql.service.DataRowQueryService;
+import graphql.execution.CoercedVariables;
+import graphql.normalized.ExecutableNormalizedOperationFactory;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.UnExecutableSchemaGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QueryCostAnalyzerTest {
+
+    private final GraphQLSchema schema = schema();
+    private final DataRowQueryService dataRowQueryService = mock(DataRowQueryService.class);
+    private final QueryCostAnalyzer analyzer = new QueryCostAnalyzer(dataRowQueryService, null);
+
+    @Test
+    void costsRowsTimesFieldsOfTheDataset() {
+        // 8 columns, 2000 rows
+        List<ColumnInfo> columns = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            columns.add(new ColumnInfo(i, "col" + i, ColumnType.STRING, 2000));
+        }
+        when(dataRowQueryService.findColumns(anyString())).thenReturn(columns);
+        when(dataRowQueryService.pageSize(any())).thenAnswer(call -> call.getArgument(0) == null ? 100 : call.getArgument(0));
+
+        // ask + edges + per row (cursor + node + id + cells + 8 × (columnName + value)) + pageInfo { hasNextPage }
+        QueryCostEstimate page = estimate("{ ask(question: \"show rows\", first: 10) { edges { cursor node { id "
+                + "cells { columnName value } } } pageInfo { hasNextPage } } }");
+        assertThat(page.getRows()).isEqualTo(10);
+        assertThat(page.getCost()).isEqualTo(1 + (1 + 10 * (1 + (1 + (1 + (1 + 8 * 2))))) + (1 + 1));
+
+        // never more rows than the dataset has; aliases add up
+        QueryCostEstimate all = estimate("{ a: rows(first: 5000) { edges { node { id } } } "
+                + "b: rows { edges { node { id } } } }");
+        assertThat(all.getRows()).isEqualTo(2000 + 100);
+    }
+
+    @Test
+    void budgetHandsOutRowsUntilTheCapIsReached() {
+        QueryBudget budget = QueryBudget.start(1000, 150, null);
+
+        int first = budget.reserveRows(100);
+        budget.rowsUsed(first, 40); // a short page gives back what it didn't use
+        assertThat(budget.reserveRows(100)).isEqualTo(100);
+        assertThat(budget.reserveRows(100)).isEqualTo(10);
+        assertThatThrownBy(() -> budget.reserveRows(1)).isInstanceOf(QueryLimitException.class);
+    }
+
+    private QueryCostEstimate estimate(String query) {
+        return analyzer.estimate(ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(
+                schema, Parser.parse(query), null, CoercedVariables.emptyVariables()));
+    }
+
+    private static GraphQLSchema schema() {
+        var stream = QueryCostAnalyzerTest.class.getResourceAsStream("/graphql/schema.graphqls");
+        return UnExecutableSchemaGenerator.makeUnExecutableSchema(
+                new SchemaParser().parse(new InputStreamReader(stream, StandardCharsets.UTF_8)));
+    }
+}
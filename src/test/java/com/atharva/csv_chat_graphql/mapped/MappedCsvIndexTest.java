@@ -0,0 +1,106 @@
+package com.nupur.csv_chat_graphql.mapped;
+
+import com.nupur.csv_chat_graphql.ColumnType;
+import com.nupur.csv_chat_graphql.DataCell;
+import com.nupur.csv_chat_graphql.DataRow;
+import com.nupur.csv_chat_graphql.service.QueryCondition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedCsvIndexTest {
+
+    private static final String CSV = """
+            name,department,salary,note
+            alice,Engineering,120000,"likes ""quotes"", commas"
+            bob,sales,60000,
+            carol,engineering,95000,Zürich
+            dave,hr
+            """;
+
+    @TempDir
+    Path dir;
+
+    private Path write(String content) throws IOException {
+        Path csv = dir.resolve("people.1.csv");
+        Files.writeString(csv, content);
+        return csv;
+    }
+
+    @Test
+    void indexesAndDecodesRowsInPlace() throws IOException {
+        MappedCsvTable table = MappedCsvIndex.build(write(CSV), rows -> { });
+
+        assertThat(table.getRowCount()).isEqualTo(4);
+        assertThat(table.column("SALARY").getType()).isEqualTo(ColumnType.INTEGER);
+        assertThat(table.column("salary").getMin()).isEqualTo(60000);
+        assertThat(table.column("department").getDictionary())
+                .containsExactlyInAnyOrder("engineering", "sales", "hr");
+
+        DataRow alice = table.toDataRow(0);
+        assertThat(alice.getId()).isEqualTo(1L);
+        assertThat(alice.getCells()).extracting(DataCell::getCellValue)
+                .containsExactly("alice", "Engineering", "120000", "likes \"quotes\", commas");
+        // short record: missing values are empty, like the database import
+        assertThat(table.toDataRow(3).getCells()).extracting(DataCell::getCellValue)
+                .containsExactly("dave", "hr", "", "");
+    }
+
+    @Test
+    void filtersAndSortsLikeTheSqlRoute() throws IOException {
+        MappedCsvTable table = MappedCsvIndex.build(write(CSV), rows -> { });
+
+        assertThat(table.filter(List.of(new QueryCondition("department", "engineering")), 0, -1))
+                .containsExactly(0, 2);
+        assertThat(table.filter(List.of(new QueryCondition("note", "zürich")), 0, -1)).containsExactly(2);
+        assertThat(table.filter(List.of(new QueryCondition("salary", QueryCondition.Operator.GT, "70000", null)),
+                0, -1)).containsExactly(0, 2);
+        // value not in the dictionary, unknown column, resume after a cursor
+        assertThat(table.filter(List.of(new QueryCondition("department", "legal")), 0, -1)).isEmpty();
+        assertThat(table.filter(List.of(new QueryCondition("missing", "x")), 0, -1)).isEmpty();
+        assertThat(table.filter(List.of(), 1, 2)).containsExactly(1, 2);
+
+        // numbers first, empty values last in both directions
+        int[] all = table.filter(List.of(), 0, -1);
+        assertThat(table.orderBy(all, "salary", true, -1)).containsExactly(0, 2, 1, 3);
+        assertThat(table.orderBy(all, "salary", false, 2)).containsExactly(1, 2);
+    }
+
+    @Test
+    void parallelFilterMatchesTheSequentialScan() throws IOException {
+        StringBuilder csv = new StringBuilder("id,city,amount\n");
+        for (int i = 0; i < 3 * MappedCsvIndex.ZONE_ROWS + 123; i++) {
+            csv.append(i).append(',').append(i % 7 == 0 ? "Pune" : "Delhi").append(',').append(i % 500).append('\n');
+        }
+        MappedCsvTable table = MappedCsvIndex.build(write(csv.toString()), rows -> { });
+        List<QueryCondition> conditions = List.of(new QueryCondition("city", "pune"),
+                new QueryCondition("amount", QueryCondition.Operator.LT, "250", null));
+
+        int[] sequential = table.filter(conditions, 0, -1);
+        assertThat(sequential).isNotEmpty();
+        // split into zone-aligned ranges on the fork-join pool, joined in file order
+        assertThat(table.filter(conditions, 0, -1, MappedCsvIndex.ZONE_ROWS)).containsExactly(sequential);
+        assertThat(table.filter(conditions, 5000, -1, MappedCsvIndex.ZONE_ROWS))
+                .containsExactly(table.filter(conditions, 5000, -1));
+    }
+
+    @Test
+    void reusesTheIndexOnlyWhileTheFileIsUnchanged() throws IOException {
+        Path csv = write(CSV);
+        MappedCsvIndex.build(csv, rows -> { });
+
+        assertThat(MappedCsvIndex.load(csv)).isNotNull()
+                .extracting(MappedCsvTable::getRowCount).isEqualTo(4);
+
+        Files.writeString(csv, CSV + "erin,sales,70000,\n");
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        assertThat(MappedCsvIndex.load(csv)).isNull();
+    }
+}
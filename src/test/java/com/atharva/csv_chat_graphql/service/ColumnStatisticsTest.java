@@ -0,0 +1,104 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.ColumnInfo;
+import com.nupur.csv_chat_graphql.ColumnType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ColumnStatisticsTest {
+
+    private static final int ROWS = 50_000;
+
+    // id (unique), city (4 values, paris on half the rows), salary 0..49999, joined over 100 days, note mostly empty
+    private static DatasetStatistics statistics() {
+        ColumnTypeInference inference = new ColumnTypeInference(new String[] {"id", "city", "salary", "joined", "note"});
+        String[] cities = {"Paris", "London", "Berlin", "Paris"};
+        for (int i = 0; i < ROWS; i++) {
+            inference.observe(0, "id-" + i);
+            inference.observe(1, cities[i % 4]);
+            inference.observe(2, Integer.toString(i));
+            inference.observe(3, LocalDate.of(2024, 1, 1).plusDays(i % 100).toString());
+            inference.observe(4, i % 10 == 0 ? "note" : "");
+        }
+        List<ColumnInfo> columns = inference.result();
+        return DatasetStatistics.decode(columns);
+    }
+
+    @Test
+    void gathersCountsDistinctValuesAndRanges() {
+        DatasetStatistics statistics = statistics();
+        assertThat(statistics.rows()).isEqualTo(ROWS);
+
+        ColumnStatistics city = statistics.column("City");
+        assertThat(city.getType()).isEqualTo(ColumnType.STRING);
+        assertThat(city.getDistinctCount()).isEqualTo(3);
+        assertThat(city.getTopValues().get(0).getValue()).isEqualTo("paris");
+        assertThat(city.getTopValues().get(0).getCount()).isEqualTo(ROWS / 2);
+
+        // high cardinality: HyperLogLog, a few percent off at most
+        assertThat((double) statistics.column("id").getDistinctCount()).isCloseTo(ROWS, within(ROWS * 0.05));
+
+        ColumnStatistics salary = statistics.column("salary");
+        assertThat(salary.getMin()).isEqualTo("0");
+        assertThat(salary.getMax()).isEqualTo("49999");
+        assertThat(salary.getHistogram()).hasSize(ColumnStatistics.HISTOGRAM_BUCKETS);
+        assertThat(salary.getHistogram().stream().mapToLong(ColumnStatistics.HistogramBucket::getCount).sum())
+                .isEqualTo(ROWS);
+
+        assertThat(statistics.column("joined").getMin()).isEqualTo("2024-01-01");
+        assertThat(statistics.column("note").getNullCount()).isEqualTo(ROWS - ROWS / 10);
+    }
+
+    @Test
+    void estimatesSelectivityOfConditions() {
+        DatasetStatistics statistics = statistics();
+
+        assertThat(statistics.selectivity(new QueryCondition("city", "paris"))).isEqualTo(0.5);
+        assertThat(statistics.selectivity(new QueryCondition("city", "rome"))).isZero();
+        assertThat(statistics.selectivity(new QueryCondition("id", "id-7"))).isCloseTo(1.0 / ROWS, within(1e-5));
+        assertThat(statistics.selectivity(condition("salary", QueryCondition.Operator.LT, "10000", null)))
+                .isCloseTo(0.2, within(0.05));
+        assertThat(statistics.selectivity(condition("joined", QueryCondition.Operator.BETWEEN,
+                "2024-01-01", "2024-01-25"))).isCloseTo(0.25, within(0.05));
+        // a text range: no estimate from the statistics, the default guess
+        assertThat(statistics.selectivity(condition("city", QueryCondition.Operator.GT, "m", null))).isEqualTo(1.0 / 3);
+    }
+
+    @Test
+    void ordersConditionsMostSelectiveFirst() {
+        QueryCondition paris = new QueryCondition("city", "paris");
+        QueryCondition rich = condition("salary", QueryCondition.Operator.GTE, "45000", null);
+        QueryCondition one = new QueryCondition("id", "id-42");
+        ParsedQuery query = new ParsedQuery(List.of(paris, rich, one), "salary", true, 10);
+
+        ParsedQuery ordered = statistics().bySelectivity(query);
+
+        assertThat(ordered.getConditions()).containsExactly(one, rich, paris);
+        assertThat(ordered.getSortColumn()).isEqualTo("salary");
+        assertThat(ordered.getLimit()).isEqualTo(10);
+        assertThat(DatasetStatistics.EMPTY.bySelectivity(query)).isSameAs(query);
+    }
+
+    @Test
+    void encodedStatisticsSurviveARoundTrip() {
+        ColumnStatistics salary = statistics().column("salary");
+
+        ColumnStatistics decoded = ColumnStatistics.decode("salary", ColumnType.INTEGER, salary.encode());
+
+        assertThat(decoded.getDistinctCount()).isEqualTo(salary.getDistinctCount());
+        assertThat(decoded.getHistogram()).usingRecursiveFieldByFieldElementComparator()
+                .isEqualTo(salary.getHistogram());
+        assertThat(ColumnStatistics.decode("salary", ColumnType.INTEGER, null)).isNull();
+        assertThat(ColumnStatistics.decode("salary", ColumnType.INTEGER, new byte[] {42})).isNull();
+    }
+
+    private static QueryCondition condition(String column, QueryCondition.Operator operator, String value,
+                                            String value2) {
+        return new QueryCondition(column, operator, value, value2);
+    }
+}
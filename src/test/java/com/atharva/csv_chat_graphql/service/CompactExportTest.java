@@ -0,0 +1,98 @@
+package com.nupur.csv_chat_graphql.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Compact rows, and a short grace period so a replaced generation would be gone mid-export
+@SpringBootTest(properties = {"csv.import.layout=compact", "csv.import.old-generation-grace-millis=100"})
+class CompactExportTest {
+
+    private static final int ROWS = 3000;
+
+    @Autowired
+    private CsvService csvService;
+
+    @Autowired
+    private CsvExportService exportService;
+
+    @Test
+    void sortedExportReadsItsRankedRowsBackFromThePinnedGeneration() throws Exception {
+        importRows("compact-export", ROWS);
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        // stalls on its first write, i.e. within the first batch read back
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                writing.countDown();
+                try {
+                    if (!resume.await(30, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("export never resumed");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(b, off, len);
+            }
+        };
+        CompletableFuture<Long> export = CompletableFuture.supplyAsync(() -> {
+            try {
+                return exportService.export("compact-export", "show rows order by salary desc",
+                        CsvExportService.Format.CSV, out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(writing.await(30, TimeUnit.SECONDS)).isTrue();
+
+        importRows("compact-export", 10);
+        Thread.sleep(500); // well past the grace period
+        resume.countDown();
+        assertThat(export.get(30, TimeUnit.SECONDS)).isEqualTo(ROWS);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(ROWS + 1);
+        for (int i = 1; i <= ROWS; i++) {
+            assertThat(lines.get(i)).startsWith("person-" + (ROWS - i) + ",");
+        }
+    }
+
+    @Test
+    void filteredAndTopNExportsOfCompactRows() throws Exception {
+        importRows("compact-top", 300);
+
+        assertThat(exportLines("compact-top", "show rows where city is london"))
+                .hasSize(100)
+                .allMatch(line -> line.contains(",London,"));
+        assertThat(exportLines("compact-top", "show top 3 rows where city is paris order by salary desc"))
+                .containsExactly("person-297,Paris,297", "person-294,Paris,294", "person-291,Paris,291");
+        assertThat(exportLines("compact-top", "show top 2 rows")).containsExactly("person-0,Paris,0", "person-1,London,1");
+    }
+
+    // Data lines of a CSV export (header dropped)
+    private List<String> exportLines(String dataset, String question) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(dataset, question, CsvExportService.Format.CSV, out);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        return lines.subList(1, lines.size());
+    }
+
+    private void importRows(String dataset, int rows) throws Exception {
+        try (InputStream in = ImportJobServiceTest.csv(rows).getInputStream()) {
+            csvService.importCsv(dataset, in, ImportProgressListener.NONE);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.repository.DataRowRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A short grace period, so a replaced generation would be gone while the export still reads it
+@SpringBootTest(properties = "csv.import.old-generation-grace-millis=100")
+class CsvExportServiceTest {
+
+    private static final int ROWS = 5000;
+
+    @Autowired
+    private CsvService csvService;
+
+    @Autowired
+    private CsvExportService exportService;
+
+    @Autowired
+    private DatasetGenerations generations;
+
+    @Autowired
+    private DataRowRepository dataRowRepository;
+
+    @Test
+    void exportKeepsReadingItsGenerationWhileAnImportReplacesIt() throws Exception {
+        importRows("export-race", ROWS);
+        long exported = generations.current("export-race");
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        // stalls on its first write, i.e. within the export's first batch of rows
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] b, int off, int len) {
+                writing.countDown();
+                try {
+                    if (!resume.await(30, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("export never resumed");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(b, off, len);
+            }
+        };
+        CompletableFuture<Long> export = CompletableFuture.supplyAsync(() -> {
+            try {
+                return exportService.export("export-race", "", CsvExportService.Format.CSV, out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(writing.await(30, TimeUnit.SECONDS)).isTrue();
+
+        importRows("export-race", 10);
+        assertThat(generations.current("export-race")).isNotEqualTo(exported);
+        Thread.sleep(500); // well past the grace period
+
+        assertThat(dataRowRepository.countByGeneration(exported)).isEqualTo(ROWS);
+        resume.countDown();
+        assertThat(export.get(30, TimeUnit.SECONDS)).isEqualTo(ROWS);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(ROWS + 1);
+        assertThat(lines.subList(1, lines.size())).allMatch(line -> line.matches("person-\\d+,\\w+,\\d+"));
+
+        // released: the replaced generation goes now
+        for (int i = 0; i < 100 && dataRowRepository.countByGeneration(exported) > 0; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(dataRowRepository.countByGeneration(exported)).isZero();
+    }
+
+    private void importRows(String dataset, int rows) throws Exception {
+        try (InputStream in = ImportJobServiceTest.csv(rows).getInputStream()) {
+            csvService.importCsv(dataset, in, ImportProgressListener.NONE);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.DataRow;
+import com.nupur.csv_chat_graphql.config.CsvImportProperties;
+import com.opencsv.CSVReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvIngestPipelineTest {
+
+    private static final int ROWS = 50;
+    private static final int WORKERS = 2;
+    private static final int QUEUE_CAPACITY = 1;
+
+    private final CountDownLatch releaseFirst = new CountDownLatch(1);
+    private final AtomicInteger furthestConverted = new AtomicInteger(-1);
+
+    // The first batch's worker stalls until released; every other batch converts right away
+    private final CsvIngestPipeline pipeline = new CsvIngestPipeline(properties()) {
+        @Override
+        List<DataRow> convert(String[] header, List<String[]> records) {
+            int row = Integer.parseInt(records.get(0)[0]);
+            if (row == 0) {
+                try {
+                    releaseFirst.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            furthestConverted.accumulateAndGet(row, Math::max);
+            return super.convert(header, records);
+        }
+    };
+
+    @AfterEach
+    void shutdown() {
+        releaseFirst.countDown();
+        pipeline.shutdown();
+    }
+
+    @Test
+    void aSlowWorkerHoldsBackTheReaderInsteadOfParkingBatches() throws Exception {
+        StringBuilder csv = new StringBuilder("n\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(i).append('\n');
+        }
+        CSVReader reader = new CSVReader(new StringReader(csv.toString()));
+        reader.readNext();
+
+        List<String> written = new ArrayList<>();
+        CompletableFuture<List<IngestStageStats>> run = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pipeline.run(reader, new String[] {"n"},
+                        rows -> rows.forEach(r -> written.add(r.getCells().get(0).getValue())));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // one batch per row: at most queue-capacity + workers of them are read ahead of batch 0
+        Thread.sleep(300);
+        assertThat(furthestConverted.get()).isBetween(1, QUEUE_CAPACITY + WORKERS - 1);
+        assertThat(written).isEmpty();
+
+        releaseFirst.countDown();
+        run.get(10, TimeUnit.SECONDS);
+
+        assertThat(written).hasSize(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            assertThat(written.get(i)).isEqualTo(Integer.toString(i));
+        }
+    }
+
+    private static CsvImportProperties properties() {
+        CsvImportProperties properties = new CsvImportProperties();
+        properties.setChunkSize(1);
+        properties.setWorkers(WORKERS);
+        properties.setQueueCapacity(QUEUE_CAPACITY);
+        return properties;
+    }
+}
@@ -0,0 +1,56 @@
+package com.nupur.csv_chat_graphql.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class DataRowQueryServiceTest {
+
+    // a third of them live in Paris: enough matches for a scan to fill a page after ~300 rows
+    private static final int ROWS = 9000;
+
+    @Autowired
+    private CsvService csvService;
+
+    @Autowired
+    private DataRowQueryService queryService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void aScanPlannedForOnePageIsCostedAgainForTheWholeAnswer() throws Exception {
+        try (InputStream in = ImportJobServiceTest.csv(ROWS).getInputStream()) {
+            csvService.importCsv("scan-route", in, ImportProgressListener.NONE);
+        }
+        ParsedQuery paris = new ParsedQuery(List.of(new QueryCondition("city", "paris")), null, false, null);
+        PlannedQuery plan = queryService.plan("scan-route", paris);
+        assertThat(plan.getRoute()).isEqualTo(QueryRoute.JAVA);
+
+        // every match: SQL, whatever the plan said
+        long sql = answered(QueryRoute.SQL);
+        assertThat(queryService.findRows("scan-route", plan.getQuery(), plan.getRoute())).hasSize(ROWS / 3);
+        assertThat(answered(QueryRoute.SQL)).isEqualTo(sql + 1);
+
+        // the first 50 matches: still the scan
+        ParsedQuery top50 = new ParsedQuery(paris.getConditions(), null, false, 50);
+        long java = answered(QueryRoute.JAVA);
+        assertThat(queryService.findRows("scan-route", top50, plan.getRoute())).hasSize(50);
+        assertThat(answered(QueryRoute.JAVA)).isEqualTo(java + 1);
+    }
+
+    private long answered(QueryRoute route) {
+        DistributionSummary summary = registry.find("csv.query.rows.returned")
+                .tags("kind", "rows", "route", route.name())
+                .summary();
+        return summary == null ? 0 : summary.count();
+    }
+}
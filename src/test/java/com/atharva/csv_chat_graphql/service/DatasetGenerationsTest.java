@@ -0,0 +1,72 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.repository.ColumnInfoRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DatasetGenerationsTest {
+
+    @Test
+    void readersKeepTheOldGenerationUntilTheNewOneIsPublished() {
+        DatasetGenerations generations = generations(List.of(), null);
+        long first = generations.next();
+        generations.publish("sales", first);
+
+        long second = generations.next();
+        // written but not published: queries still read the first generation
+        assertThat(generations.current("sales")).isEqualTo(first);
+        assertThat(generations.currentGenerations()).containsExactly(first);
+
+        assertThat(generations.publish("sales", second)).isEqualTo(first);
+        assertThat(generations.current("sales")).isEqualTo(second);
+        assertThat(generations.current("hr")).isZero();
+    }
+
+    @Test
+    void publishOnlyMovesForward() {
+        DatasetGenerations generations = generations(List.of(), null);
+        long older = generations.next();
+        long newer = generations.next();
+
+        assertThat(generations.publish("sales", newer)).isZero();
+        // the import that started first but committed last is discarded
+        assertThat(generations.publish("sales", older)).isEqualTo(older);
+        assertThat(generations.current("sales")).isEqualTo(newer);
+        assertThat(generations.publish("sales", newer)).isEqualTo(newer);
+    }
+
+    @Test
+    void startsFromTheCommittedGenerationsAndNeverReusesOne() {
+        // generation 9 belongs to an import that never became current
+        DatasetGenerations generations = generations(List.of(
+                new Object[] {"sales", 7L},
+                new Object[] {"hr", 4L}), 9L);
+
+        assertThat(generations.names()).containsExactly("hr", "sales");
+        assertThat(generations.current("sales")).isEqualTo(7);
+        assertThat(generations.lastAllocated()).isEqualTo(9);
+        assertThat(generations.next()).isEqualTo(10);
+        assertThat(generations.remove("hr")).isEqualTo(4);
+        assertThat(generations.current("hr")).isZero();
+    }
+
+    @Test
+    void datasetNamesAreChecked() {
+        assertThat(DatasetGenerations.checkName(null)).isEqualTo(DatasetGenerations.DEFAULT_DATASET);
+        assertThat(DatasetGenerations.checkName(" sales-2024 ")).isEqualTo("sales-2024");
+        assertThatThrownBy(() -> DatasetGenerations.checkName("a|b")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static DatasetGenerations generations(List<Object[]> newest, Long maxGeneration) {
+        ColumnInfoRepository repository = mock(ColumnInfoRepository.class);
+        when(repository.findNewestGenerations()).thenReturn(newest);
+        when(repository.findMaxGeneration()).thenReturn(maxGeneration);
+        return new DatasetGenerations(repository);
+    }
+}
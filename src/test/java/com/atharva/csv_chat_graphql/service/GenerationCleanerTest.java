@@ -0,0 +1,101 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.config.CsvImportProperties;
+import com.nupur.csv_chat_graphql.repository.ColumnInfoRepository;
+import com.nupur.csv_chat_graphql.repository.DataCellRepository;
+import com.nupur.csv_chat_graphql.repository.DataRowRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class GenerationCleanerTest {
+
+    private static final long GRACE_MILLIS = 300;
+
+    private final DataCellRepository cells = mock(DataCellRepository.class);
+    private final DataRowRepository rows = mock(DataRowRepository.class);
+    private final ColumnInfoRepository columns = mock(ColumnInfoRepository.class);
+    private GenerationCleaner cleaner;
+
+    @AfterEach
+    void shutdown() {
+        cleaner.shutdown();
+    }
+
+    @Test
+    void replacedGenerationIsDroppedOnlyAfterTheGracePeriod() {
+        cleaner = cleaner(DatasetGenerationsTest.generations(List.of(), null));
+
+        cleaner.drop(3);
+
+        // still readable by queries that started on it
+        verify(rows, after(GRACE_MILLIS / 2).never()).deleteByGeneration(anyLong());
+        verify(cells, timeout(5 * GRACE_MILLIS)).deleteByGeneration(3);
+        verify(columns, timeout(5 * GRACE_MILLIS)).deleteByGeneration(3);
+        verify(rows, timeout(5 * GRACE_MILLIS)).deleteByGeneration(3);
+    }
+
+    @Test
+    void pinnedGenerationIsDroppedOnceReleased() {
+        DatasetGenerations generations = DatasetGenerationsTest.generations(List.<Object[]>of(new Object[] {"sales", 3L}),
+                3L);
+        cleaner = cleaner(generations);
+
+        GenerationCleaner.Pin pin = cleaner.pinCurrent("sales");
+        assertThat(pin.getGeneration()).isEqualTo(3);
+        generations.publish("sales", generations.next());
+        cleaner.drop(3);
+
+        verify(rows, after(3 * GRACE_MILLIS).never()).deleteByGeneration(anyLong());
+        pin.close();
+        verify(rows, timeout(GRACE_MILLIS)).deleteByGeneration(3);
+    }
+
+    @Test
+    void nothingToDropForAnEmptyDataset() {
+        cleaner = cleaner(DatasetGenerationsTest.generations(List.of(), null));
+
+        cleaner.drop(0);
+
+        verify(rows, after(2 * GRACE_MILLIS).never()).deleteByGeneration(anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startupDropsEveryStaleGenerationButTheCurrentOnes() {
+        DatasetGenerations generations = DatasetGenerationsTest.generations(List.of(
+                new Object[] {"sales", 7L},
+                new Object[] {"hr", 4L}), 9L);
+
+        cleaner = cleaner(generations);
+
+        // right away, not after the grace period: no query can be reading them
+        ArgumentCaptor<Collection<Long>> keep = ArgumentCaptor.forClass(Collection.class);
+        verify(rows, timeout(GRACE_MILLIS / 2)).deleteStaleGenerations(eq(9L), keep.capture());
+        assertThat(keep.getValue()).containsExactlyInAnyOrder(0L, 4L, 7L);
+        verify(cells, timeout(GRACE_MILLIS / 2)).deleteStaleGenerations(eq(9L), anyCollection());
+        verify(columns, timeout(GRACE_MILLIS / 2)).deleteStaleGenerations(eq(9L), anyCollection());
+        verify(rows, never()).deleteByGeneration(anyLong());
+    }
+
+    private GenerationCleaner cleaner(DatasetGenerations generations) {
+        CsvImportProperties properties = new CsvImportProperties();
+        properties.setOldGenerationGraceMillis(GRACE_MILLIS);
+        return new GenerationCleaner(cells, rows, columns, mock(PlatformTransactionManager.class), properties,
+                generations);
+    }
+}
@@ -0,0 +1,139 @@
+package com.nupur.csv_chat_graphql.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ImportJobServiceTest {
+
+    @Autowired
+    private ImportJobService importJobService;
+
+    @Autowired
+    private DatasetGenerations generations;
+
+    @Test
+    void importsInTheBackgroundAndReportsProgress() throws Exception {
+        MockMultipartFile file = csv(20_000);
+
+        ImportJob job = importJobService.submit("jobs-progress", file);
+        assertThat(importJobService.getJob(job.getId())).isSameAs(job);
+        await(job);
+
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(job.getDataset()).isEqualTo("jobs-progress");
+        assertThat(job.getRowsProcessed()).isEqualTo(20_000);
+        assertThat(job.getBytesRead()).isEqualTo(file.getSize());
+        assertThat(job.getEtaSeconds()).isZero();
+        assertThat(importJobService.getJobs()).contains(job);
+        assertThat(generations.current("jobs-progress")).isPositive();
+    }
+
+    @Test
+    void cancelledJobLeavesTheDatasetUntouched() throws Exception {
+        // big enough that the cancel lands while the job is queued or still writing
+        ImportJob job = importJobService.submit("jobs-cancelled", csv(200_000));
+        importJobService.cancel(job.getId());
+        await(job);
+
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.CANCELLED);
+        assertThat(job.getFinishedAt()).isNotNull();
+        assertThat(generations.current("jobs-cancelled")).isZero();
+        // cancelling a finished job changes nothing
+        assertThat(importJobService.cancel(job.getId()).getStatus()).isEqualTo(ImportJob.Status.CANCELLED);
+    }
+
+    @Test
+    void malformedCsvFailsTheJob() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "bad.csv", "text/csv",
+                "name,city\n\"Alice,Paris\n".getBytes(StandardCharsets.UTF_8));
+
+        ImportJob job = importJobService.submit("jobs-failed", file);
+        await(job);
+
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.FAILED);
+        assertThat(job.getError()).isNotBlank();
+        assertThat(generations.current("jobs-failed")).isZero();
+    }
+
+    @Test
+    void importsIntoDifferentDatasetsRunSideBySide() throws Exception {
+        ImportJob sales = importJobService.submit("jobs-sales", csv(200_000));
+        ImportJob hr = importJobService.submit("jobs-hr", csv(200_000));
+
+        boolean together = false;
+        while (!together && !(sales.getStatus().isFinished() && hr.getStatus().isFinished())) {
+            together = sales.getStatus() == ImportJob.Status.RUNNING && hr.getStatus() == ImportJob.Status.RUNNING;
+            Thread.sleep(2);
+        }
+        await(sales);
+        await(hr);
+
+        assertThat(together).as("both imports running at the same time").isTrue();
+        assertThat(sales.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(hr.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(generations.current("jobs-sales")).isPositive().isNotEqualTo(generations.current("jobs-hr"));
+    }
+
+    @Test
+    void importsIntoTheSameDatasetTakeTurns() throws Exception {
+        ImportJob first = importJobService.submit("jobs-same", csv(100_000));
+        while (first.getStatus() == ImportJob.Status.QUEUED) {
+            Thread.sleep(2);
+        }
+        ImportJob second = importJobService.submit("jobs-same", csv(10));
+
+        while (!first.getStatus().isFinished()) {
+            assertThat(second.getStatus()).isEqualTo(ImportJob.Status.QUEUED);
+            Thread.sleep(2);
+        }
+        await(second);
+
+        assertThat(second.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(second.getStartedAt()).isAfterOrEqualTo(first.getFinishedAt());
+    }
+
+    @Test
+    void aFailedUploadLeavesNoSpoolFileBehind() {
+        AtomicReference<Path> spooled = new AtomicReference<>();
+        MockMultipartFile aborted = new MockMultipartFile("file", "people.csv", "text/csv",
+                "name\nalice\n".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void transferTo(Path dest) throws IOException {
+                spooled.set(dest);
+                throw new IOException("client aborted the upload");
+            }
+        };
+
+        assertThatThrownBy(() -> importJobService.submit("jobs-aborted", aborted))
+                .isInstanceOf(IOException.class);
+        assertThat(spooled.get()).isNotNull();
+        assertThat(Files.exists(spooled.get())).isFalse();
+        assertThat(generations.current("jobs-aborted")).isZero();
+    }
+
+    private static void await(ImportJob job) throws Exception {
+        job.getFuture().get(60, TimeUnit.SECONDS);
+    }
+
+    static MockMultipartFile csv(int rows) {
+        StringBuilder csv = new StringBuilder("name,city,salary\n");
+        String[] cities = {"Paris", "London", "Berlin"};
+        for (int i = 0; i < rows; i++) {
+            csv.append("person-").append(i).append(',').append(cities[i % 3]).append(',').append(i).append('\n');
+        }
+        return new MockMultipartFile("file", "people.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,60 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.config.CsvQueryProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NaturalLanguageQueryServiceTest {
+
+    // parsing needs no data access
+    private final QueryPlanCache planCache = new QueryPlanCache(new CsvQueryProperties());
+    private final NaturalLanguageQueryService service = new NaturalLanguageQueryService(null, planCache, null);
+
+    @Test
+    void parsesComparisonsAndBetween() {
+        ParsedQuery q = service.parse(
+                "show rows where city is Paris and salary > 50000 and experience between 2 and 5 "
+                        + "and name is not bob order by salary desc");
+
+        assertThat(q.getConditions()).extracting(QueryCondition::toString).containsExactly(
+                "city = paris", "salary > 50000", "experience between 2 and 5", "name != bob");
+        assertThat(q.getSortColumn()).isEqualTo("salary");
+        assertThat(q.isDescending()).isTrue();
+    }
+
+    @Test
+    void parsesAggregatesWithGroupBy() {
+        AggregateQuery q = service.parseAggregate("average salary by department where city is paris");
+        assertThat(q.getFunction()).isEqualTo(AggregateQuery.Function.AVG);
+        assertThat(q.getColumn()).isEqualTo("salary");
+        assertThat(q.getGroupBy()).isEqualTo("department");
+        assertThat(q.getFilter().getConditions()).extracting(QueryCondition::toString).containsExactly("city = paris");
+
+        AggregateQuery count = service.parseAggregate("how many rows where salary >= 100 group by city");
+        assertThat(count.getFunction()).isEqualTo(AggregateQuery.Function.COUNT);
+        assertThat(count.getColumn()).isNull();
+        assertThat(count.getGroupBy()).isEqualTo("city");
+
+        assertThatThrownBy(() -> service.parseAggregate("show rows where city is paris"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void preparedQueriesKeepTheirIdAcrossImports() {
+        PlannedQuery plan = new PlannedQuery(service.parse("show rows where city is paris"), QueryRoute.SQL);
+        PreparedQuery prepared = planCache.prepare("people", "Show rows where city is Paris ", plan);
+
+        // same question (case, blanks aside) on the same dataset: same id
+        assertThat(planCache.prepare("people", "show rows where city is paris", plan).getId()).isEqualTo(prepared.getId());
+        assertThat(planCache.prepare("other", "show rows where city is paris", plan).getId()).isNotEqualTo(prepared.getId());
+        assertThat(planCache.prepared(prepared.getId()).getPlan()).isSameAs(plan);
+
+        // an import (same columns or not) drops the plan, not the id
+        planCache.datasetReplaced("people");
+        assertThat(planCache.prepared(prepared.getId()).getQuestion()).isEqualTo("show rows where city is paris");
+        assertThat(planCache.prepared(prepared.getId()).getPlan()).isNull();
+        assertThatThrownBy(() -> service.prepared("unknown")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,36 @@
+package com.nupur.csv_chat_graphql.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class QueryExplainServiceTest {
+
+    @Autowired
+    private CsvService csvService;
+
+    @Autowired
+    private QueryExplainService explainService;
+
+    @Test
+    void explainsTheIdQueryWithoutFetchingTheRows() throws Exception {
+        try (InputStream in = ImportJobServiceTest.csv(1000).getInputStream()) {
+            csvService.importCsv("explained", in, ImportProgressListener.NONE);
+        }
+
+        List<QueryPlan> plans = explainService.explain("explained", "show rows where city is Paris");
+
+        // the id query alone (for at most one id): no rows, no cells
+        assertThat(plans).hasSize(1);
+        QueryPlan plan = plans.get(0);
+        assertThat(plan.isSqlBacked()).isTrue();
+        assertThat(plan.isUsesLookupIndex()).isTrue();
+        assertThat(plan.getPlan()).isNotBlank();
+    }
+}
@@ -0,0 +1,99 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.DataCell;
+import com.nupur.csv_chat_graphql.DataRow;
+import com.nupur.csv_chat_graphql.config.CsvQueryProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryResultCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void resultsStayCachedUntilTheirDatasetIsReplaced() {
+        QueryResultCache cache = cache(64L * 1024 * 1024);
+
+        RowPage first = cache.page("sales", "q", null, 10, loader("paris"), UnaryOperator.identity());
+        assertThat(cache.page("sales", "q", null, 10, loader("paris"), UnaryOperator.identity())).isSameAs(first);
+        cache.page("hr", "q", null, 10, loader("london"), UnaryOperator.identity());
+        assertThat(loads).hasValue(2);
+
+        cache.datasetReplaced("sales");
+
+        // the replaced dataset loads again, the other one is untouched
+        assertThat(cache.page("sales", "q", null, 10, loader("berlin"), UnaryOperator.identity())).isNotSameAs(first);
+        cache.page("hr", "q", null, 10, loader("london"), UnaryOperator.identity());
+        assertThat(loads).hasValue(3);
+        assertThat(cache.stats().getReplacements()).isEqualTo(1);
+    }
+
+    @Test
+    void aLoadThatRacedWithAnImportIsNotKept() {
+        QueryResultCache cache = cache(64L * 1024 * 1024);
+
+        // the import commits while the old version's rows are being read
+        RowPage stale = cache.page("sales", "q", null, 10, () -> {
+            cache.datasetReplaced("sales");
+            return loader("old").get();
+        }, UnaryOperator.identity());
+
+        assertThat(stale.getRows()).hasSize(1);
+        assertThat(cache.stats().getSize()).isZero();
+        RowPage fresh = cache.page("sales", "q", null, 10, loader("new"), UnaryOperator.identity());
+        assertThat(fresh.getRows().get(0).getCells().get(0).getValue()).isEqualTo("new");
+        assertThat(cache.page("sales", "q", null, 10, loader("newer"), UnaryOperator.identity())).isSameAs(fresh);
+    }
+
+    @Test
+    void entriesAreEvictedBeyondTheByteBudget() throws InterruptedException {
+        String value = "x".repeat(1000);
+        long entryBytes = QueryResultCache.bytes(loader(value).get().getRows(), 0);
+        QueryResultCache cache = cache(3 * entryBytes);
+
+        for (int i = 0; i < 10; i++) {
+            cache.page("sales", "q" + i, null, 10, loader(value), UnaryOperator.identity());
+        }
+
+        // Caffeine evicts in its maintenance task, shortly after the writes
+        for (int i = 0; i < 100 && cache.stats().getEvictions() < 7; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(cache.stats().getEvictions()).isGreaterThanOrEqualTo(7);
+        assertThat(cache.stats().getEstimatedBytes()).isLessThanOrEqualTo(3 * entryBytes);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        CsvQueryProperties properties = new CsvQueryProperties();
+        properties.getResultCache().setEnabled(false);
+        QueryResultCache cache = new QueryResultCache(properties);
+
+        cache.page("sales", "q", null, 10, loader("paris"), UnaryOperator.identity());
+        cache.page("sales", "q", null, 10, loader("paris"), UnaryOperator.identity());
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private static QueryResultCache cache(long maxBytes) {
+        CsvQueryProperties properties = new CsvQueryProperties();
+        properties.getResultCache().setMaxBytes(maxBytes);
+        return new QueryResultCache(properties);
+    }
+
+    // A page of one row holding `city`, counting every load
+    private Supplier<RowPage> loader(String city) {
+        return () -> {
+            loads.incrementAndGet();
+            DataRow row = new DataRow();
+            row.addCell(new DataCell("city", city, row));
+            return new RowPage(List.of(row), List.of(), false, false);
+        };
+    }
+}
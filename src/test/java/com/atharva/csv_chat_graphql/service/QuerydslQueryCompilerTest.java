@@ -0,0 +1,121 @@
+package com.nupur.csv_chat_graphql.service;
+
+import com.nupur.csv_chat_graphql.DataRow;
+import com.querydsl.core.Tuple;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class QuerydslQueryCompilerTest {
+
+    // row i is "r<i>"; salaries tie on numbers, on text (case-insensitively) and on empty cells
+    private static final String CSV = """
+            name,salary
+            r0,30
+            r1,10
+            r2,abc
+            r3,10
+            r4,
+            r5,20
+            r6,30
+            r7,ABC
+            r8,10
+            r9,
+            r10,20
+            """;
+
+    @Autowired
+    private CsvService csvService;
+
+    @Autowired
+    private DataRowQueryService queryService;
+
+    @Autowired
+    private QuerydslQueryCompiler queryCompiler;
+
+    @Autowired
+    private DatasetGenerations generations;
+
+    @Test
+    void keysetPagesWalkTiesInIdOrderAndEndOnTheLastPage() throws Exception {
+        List<Long> ids = importRows("keyset-asc");
+        ParsedQuery bySalary = new ParsedQuery(List.of(), "salary", false, null);
+
+        List<RowPage> pages = walk("keyset-asc", bySalary, 3);
+
+        // numbers, then text, then empty cells; ties keep import order
+        assertThat(names(pages, ids)).containsExactly("r1", "r3", "r8", "r5", "r10", "r0", "r6", "r2", "r7", "r4", "r9");
+        assertThat(pages).hasSize(4);
+        assertThat(pages.subList(0, 3)).allMatch(RowPage::hasNextPage);
+        assertThat(pages.get(3).hasNextPage()).isFalse();
+        assertThat(pages.get(3).getRows()).hasSize(2);
+        assertThat(pages.get(1).hasPreviousPage()).isTrue();
+    }
+
+    @Test
+    void descendingPagesAndACursorInsideATie() throws Exception {
+        List<Long> ids = importRows("keyset-desc");
+        ParsedQuery bySalary = new ParsedQuery(List.of(), "salary", true, null);
+
+        List<RowPage> pages = walk("keyset-desc", bySalary, 4);
+
+        assertThat(names(pages, ids)).containsExactly("r0", "r6", "r5", "r10", "r1", "r3", "r8", "r2", "r7", "r4", "r9");
+        assertThat(pages.get(pages.size() - 1).hasNextPage()).isFalse();
+
+        // after the first of the three 10s: the other two, then the text values
+        RowCursor afterR1 = new RowCursor(ids.get(1), "10", 5);
+        List<Tuple> page = queryCompiler.compilePage(bySalary, generations.current("keyset-desc"), afterR1, 3).fetch();
+        assertThat(page).extracting(t -> ids.indexOf(t.get(0, DataRow.class).getId())).containsExactly(3, 8, 2);
+        assertThat(page).extracting(t -> t.get(1, String.class)).containsExactly("10", "10", "abc");
+    }
+
+    @Test
+    void topNStopsPagingAtTheLimit() throws Exception {
+        List<Long> ids = importRows("keyset-top");
+        ParsedQuery top5 = new ParsedQuery(List.of(), "salary", false, 5);
+
+        List<RowPage> pages = walk("keyset-top", top5, 3);
+
+        assertThat(names(pages, ids)).containsExactly("r1", "r3", "r8", "r5", "r10");
+        assertThat(pages.get(1).hasNextPage()).isFalse();
+    }
+
+    // Row ids of the imported CSV, in file order
+    private List<Long> importRows(String dataset) throws Exception {
+        csvService.importCsv(dataset, new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)),
+                ImportProgressListener.NONE);
+        ParsedQuery all = new ParsedQuery(List.of(), null, false, null);
+        List<Long> ids = new ArrayList<>();
+        for (Tuple t : queryCompiler.compilePage(all, generations.current(dataset), null, 100).fetch()) {
+            ids.add(t.get(0, DataRow.class).getId());
+        }
+        assertThat(ids).hasSize(11);
+        return ids;
+    }
+
+    private List<RowPage> walk(String dataset, ParsedQuery query, int first) {
+        List<RowPage> pages = new ArrayList<>();
+        RowCursor after = null;
+        do {
+            RowPage page = queryService.findPage(dataset, query, QueryRoute.SQL, after, first);
+            pages.add(page);
+            after = page.getCursors().isEmpty() ? null : page.getCursors().get(page.getCursors().size() - 1);
+        } while (pages.get(pages.size() - 1).hasNextPage() && pages.size() < 20);
+        return pages;
+    }
+
+    private static List<String> names(List<RowPage> pages, List<Long> ids) {
+        return pages.stream()
+                .flatMap(p -> p.getRows().stream())
+                .map(r -> "r" + ids.indexOf(r.getId()))
+                .toList();
+    }
+}
@@ -0,0 +1,65 @@
+package com.nupur.csv_chat_graphql.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntBinaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopNTest {
+
+    // many ties, so the input-order tie break matters
+    private static int[] keys(int n) {
+        Random random = new Random(42);
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextInt(50);
+        }
+        return keys;
+    }
+
+    private static int[] stableSortedPrefix(int[] positions, IntBinaryOperator cmp, int limit) {
+        Integer[] boxed = Arrays.stream(positions).boxed().toArray(Integer[]::new);
+        Arrays.sort(boxed, cmp::applyAsInt); // stable for objects
+        return Arrays.stream(boxed).limit(limit).mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void selectsTheSamePrefixAsAStableSort() {
+        int[] keys = keys(5000);
+        IntBinaryOperator descending = (a, b) -> Integer.compare(keys[b], keys[a]);
+        int[] positions = new int[2000];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i * 2; // a selection, not every row
+        }
+
+        for (int limit : new int[]{0, 1, 7, 100, 1999, 2000, 5000}) {
+            int[] expected = stableSortedPrefix(positions, descending, limit);
+            assertThat(TopN.select(positions, limit, descending)).as("limit %d", limit).containsExactly(expected);
+            // split into parts of ~64 positions on the fork-join pool
+            assertThat(TopN.select(positions, limit, descending, 128)).as("parallel, limit %d", limit)
+                    .containsExactly(expected);
+        }
+        assertThat(TopN.select(positions, -1, descending))
+                .containsExactly(stableSortedPrefix(positions, descending, positions.length));
+    }
+
+    @Test
+    void collectorKeepsOnlyTheBestOffers() {
+        int[] keys = keys(1000);
+        TopN.Collector<Integer, String> top = new TopN.Collector<>(Comparator.<Integer>naturalOrder(), 10);
+        List<String> all = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            top.offer(keys[i], keys[i] + "@" + i);
+            all.add(keys[i] + "@" + i);
+        }
+        all.sort(Comparator.comparingInt(s -> Integer.parseInt(s.substring(0, s.indexOf('@')))));
+
+        assertThat(top.result()).containsExactlyElementsOf(all.subList(0, 10));
+    }
+}